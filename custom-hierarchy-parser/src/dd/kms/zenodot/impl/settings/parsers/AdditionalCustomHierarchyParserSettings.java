@@ -4,9 +4,12 @@ import dd.kms.zenodot.api.settings.ObjectTreeNode;
 import dd.kms.zenodot.api.settings.extensions.AdditionalParserSettings;
 import dd.kms.zenodot.api.settings.extensions.ParserType;
 import dd.kms.zenodot.framework.parsers.AbstractParser;
+import dd.kms.zenodot.framework.utils.ParserToolbox;
 import dd.kms.zenodot.impl.parsers.CustomHierarchyParser;
 import dd.kms.zenodot.impl.settings.CustomHierarchyParserSettings;
 
+import java.util.function.Function;
+
 public class AdditionalCustomHierarchyParserSettings implements AdditionalParserSettings
 {
 	private final CustomHierarchyParserSettings	settings;
@@ -21,12 +24,17 @@ public class AdditionalCustomHierarchyParserSettings implements AdditionalParser
 	}
 
 	@Override
-	public Class<? extends AbstractParser<?, ?, ?>> getParserClass() {
-		return CustomHierarchyParser.class;
+	public Function<ParserToolbox, ? extends AbstractParser<?, ?, ?>> getParserFactory() {
+		return CustomHierarchyParser::new;
 	}
 
 	@Override
 	public CustomHierarchyParserSettings getSettings() {
 		return settings;
 	}
+
+	@Override
+	public boolean canStartWith(char c) {
+		return c == settings.getHierarchyBegin();
+	}
 }
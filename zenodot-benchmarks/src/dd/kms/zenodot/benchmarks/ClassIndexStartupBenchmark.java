@@ -0,0 +1,82 @@
+package dd.kms.zenodot.benchmarks;
+
+import dd.kms.zenodot.impl.classindex.ClassIndexLoader;
+import dd.kms.zenodot.impl.classindex.ClassIndexManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compares building the class index in a fresh JVM without an index file (cold start, full class path scan)
+ * with loading it from an up-to-date index file (warm start, memory-mapped index). Every measurement runs in
+ * its own fork, so class loading and JIT effects are part of the measured startup cost. In both cases, the
+ * measurement ends when the index is ready for completions, i.e., including the sorted class indices and the
+ * tries of the unqualified class names.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(5)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class ClassIndexStartupBenchmark
+{
+	@Benchmark
+	public boolean coldStart(ColdCache cache) {
+		return awaitIndex(cache.directory);
+	}
+
+	@Benchmark
+	public boolean warmStart(WarmCache cache) {
+		return awaitIndex(cache.directory);
+	}
+
+	private static boolean awaitIndex(Path cacheDirectory) {
+		System.setProperty(ClassIndexLoader.CACHE_DIRECTORY_PROPERTY, cacheDirectory.toString());
+		return ClassIndexManager.awaitIndex().containsClass("java.lang.String");
+	}
+
+	@State(Scope.Benchmark)
+	public static class ColdCache
+	{
+		Path directory;
+
+		@Setup(Level.Iteration)
+		public void setUp() throws IOException {
+			directory = Files.createTempDirectory("zenodot-benchmark");
+		}
+
+		@TearDown(Level.Iteration)
+		public void tearDown() throws IOException {
+			deleteRecursively(directory);
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class WarmCache
+	{
+		Path directory;
+
+		@Setup(Level.Trial)
+		public void setUp() throws IOException {
+			directory = Files.createTempDirectory("zenodot-benchmark");
+			// creates the index file
+			ClassIndexLoader.load(directory);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() throws IOException {
+			deleteRecursively(directory);
+		}
+	}
+
+	static void deleteRecursively(Path directory) throws IOException {
+		try (Stream<Path> paths = Files.walk(directory)) {
+			paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+	}
+}
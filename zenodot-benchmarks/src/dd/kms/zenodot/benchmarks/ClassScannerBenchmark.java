@@ -0,0 +1,63 @@
+package dd.kms.zenodot.benchmarks;
+
+import dd.kms.zenodot.api.settings.ClassIndexSettings;
+import dd.kms.zenodot.api.settings.ClassIndexSettingsBuilder;
+import dd.kms.zenodot.api.settings.ClassScanner;
+import dd.kms.zenodot.impl.classindex.ClassIndexLoader;
+import dd.kms.zenodot.impl.classindex.ClassNameTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the ClassGraph scanner with the NIO scanner when scanning the class path and the runtime image
+ * in a fresh JVM. Besides the scan time, the peak heap usage during the scan is reported as secondary
+ * result "peakHeapMegabytes".
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(5)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@State(Scope.Benchmark)
+public class ClassScannerBenchmark
+{
+	@Param({"CLASS_GRAPH", "NIO"})
+	public ClassScanner	classScanner;
+
+	@Benchmark
+	public int scanClassPath(PeakHeapUsage peakHeapUsage) {
+		ClassIndexSettings settings = ClassIndexSettingsBuilder.create().classScanner(classScanner).build();
+		ClassNameTable table = ClassIndexLoader.scanClassPath(settings);
+		peakHeapUsage.update();
+		return table.size();
+	}
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class PeakHeapUsage
+	{
+		public long	peakHeapMegabytes;
+
+		@Setup(Level.Iteration)
+		public void setUp() {
+			System.gc();
+			for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+				memoryPool.resetPeakUsage();
+			}
+		}
+
+		void update() {
+			long peakHeapBytes = 0;
+			for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+				if (memoryPool.getType() == MemoryType.HEAP) {
+					peakHeapBytes += memoryPool.getPeakUsage().getUsed();
+				}
+			}
+			peakHeapMegabytes = peakHeapBytes >> 20;
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package dd.kms.zenodot.benchmarks;
+
+import dd.kms.zenodot.api.common.multistringmatching.MultiStringMatcher;
+import dd.kms.zenodot.api.settings.ClassIndexSettings;
+import dd.kms.zenodot.api.settings.ClassIndexSettingsBuilder;
+import dd.kms.zenodot.api.settings.ClassScanner;
+import dd.kms.zenodot.impl.classindex.ClassIndexLoader;
+import dd.kms.zenodot.impl.classindex.ClassNameTable;
+import dd.kms.zenodot.impl.utils.ClassUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the mutable {@link MultiStringMatcher} with its compact representation created by
+ * {@link MultiStringMatcher#makeImmutable()}. The matcher maps the unqualified names of all classes
+ * of the runtime image and the class path to their qualified names.
+ * <ul>
+ *     <li>{@link #search()} measures the latency of typical search patterns.</li>
+ *     <li>{@link #searchManyWildcards()} measures the latency of patterns with many wildcards, which can
+ *         be matched in many ways.</li>
+ *     <li>{@link #createMatcher(RetainedHeap)} reports the heap retained by the matcher as secondary
+ *         result "retainedKilobytes".</li>
+ * </ul>
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class MultiStringMatcherBenchmark
+{
+	private static final String[]	SEARCH_PATTERNS				= { "ArrayList", "ArLi", "HM", "Conc*Map", "*Exception", "Str", "IOE" };
+	private static final String[]	MANY_WILDCARDS_PATTERNS		= { "*a*b*c*", "*e*e*e*e*x", "*o*n*o*n*o*n*q" };
+
+	@Param({"false", "true"})
+	public boolean	immutable;
+
+	private List<String>				classNames;
+	private MultiStringMatcher<String>	matcher;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		ClassIndexSettings settings = ClassIndexSettingsBuilder.create().classScanner(ClassScanner.NIO).build();
+		ClassNameTable table = ClassIndexLoader.scanClassPath(settings);
+		classNames = new ArrayList<>(table.size());
+		for (int i = 0; i < table.size(); i++) {
+			classNames.add(table.getName(i));
+		}
+		matcher = createMatcher(classNames, immutable);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public int search() {
+		int numResults = 0;
+		for (String pattern : SEARCH_PATTERNS) {
+			numResults += matcher.search(pattern, 100).size();
+		}
+		return numResults;
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public int searchManyWildcards() {
+		int numResults = 0;
+		for (String pattern : MANY_WILDCARDS_PATTERNS) {
+			numResults += matcher.search(pattern, 100).size();
+		}
+		return numResults;
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 0)
+	@Measurement(iterations = 1)
+	@Fork(3)
+	public MultiStringMatcher<String> createMatcher(RetainedHeap retainedHeap) {
+		long usedHeapBefore = RetainedHeap.getUsedHeapAfterGc();
+		MultiStringMatcher<String> matcher = createMatcher(classNames, immutable);
+		retainedHeap.retainedKilobytes = (RetainedHeap.getUsedHeapAfterGc() - usedHeapBefore) >> 10;
+		return matcher;
+	}
+
+	private static MultiStringMatcher<String> createMatcher(List<String> classNames, boolean immutable) {
+		MultiStringMatcher<String> matcher = new MultiStringMatcher<>();
+		for (String className : classNames) {
+			matcher.put(ClassUtils.getLeafOfPath(className), className);
+		}
+		if (immutable) {
+			matcher.makeImmutable();
+		}
+		return matcher;
+	}
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class RetainedHeap
+	{
+		public long	retainedKilobytes;
+
+		static long getUsedHeapAfterGc() {
+			Runtime runtime = Runtime.getRuntime();
+			for (int i = 0; i < 3; i++) {
+				System.gc();
+			}
+			return runtime.totalMemory() - runtime.freeMemory();
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package dd.kms.zenodot.benchmarks;
+
+import dd.kms.zenodot.api.ExpressionParser;
+import dd.kms.zenodot.api.ParseException;
+import dd.kms.zenodot.api.Parsers;
+import dd.kms.zenodot.api.settings.ParserSettingsBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures evaluating and completing a typical expression with 5 operands. Every operand is parsed by
+ * several alternative parsers that are created per operand, so these benchmarks are sensitive to the
+ * costs of creating parsers.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class ParserCreationBenchmark
+{
+	private static final String	EXPRESSION	= "names.size() + count * 2 - Math.max(count, 1) + (int) 2.5";
+
+	private ExpressionParser	parser;
+	private TestObject			testObject;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Parsers.getClassIndexReadiness().join();
+		parser = Parsers.createExpressionParser(ParserSettingsBuilder.create().build());
+		testObject = new TestObject();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public Object evaluate() throws ParseException {
+		return parser.evaluate(EXPRESSION, testObject);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public int complete() throws ParseException {
+		return parser.getCompletions(EXPRESSION, EXPRESSION.length(), testObject).size();
+	}
+
+	public static class TestObject
+	{
+		public final List<String>	names	= Arrays.asList("first", "second", "third");
+		public final int			count	= 3;
+	}
+}
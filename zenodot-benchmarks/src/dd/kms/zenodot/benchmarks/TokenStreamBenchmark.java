@@ -0,0 +1,95 @@
+package dd.kms.zenodot.benchmarks;
+
+import dd.kms.zenodot.api.ExpressionParser;
+import dd.kms.zenodot.api.ParseException;
+import dd.kms.zenodot.api.Parsers;
+import dd.kms.zenodot.api.settings.ParserSettingsBuilder;
+import dd.kms.zenodot.framework.flowcontrol.CodeCompletionException;
+import dd.kms.zenodot.framework.flowcontrol.InternalErrorException;
+import dd.kms.zenodot.framework.flowcontrol.SyntaxException;
+import dd.kms.zenodot.framework.operators.BinaryOperator;
+import dd.kms.zenodot.framework.tokenizer.TokenStream;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing expressions of different lengths.
+ * <ul>
+ *     <li>{@link #tokenize()} reads the identifiers, literals, and operators of an expression
+ *         {@code value0 * 1 - 2.5 / value3 + ...} directly from a {@link TokenStream}. The time
+ *         should grow linearly with the length of the expression.</li>
+ *     <li>{@link #evaluate()} evaluates an expression {@code 1 + 0 * 1 - 2 + ...} with the
+ *         {@link ExpressionParser}.</li>
+ * </ul>
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class TokenStreamBenchmark
+{
+	private static final String[]	OPERATORS	= { "+", "*", "-", "/" };
+
+	@Param({"1000", "10000"})
+	public int	expressionLength;
+
+	private String				tokenExpression;
+	private int					numOperands;
+	private String				arithmeticExpression;
+	private ExpressionParser	parser;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		StringBuilder builder = new StringBuilder("value0");
+		numOperands = 1;
+		while (builder.length() < expressionLength) {
+			builder.append(' ').append(OPERATORS[numOperands % OPERATORS.length]).append(' ');
+			switch (numOperands % 3) {
+				case 0:		builder.append("value").append(numOperands);	break;
+				case 1:		builder.append(numOperands);					break;
+				default:	builder.append(numOperands).append(".5");		break;
+			}
+			numOperands++;
+		}
+		tokenExpression = builder.toString();
+
+		builder = new StringBuilder("1");
+		for (int i = 0; builder.length() < expressionLength; i++) {
+			builder.append(' ').append(OPERATORS[i % 3]).append(' ').append(i % 100);
+		}
+		arithmeticExpression = builder.toString();
+		parser = Parsers.createExpressionParser(ParserSettingsBuilder.create().build());
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public int tokenize() throws SyntaxException, CodeCompletionException, InternalErrorException {
+		TokenStream tokenStream = new TokenStream(tokenExpression, -1);
+		int numTokens = 0;
+		for (int i = 0; i < numOperands; i++) {
+			if (i > 0) {
+				BinaryOperator operator = tokenStream.readBinaryOperator(TokenStream.NO_COMPLETIONS);
+				if (operator == null) {
+					throw new IllegalStateException("Expected a binary operator at " + tokenStream);
+				}
+				numTokens++;
+			}
+			switch (i % 3) {
+				case 0:		tokenStream.readIdentifier(TokenStream.NO_COMPLETIONS, "Expected an identifier");	break;
+				case 1:		tokenStream.readIntegerLiteral();													break;
+				default:	tokenStream.readDoubleLiteral();													break;
+			}
+			numTokens++;
+		}
+		return numTokens;
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public Object evaluate() throws ParseException {
+		return parser.evaluate(arithmeticExpression, null);
+	}
+}
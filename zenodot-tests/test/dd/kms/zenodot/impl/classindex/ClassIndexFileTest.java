@@ -0,0 +1,83 @@
+package dd.kms.zenodot.impl.classindex;
+
+import com.google.common.collect.ImmutableList;
+import dd.kms.zenodot.api.common.ClassInfo;
+import dd.kms.zenodot.api.settings.ClassIndexSettings;
+import dd.kms.zenodot.api.settings.ClassIndexSettingsBuilder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Tests that a {@link ClassSourceIndex} that is read from an index file behaves like the index
+ * it has been written from
+ */
+public class ClassIndexFileTest
+{
+	private static final byte[]	FINGERPRINT	= { 4, 2 };
+
+	private Path	indexFile;
+
+	@Before
+	public void setUp() throws IOException {
+		indexFile = Files.createTempFile("zenodot-test", ".bin");
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(indexFile);
+	}
+
+	@Test
+	public void testReadWrittenIndex() throws IOException {
+		ClassIndexSettings settings = ClassIndexSettingsBuilder.create()
+			.acceptPackages(ImmutableList.of("java.util"))
+			.build();
+		ClassSourceIndex scannedIndex = ClassSourceIndex.create(ClassIndexLoader.scanClassPath(settings));
+		ClassIndexFile.write(indexFile, FINGERPRINT, scannedIndex);
+
+		Assert.assertNull("The index has been read for a different fingerprint", ClassIndexFile.read(indexFile, new byte[]{ 4, 3 }));
+		ClassSourceIndex persistedIndex = ClassIndexFile.read(indexFile, FINGERPRINT);
+		Assert.assertNotNull("The index file could not be read", persistedIndex);
+
+		Assert.assertEquals(scannedIndex.getClassNames().size(), persistedIndex.getClassNames().size());
+		Assert.assertEquals(scannedIndex.getPackageNames(), persistedIndex.getPackageNames());
+		for (String packageName : scannedIndex.getPackageNames()) {
+			Assert.assertEquals(scannedIndex.getTopLevelClasses(packageName), persistedIndex.getTopLevelClasses(packageName));
+		}
+		for (String className : new String[]{ "java.util.ArrayList", "java.util.Map$Entry", "java.util.Map.Entry", "java.util.Whatever", "java.lang.String" }) {
+			Assert.assertEquals(scannedIndex.containsClass(className), persistedIndex.containsClass(className));
+		}
+		for (String pattern : new String[]{ "", "A", "ArrayL", "HM", "hashm", "Li*t", "Entry", "Whatever" }) {
+			checkEqual(scannedIndex.searchClassesByUnqualifiedName(pattern, 20), persistedIndex.searchClassesByUnqualifiedName(pattern, 20));
+			checkEqual(scannedIndex.searchClassesByUnqualifiedNameIgnoringCase(pattern, 20), persistedIndex.searchClassesByUnqualifiedNameIgnoringCase(pattern, 20));
+			checkEqual(scannedIndex.searchClassesByUnqualifiedNameWithTypos(pattern, 1, 20), persistedIndex.searchClassesByUnqualifiedNameWithTypos(pattern, 1, 20));
+		}
+	}
+
+	@Test
+	public void testTruncatedIndexFile() throws IOException {
+		ClassIndexSettings settings = ClassIndexSettingsBuilder.create()
+			.acceptPackages(ImmutableList.of("java.util.function"))
+			.build();
+		ClassIndexFile.write(indexFile, FINGERPRINT, ClassSourceIndex.create(ClassIndexLoader.scanClassPath(settings)));
+		byte[] content = Files.readAllBytes(indexFile);
+		for (int length : new int[]{ content.length - 1, content.length / 2 }) {
+			byte[] truncatedContent = new byte[length];
+			System.arraycopy(content, 0, truncatedContent, 0, length);
+			Files.write(indexFile, truncatedContent);
+			Assert.assertNull("A truncated index file has been read", ClassIndexFile.read(indexFile, FINGERPRINT));
+		}
+	}
+
+	private static void checkEqual(Map<ClassInfo, Integer> expected, Map<ClassInfo, Integer> actual) {
+		Assert.assertEquals(expected, actual);
+		Assert.assertEquals("Different order of results", ImmutableList.copyOf(expected.keySet()), ImmutableList.copyOf(actual.keySet()));
+	}
+}
@@ -0,0 +1,248 @@
+package dd.kms.zenodot.impl.classindex;
+
+import dd.kms.zenodot.api.common.multistringmatching.MultiStringMatcher;
+import dd.kms.zenodot.api.matching.StringMatch;
+import dd.kms.zenodot.framework.matching.MatchRatings;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Tests that the {@link PackedNameTrie} yields the same results as the {@link MultiStringMatcher} and
+ * that ranked searches yield the best results in the right order.
+ */
+public class PackedNameTrieTest
+{
+	private static final String[]	KEYS	= {
+		"ArrayList",
+		"ArrayIndexOutOfBoundsException",
+		"ArrayBlockingQueue",
+		"AbstractLogger",
+		"ArtificialIntelligence",
+		"LinkedList",
+		"LogLevel",
+		"Livelock",
+		"Logarithm",
+		"List",
+		"List",
+		"ListIterator",
+		"Map",
+		"HashMap",
+		"HashMap"
+	};
+
+	private static final String[]	KEY_PATTERNS	= {
+		"", "A", "Ar", "ArL", "ALi", "AI", "ArIn", "L", "LL", "Lis", "LI", "List", "HM", "HaMa", "*", "A*e", "*i*t", "*o*k", "*M", "B", "AsL", "ListX"
+	};
+
+	@Test
+	public void testManualKeys() {
+		checkSameResults(Arrays.asList(KEYS), Arrays.asList(KEY_PATTERNS));
+	}
+
+	@Test
+	public void testGeneratedKeys() {
+		List<String> keys = generateWords(new char[]{ 'a', 'b', 'C', 'D' }, 6);
+		List<String> keyPatterns = generateWords(new char[]{ 'a', 'c', 'B', 'D', '*' }, 4);
+		checkSameResults(keys, keyPatterns);
+	}
+
+	@Test
+	public void testResultLimit() {
+		List<String> keys = generateWords(new char[]{ 'a', 'B' }, 8);
+		PackedNameTrie trie = createTrie(keys);
+		Set<Integer> results = new HashSet<>();
+		trie.search("a*B", 10, results::add);
+		Assert.assertEquals("Wrong number of results", 10, results.size());
+	}
+
+	@Test
+	public void testRankedSearch() {
+		checkRankedResults(Arrays.asList(KEYS), Arrays.asList(KEY_PATTERNS));
+		List<String> keys = generateWords(new char[]{ 'a', 'b', 'C', 'D' }, 6);
+		List<String> keyPatterns = generateWords(new char[]{ 'a', 'c', 'B', 'D', '*' }, 3);
+		checkRankedResults(keys, keyPatterns);
+	}
+
+	private static void checkRankedResults(List<String> keys, List<String> keyPatterns) {
+		PackedNameTrie trie = createTrie(keys);
+		for (String keyPattern : keyPatterns) {
+			Set<Integer> allResults = new HashSet<>();
+			trie.search(keyPattern, Integer.MAX_VALUE, allResults::add);
+			List<Integer> expectedRanks = allResults.stream()
+				.map(value -> getExpectedRank(keys.get(value), keyPattern))
+				.sorted()
+				.collect(Collectors.toList());
+
+			for (int maxNumberOfResults : new int[]{ 1, 5, Integer.MAX_VALUE }) {
+				List<Integer> rankedResults = new ArrayList<>();
+				List<Integer> ranks = new ArrayList<>();
+				trie.searchBest(keyPattern, maxNumberOfResults, (value, rank) -> {
+					if (rankedResults.contains(value)) {
+						return false;
+					}
+					rankedResults.add(value);
+					ranks.add(rank);
+					return true;
+				});
+				int expectedNumberOfResults = Math.min(maxNumberOfResults, allResults.size());
+				Assert.assertEquals("Wrong number of results for pattern '" + keyPattern + "'", expectedNumberOfResults, rankedResults.size());
+				Assert.assertTrue("Unexpected results for pattern '" + keyPattern + "'", allResults.containsAll(rankedResults));
+				List<Integer> actualRanks = rankedResults.stream()
+					.map(value -> getExpectedRank(keys.get(value), keyPattern))
+					.collect(Collectors.toList());
+				Assert.assertEquals("Wrong order of results for pattern '" + keyPattern + "'", expectedRanks.subList(0, expectedNumberOfResults), actualRanks);
+				for (int i = 1; i < ranks.size(); i++) {
+					Assert.assertTrue("Reported ranks are not ascending for pattern '" + keyPattern + "'", ranks.get(i - 1) <= ranks.get(i));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testIgnoringCase() {
+		checkSameResultsIgnoringCase(Arrays.asList(KEYS), Arrays.asList("arraylist", "al", "ali", "aLi", "hm", "HM", "hMa", "lis", "li", "*it", "*M", "a*e", "ll", "xyz"));
+		List<String> keys = generateWords(new char[]{ 'a', 'b', 'C', 'D' }, 6);
+		List<String> keyPatterns = generateWords(new char[]{ 'a', 'c', 'B', 'd', '*' }, 4);
+		checkSameResultsIgnoringCase(keys, keyPatterns);
+	}
+
+	/**
+	 * Uses {@link MatchRatings#rateStringMatch(String, String)} as reference, which rates all matches of a case-insensitive
+	 * trie with {@link StringMatch#WILDCARD_IGNORE_CASE} or better. This only holds if no keys differ in case only.
+	 */
+	private static void checkSameResultsIgnoringCase(List<String> keys, List<String> keyPatterns) {
+		int[] values = new int[keys.size()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = i;
+		}
+		PackedNameTrie trie = PackedNameTrie.createIgnoringCase(keys.toArray(new String[0]), values);
+		for (String keyPattern : keyPatterns) {
+			Set<Integer> expectedResults = IntStream.range(0, keys.size())
+				.filter(i -> MatchRatings.rateStringMatch(keyPattern, keys.get(i)).compareTo(StringMatch.WILDCARD_IGNORE_CASE) <= 0)
+				.boxed()
+				.collect(Collectors.toSet());
+			Set<Integer> actualResults = new HashSet<>();
+			trie.search(keyPattern, Integer.MAX_VALUE, actualResults::add);
+			Assert.assertEquals("Wrong results for pattern '" + keyPattern + "'", expectedResults, actualResults);
+
+			Set<Integer> rankedResults = new HashSet<>();
+			trie.searchBest(keyPattern, Integer.MAX_VALUE, (value, rank) -> rankedResults.add(value));
+			Assert.assertEquals("Wrong ranked results for pattern '" + keyPattern + "'", expectedResults, rankedResults);
+		}
+	}
+
+	@Test
+	public void testSearchWithTypos() {
+		List<String> keys = new ArrayList<>(Arrays.asList(KEYS));
+		keys.addAll(generateWords(new char[]{ 'a', 'b', 'C' }, 5));
+		PackedNameTrie trie = createTrie(keys);
+		List<String> searchStrings = new ArrayList<>(Arrays.asList("Aray", "arryl", "LnkedL", "hsmap", "Lst", "Itr", "xyz"));
+		searchStrings.addAll(generateWords(new char[]{ 'a', 'B', 'c' }, 3));
+		for (String searchString : searchStrings) {
+			for (int maxTypos = 0; maxTypos <= 2; maxTypos++) {
+				Map<Integer, Integer> expectedTyposByValue = new HashMap<>();
+				for (int value = 0; value < keys.size(); value++) {
+					int typos = getPrefixEditDistance(keys.get(value).toLowerCase(), searchString.toLowerCase());
+					if (typos <= maxTypos) {
+						expectedTyposByValue.put(value, typos);
+					}
+				}
+				Map<Integer, Integer> actualTyposByValue = new LinkedHashMap<>();
+				List<Integer> ranks = new ArrayList<>();
+				trie.searchWithTypos(searchString, maxTypos, Integer.MAX_VALUE, (value, rank) -> {
+					ranks.add(rank);
+					return actualTyposByValue.putIfAbsent(value, rank) == null;
+				});
+				String description = "'" + searchString + "' with at most " + maxTypos + " typos";
+				Assert.assertEquals("Wrong results for " + description, expectedTyposByValue, actualTyposByValue);
+				for (int i = 1; i < ranks.size(); i++) {
+					Assert.assertTrue("Reported ranks are not ascending for " + description, ranks.get(i - 1) <= ranks.get(i));
+				}
+
+				Set<Integer> limitedResults = new HashSet<>();
+				trie.searchWithTypos(searchString, maxTypos, 3, (value, rank) -> limitedResults.add(value));
+				Assert.assertEquals("Wrong number of limited results for " + description, Math.min(3, expectedTyposByValue.size()), limitedResults.size());
+			}
+		}
+	}
+
+	/**
+	 * Returns the minimum edit distance between the prefix and any prefix of the key
+	 */
+	private static int getPrefixEditDistance(String key, String prefix) {
+		int[] distances = new int[prefix.length() + 1];
+		for (int j = 0; j <= prefix.length(); j++) {
+			distances[j] = j;
+		}
+		int minDistance = distances[prefix.length()];
+		for (int i = 1; i <= key.length(); i++) {
+			int diagonal = distances[0];
+			distances[0] = i;
+			for (int j = 1; j <= prefix.length(); j++) {
+				int above = distances[j];
+				int substitutionCost = key.charAt(i - 1) == prefix.charAt(j - 1) ? 0 : 1;
+				distances[j] = Math.min(diagonal + substitutionCost, Math.min(above, distances[j - 1]) + 1);
+				diagonal = above;
+			}
+			minDistance = Math.min(minDistance, distances[prefix.length()]);
+		}
+		return minDistance;
+	}
+
+	/**
+	 * Full matches are better than prefix matches, which are better than other matches. Shorter keys are better than longer keys.
+	 */
+	private static int getExpectedRank(String key, String keyPattern) {
+		int category = key.equals(keyPattern) ? 0 : key.startsWith(keyPattern) ? 1 : 2;
+		return category * 1000 + key.length();
+	}
+
+	private static void checkSameResults(List<String> keys, List<String> keyPatterns) {
+		MultiStringMatcher<Integer> matcher = new MultiStringMatcher<>();
+		for (int i = 0; i < keys.size(); i++) {
+			matcher.put(keys.get(i), i);
+		}
+		PackedNameTrie trie = createTrie(keys);
+		for (String keyPattern : keyPatterns) {
+			Set<Integer> expectedResults = matcher.search(keyPattern);
+			Set<Integer> actualResults = new HashSet<>();
+			trie.search(keyPattern, Integer.MAX_VALUE, actualResults::add);
+			Assert.assertEquals("Wrong results for pattern '" + keyPattern + "'", expectedResults, actualResults);
+		}
+	}
+
+	private static PackedNameTrie createTrie(List<String> keys) {
+		Integer[] indices = new Integer[keys.size()];
+		for (int i = 0; i < indices.length; i++) {
+			indices[i] = i;
+		}
+		Arrays.sort(indices, Comparator.comparing(keys::get));
+		String[] sortedKeys = new String[indices.length];
+		int[] values = new int[indices.length];
+		for (int i = 0; i < indices.length; i++) {
+			sortedKeys[i] = keys.get(indices[i]);
+			values[i] = indices[i];
+		}
+		return PackedNameTrie.create(sortedKeys, values);
+	}
+
+	private static List<String> generateWords(char[] characters, int maxLength) {
+		List<String> allWords = new ArrayList<>();
+		List<String> words = Collections.singletonList("");
+		for (int length = 1; length <= maxLength; length++) {
+			List<String> longerWords = new ArrayList<>();
+			for (String word : words) {
+				for (char c : characters) {
+					longerWords.add(word + c);
+				}
+			}
+			words = longerWords;
+			allWords.addAll(words);
+		}
+		return allWords;
+	}
+}
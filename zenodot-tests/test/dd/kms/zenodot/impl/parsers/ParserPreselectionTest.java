@@ -0,0 +1,182 @@
+package dd.kms.zenodot.impl.parsers;
+
+import dd.kms.zenodot.api.Parsers;
+import dd.kms.zenodot.api.Variables;
+import dd.kms.zenodot.api.settings.EvaluationMode;
+import dd.kms.zenodot.api.settings.ParserSettings;
+import dd.kms.zenodot.api.settings.ParserSettingsBuilder;
+import dd.kms.zenodot.api.settings.extensions.AdditionalParserSettings;
+import dd.kms.zenodot.api.settings.extensions.ParserExtensionBuilder;
+import dd.kms.zenodot.api.settings.extensions.ParserType;
+import dd.kms.zenodot.framework.flowcontrol.CodeCompletionException;
+import dd.kms.zenodot.framework.flowcontrol.EvaluationException;
+import dd.kms.zenodot.framework.flowcontrol.InternalErrorException;
+import dd.kms.zenodot.framework.flowcontrol.SyntaxException;
+import dd.kms.zenodot.framework.parsers.AbstractParser;
+import dd.kms.zenodot.framework.parsers.AbstractParserWithObjectTail;
+import dd.kms.zenodot.framework.parsers.ParserConfidence;
+import dd.kms.zenodot.framework.parsers.expectations.ObjectParseResultExpectation;
+import dd.kms.zenodot.framework.result.ObjectParseResult;
+import dd.kms.zenodot.framework.result.ParseResults;
+import dd.kms.zenodot.framework.tokenizer.TokenStream;
+import dd.kms.zenodot.framework.utils.ParserToolbox;
+import dd.kms.zenodot.framework.wrappers.InfoProvider;
+import dd.kms.zenodot.framework.wrappers.ObjectInfo;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Tests that preselecting the parsers of an operand by its first character yields the same results as
+ * trying all parsers. Error messages are not compared because the message of merged syntax errors
+ * is not deterministic.
+ */
+public class ParserPreselectionTest
+{
+	private static final List<String>	OPERANDS	= Arrays.asList(
+		// parentheses, casts, and lambdas
+		"(count + 2) * 3", "(int) 2.5", "(double) count / 2", "(", "(int", "(count", "()",
+		// literals
+		"12 + 3", "0", ".5 * 2", "1.5e3f", "2L", "01", "1e", "'c'", "'\\''", "'\\'", "\"text\".length()", "\"text",
+		// literals and identifiers starting with 'n', 't', and 'f'
+		"null", "nul", "names.size()", "new StringBuilder(\"a\").length()", "new", "this", "true", "tru", "this.flag", "false", "flag", "fals",
+		// unary operators
+		"-count", "+count", "!flag", "~count", "- -count", "-", "!)", "~",
+		// closing parenthesis and end of input
+		")", "", " ", ") + 1",
+		// classes and packages
+		"Math.max(count, 1)", "java.lang.Math.abs(-1)", "String.valueOf(count)", "java.util"
+	);
+
+	@Test
+	public void testSameResultsAsWithoutPreselection() {
+		Parsers.getClassIndexReadiness().join();
+		TestClass testInstance = new TestClass();
+		for (EvaluationMode evaluationMode : EvaluationMode.values()) {
+			ParserSettings settings = ParserSettingsBuilder.create().evaluationMode(evaluationMode).build();
+			for (String operand : OPERANDS) {
+				checkSameResults(settings, testInstance, operand);
+			}
+		}
+	}
+
+	@Test
+	public void testExtensionIsOnlyTriedForItsFirstCharacter() {
+		Parsers.getClassIndexReadiness().join();
+		AtomicInteger numParsersCreated = new AtomicInteger();
+		ParserSettings settings = ParserSettingsBuilder.create()
+			.setParserExtension("hash literal", ParserExtensionBuilder.create().addParser(new HashLiteralParserSettings(numParsersCreated)).build())
+			.build();
+		TestClass testInstance = new TestClass();
+
+		assertParseResult("result 42 (int) at 1", getParseDescription(settings, testInstance, "#", -1, true));
+		Assert.assertTrue("The extension has not been tried", numParsersCreated.get() > 0);
+
+		numParsersCreated.set(0);
+		assertParseResult("result 3 (int) at 5", getParseDescription(settings, testInstance, "count", -1, true));
+		Assert.assertEquals(0, numParsersCreated.get());
+
+		// completions at the beginning of an operand consider all parsers
+		getParseDescription(settings, testInstance, "count", 0, true);
+		Assert.assertTrue("The extension has not been tried", numParsersCreated.get() > 0);
+
+		for (String operand : Arrays.asList("#", "#.toString().length()", "count", "#)", "(#)", "-#")) {
+			checkSameResults(settings, testInstance, operand);
+		}
+	}
+
+	private static void checkSameResults(ParserSettings settings, Object testInstance, String operand) {
+		for (int caretPosition = -1; caretPosition <= operand.length(); caretPosition++) {
+			String expected = getParseDescription(settings, testInstance, operand, caretPosition, false);
+			String actual = getParseDescription(settings, testInstance, operand, caretPosition, true);
+			String request = caretPosition < 0 ? "evaluation" : "completions at position " + caretPosition;
+			Assert.assertEquals("Deviating " + request + " for '" + operand + "' in mode " + settings.getEvaluationMode(), expected, actual);
+		}
+	}
+
+	private static void assertParseResult(String expectedResult, String parseDescription) {
+		Assert.assertTrue("Unexpected parse result: " + parseDescription, parseDescription.startsWith(expectedResult + ","));
+	}
+
+	private static String getParseDescription(ParserSettings settings, Object testInstance, String operand, int caretPosition, boolean preselectParsers) {
+		ParserToolbox parserToolbox = new ParserToolbox(InfoProvider.createObjectInfo(testInstance), settings, Variables.create());
+		SimpleExpressionParser parser = new SimpleExpressionParser(parserToolbox, preselectParsers);
+		TokenStream tokenStream = new TokenStream(operand, caretPosition);
+		String outcome;
+		try {
+			ObjectParseResult parseResult = parser.parse(tokenStream, parserToolbox.getThisInfo(), new ObjectParseResultExpectation());
+			outcome = "result " + parseResult.getObjectInfo() + " at " + parseResult.getPosition();
+		} catch (CodeCompletionException e) {
+			List<String> completions = e.getCompletions().getCompletions().stream()
+				.map(completion -> completion.getTextToInsert() + "@" + completion.getInsertionBegin() + "-" + completion.getInsertionEnd() + ": " + completion.getRating())
+				.sorted()
+				.collect(Collectors.toList());
+			outcome = "completions " + completions + ", argument info: " + e.getCompletions().getExecutableArgumentInfo().map(info -> info.getCurrentArgumentIndex()).orElse(-1);
+		} catch (SyntaxException | EvaluationException | InternalErrorException e) {
+			outcome = e.getClass().getSimpleName() + " at " + tokenStream.getPosition();
+		}
+		return outcome + ", confidence " + parser.getConfidence();
+	}
+
+	public static class TestClass
+	{
+		public final List<String>	names	= new ArrayList<>(Arrays.asList("first", "second", "third"));
+		public final int			count	= 3;
+		public final boolean		flag	= true;
+	}
+
+	/**
+	 * Parses the literal {@code #}, which represents the number 42
+	 */
+	private static class HashLiteralParser extends AbstractParserWithObjectTail<ObjectInfo>
+	{
+		HashLiteralParser(ParserToolbox parserToolbox) {
+			super(parserToolbox);
+		}
+
+		@Override
+		protected ObjectParseResult parseNext(TokenStream tokenStream, ObjectInfo contextInfo, ObjectParseResultExpectation expectation) throws SyntaxException, CodeCompletionException, InternalErrorException {
+			tokenStream.readCharacter('#');
+			increaseConfidence(ParserConfidence.RIGHT_PARSER);
+			return ParseResults.createCompiledConstantObjectParseResult(InfoProvider.createObjectInfo(42, int.class), tokenStream);
+		}
+	}
+
+	private static class HashLiteralParserSettings implements AdditionalParserSettings
+	{
+		private final AtomicInteger	numParsersCreated;
+
+		HashLiteralParserSettings(AtomicInteger numParsersCreated) {
+			this.numParsersCreated = numParsersCreated;
+		}
+
+		@Override
+		public ParserType getParserType() {
+			return ParserType.ROOT_OBJECT_PARSER;
+		}
+
+		@Override
+		public Function<ParserToolbox, ? extends AbstractParser<?, ?, ?>> getParserFactory() {
+			return parserToolbox -> {
+				numParsersCreated.incrementAndGet();
+				return new HashLiteralParser(parserToolbox);
+			};
+		}
+
+		@Override
+		public Object getSettings() {
+			return null;
+		}
+
+		@Override
+		public boolean canStartWith(char c) {
+			return c == '#';
+		}
+	}
+}
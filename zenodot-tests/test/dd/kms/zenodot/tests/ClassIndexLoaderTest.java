@@ -0,0 +1,254 @@
+package dd.kms.zenodot.tests;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import dd.kms.zenodot.api.ClassIndexProcessor;
+import dd.kms.zenodot.api.Parsers;
+import dd.kms.zenodot.api.settings.ClassIndexSettings;
+import dd.kms.zenodot.api.settings.ClassIndexSettingsBuilder;
+import dd.kms.zenodot.api.settings.ClassScanner;
+import dd.kms.zenodot.impl.classindex.ClassIndexLoader;
+import dd.kms.zenodot.impl.classindex.ClassLoadabilityVerifier;
+import dd.kms.zenodot.impl.classindex.ClassNameTable;
+import dd.kms.zenodot.impl.classindex.UnloadableClasses;
+import dd.kms.zenodot.tests.classesForTest.visibility.PublicOuterClass;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Tests that the class index is persisted and that a persisted index yields the same
+ * classes as a scan of the class path.
+ */
+public class ClassIndexLoaderTest
+{
+	private Path	cacheDirectory;
+
+	@Before
+	public void setUp() throws IOException {
+		cacheDirectory = Files.createTempDirectory("zenodot-test");
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		try (Stream<Path> paths = Files.walk(cacheDirectory)) {
+			paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	@Test
+	public void testWarmStart() throws IOException {
+		ClassNameTable scannedTable = ClassIndexLoader.load(cacheDirectory);
+		Assert.assertEquals("Expected exactly one index file", 1, getIndexFiles().size());
+
+		ClassNameTable persistedTable = ClassIndexLoader.load(cacheDirectory);
+		checkEqual(scannedTable, persistedTable);
+	}
+
+	@Test
+	public void testCorruptIndexFile() throws IOException {
+		ClassNameTable scannedTable = ClassIndexLoader.load(cacheDirectory);
+		Path indexFile = getIndexFiles().get(0);
+		Files.write(indexFile, new byte[]{ 1, 2, 3 });
+
+		ClassNameTable rescannedTable = ClassIndexLoader.load(cacheDirectory);
+		checkEqual(scannedTable, rescannedTable);
+		Assert.assertTrue("The index file has not been rewritten", Files.size(indexFile) > 3);
+	}
+
+	@Test
+	public void testScanScope() throws IOException {
+		ClassIndexSettings settings = ClassIndexSettingsBuilder.create()
+			.acceptPackages(ImmutableList.of("java.util"))
+			.rejectPackages(ImmutableList.of("java.util.concurrent"))
+			.scanThreadCount(1)
+			.build();
+		ClassNameTable table = ClassIndexLoader.load(settings, cacheDirectory);
+		boolean foundArrayList = false;
+		for (int i = 0; i < table.size(); i++) {
+			String className = table.getName(i);
+			Assert.assertTrue("Class outside of accepted packages: " + className, className.startsWith("java.util."));
+			Assert.assertFalse("Class of rejected package: " + className, className.startsWith("java.util.concurrent."));
+			foundArrayList |= "java.util.ArrayList".equals(className);
+		}
+		Assert.assertTrue("Class java.util.ArrayList has not been indexed", foundArrayList);
+
+		ClassIndexLoader.load(cacheDirectory);
+		Assert.assertEquals("Index files for different settings must differ", 2, getIndexFiles().size());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testConfigurationAfterIndexBuildStart() {
+		Parsers.preloadClasses();
+		Parsers.configureClassIndex(ClassIndexSettingsBuilder.create().build());
+	}
+
+	@Test
+	public void testClassLoadabilityVerification() {
+		String unloadableClassName = "dd.kms.zenodot.tests.NonExistingClass";
+		ClassNameTable table = new ClassNameTable.Builder()
+			.add("java.util.ArrayList", false)
+			.add(unloadableClassName, false)
+			.build();
+		ClassLoadabilityVerifier.verify(table);
+		Assert.assertFalse("Loadable class has been reported as unloadable", UnloadableClasses.contains("java.util.ArrayList"));
+		Assert.assertTrue("Unloadable class has not been reported", UnloadableClasses.contains(unloadableClassName));
+	}
+
+	@Test
+	public void testNioClassScanner() {
+		ClassIndexSettings classGraphSettings = ClassIndexSettingsBuilder.create()
+			.acceptPackages(ImmutableList.of("java.util", "dd.kms.zenodot.tests.classesForTest"))
+			.classScanner(ClassScanner.CLASS_GRAPH)
+			.build();
+		ClassIndexSettings nioSettings = classGraphSettings.builder().classScanner(ClassScanner.NIO).build();
+		Map<String, Boolean> expected = toMap(ClassIndexLoader.scanClassPath(classGraphSettings));
+		Map<String, Boolean> actual = toMap(ClassIndexLoader.scanClassPath(nioSettings));
+		Assert.assertTrue("The class path scan did not find any class", expected.size() > 0);
+		Assert.assertEquals("The NIO scanner found different classes than ClassGraph", expected, actual);
+	}
+
+	@Test
+	public void testUnreadableClassSource() throws IOException {
+		Path brokenJar = cacheDirectory.resolve("broken.jar");
+		Files.write(brokenJar, new byte[]{ 1, 2, 3 });
+		ClassIndexSettings settings = ClassIndexSettingsBuilder.create().classScanner(ClassScanner.NIO).build();
+		ClassNameTable table = ClassIndexLoader.scanClassPathElement(brokenJar, settings);
+		Assert.assertEquals("Classes have been found in a broken jar", 0, table.size());
+		Assert.assertFalse("The scan of a broken jar has not been reported as incomplete", table.isComplete());
+
+		Path classDirectory = Files.createDirectories(cacheDirectory.resolve("classes"));
+		Assert.assertTrue("The scan of a readable directory has been reported as incomplete", ClassIndexLoader.scanClassPathElement(classDirectory, settings).isComplete());
+	}
+
+	@Test
+	public void testClassIndexResource() throws IOException {
+		Path classDirectory = Files.createDirectories(cacheDirectory.resolve("classes"));
+		Path resource = classDirectory.resolve(ClassIndexProcessor.RESOURCE_NAME);
+		Files.createDirectories(resource.getParent());
+		Files.write(resource, Arrays.asList("# class index", "plugin.Outer", "plugin.Outer$Inner" + ClassIndexProcessor.INNER_CLASS_MARKER), StandardCharsets.UTF_8);
+		Map<String, Boolean> expected = ImmutableMap.of("plugin.Outer", false, "plugin.Outer$Inner", true);
+		for (ClassScanner classScanner : ClassScanner.values()) {
+			ClassIndexSettings settings = ClassIndexSettingsBuilder.create().classScanner(classScanner).build();
+			Map<String, Boolean> actual = toMap(ClassIndexLoader.scanClassPathElement(classDirectory, settings));
+			Assert.assertEquals("The classes have not been read from the class index resource", expected, actual);
+		}
+	}
+
+	@Test
+	public void testBuildTimeClassIndex() {
+		Assert.assertNotNull("The class index of the test classes has not been generated", getClass().getClassLoader().getResource(ClassIndexProcessor.RESOURCE_NAME));
+		ClassIndexSettings settings = ClassIndexSettingsBuilder.create()
+			.acceptPackages(ImmutableList.of(getClass().getPackage().getName()))
+			.build();
+		Map<String, Boolean> classes = toMap(ClassIndexLoader.scanClassPath(settings));
+		Assert.assertEquals(Boolean.FALSE, classes.get(getClass().getName()));
+		Assert.assertEquals(Boolean.TRUE, classes.get(PublicOuterClass.PublicInnerClass.class.getName()));
+		String anonymousClassName = new Object(){}.getClass().getName();
+		Assert.assertFalse("The test classes have been scanned instead of reading the class index resource", classes.containsKey(anonymousClassName));
+	}
+
+	@Test
+	public void testClassIndexResourceOfJar() throws IOException {
+		ClassIndexSettings settings = ClassIndexSettingsBuilder.create().classScanner(ClassScanner.NIO).build();
+
+		Path jar = createJar("plugin.jar", "plugin.Outer", "plugin.Other");
+		Map<String, Boolean> classes = toMap(ClassIndexLoader.scanClassPathElement(jar, settings));
+		Assert.assertEquals("The classes have not been read from the class index resource", ImmutableMap.of("plugin.Other", false, "plugin.Outer", false), classes);
+
+		// the resource of a merged jar usually only lists the classes of one of the original jars
+		Path mergedJar = createJar("merged.jar", "plugin.Outer");
+		classes = toMap(ClassIndexLoader.scanClassPathElement(mergedJar, settings));
+		Assert.assertTrue("A class missing in the class index resource has not been found", classes.containsKey("plugin.Other"));
+	}
+
+	@Test
+	public void testClassIndexProcessorAfterPartialCompilation() throws IOException {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		Assume.assumeTrue("No Java compiler available", compiler != null);
+
+		Path sourceDirectory = Files.createDirectories(cacheDirectory.resolve("sources"));
+		Path classDirectory = Files.createDirectories(cacheDirectory.resolve("classes"));
+		Path firstSource = sourceDirectory.resolve("First.java");
+		Path secondSource = sourceDirectory.resolve("Second.java");
+		Files.write(firstSource, Collections.singletonList("package plugin; public class First { public static class Inner {} }"), StandardCharsets.UTF_8);
+		Files.write(secondSource, Collections.singletonList("package plugin; public class Second {}"), StandardCharsets.UTF_8);
+
+		compileWithClassIndexProcessor(compiler, classDirectory, firstSource, secondSource);
+		compileWithClassIndexProcessor(compiler, classDirectory, secondSource);
+
+		ClassIndexSettings settings = ClassIndexSettingsBuilder.create().classScanner(ClassScanner.NIO).build();
+		Map<String, Boolean> classes = toMap(ClassIndexLoader.scanClassPathElement(classDirectory, settings));
+		Map<String, Boolean> expected = ImmutableMap.of("plugin.First", false, "plugin.First$Inner", true, "plugin.Second", false);
+		Assert.assertEquals("The class index resource does not list the classes of the previous compilation", expected, classes);
+	}
+
+	private Path createJar(String jarName, String... listedClassNames) throws IOException {
+		Path jar = cacheDirectory.resolve(jarName);
+		try (JarOutputStream stream = new JarOutputStream(Files.newOutputStream(jar))) {
+			for (String className : Arrays.asList("plugin.Outer", "plugin.Outer$1", "plugin.Other")) {
+				stream.putNextEntry(new JarEntry(className.replace('.', '/') + ".class"));
+				stream.closeEntry();
+			}
+			stream.putNextEntry(new JarEntry(ClassIndexProcessor.RESOURCE_NAME));
+			stream.write(String.join("\n", listedClassNames).getBytes(StandardCharsets.UTF_8));
+			stream.closeEntry();
+		}
+		return jar;
+	}
+
+	private static void compileWithClassIndexProcessor(JavaCompiler compiler, Path classDirectory, Path... sourceFiles) throws IOException {
+		try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+			Iterable<? extends JavaFileObject> compilationUnits = fileManager.getJavaFileObjects(Arrays.stream(sourceFiles).map(Path::toFile).toArray(File[]::new));
+			List<String> options = Arrays.asList("-d", classDirectory.toString(), "-classpath", classDirectory.toString());
+			JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, options, null, compilationUnits);
+			task.setProcessors(Collections.singletonList(new ClassIndexProcessor()));
+			Assert.assertTrue("Compilation failed", task.call());
+		}
+	}
+
+	private List<Path> getIndexFiles() throws IOException {
+		try (Stream<Path> files = Files.list(cacheDirectory)) {
+			return files.collect(Collectors.toList());
+		}
+	}
+
+	private static Map<String, Boolean> toMap(ClassNameTable table) {
+		Map<String, Boolean> innerClassFlagsByName = new TreeMap<>();
+		for (int i = 0; i < table.size(); i++) {
+			innerClassFlagsByName.put(table.getName(i), table.isInnerClass(i));
+		}
+		return innerClassFlagsByName;
+	}
+
+	private static void checkEqual(ClassNameTable expected, ClassNameTable actual) {
+		Assert.assertTrue("The class path scan did not find any class", expected.size() > 0);
+		Assert.assertEquals("Wrong number of classes", expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			Assert.assertEquals("Wrong class name", expected.getName(i), actual.getName(i));
+			Assert.assertEquals("Wrong inner class flag for class " + expected.getName(i), expected.isInnerClass(i), actual.isInnerClass(i));
+		}
+	}
+}
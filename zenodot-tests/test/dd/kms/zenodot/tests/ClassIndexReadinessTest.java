@@ -0,0 +1,44 @@
+package dd.kms.zenodot.tests;
+
+import dd.kms.zenodot.api.ClassParser;
+import dd.kms.zenodot.api.PackageParser;
+import dd.kms.zenodot.api.ParseException;
+import dd.kms.zenodot.api.Parsers;
+import dd.kms.zenodot.api.result.CodeCompletion;
+import dd.kms.zenodot.api.result.CodeCompletionResult;
+import dd.kms.zenodot.api.settings.ParserSettings;
+import dd.kms.zenodot.api.settings.ParserSettingsBuilder;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests that completions are not marked as partial once the class index, which is built
+ * in the background, is ready.
+ */
+public class ClassIndexReadinessTest
+{
+	@Test
+	public void testCompletionsAfterIndexIsReady() throws ParseException {
+		Parsers.getClassIndexReadiness().join();
+		ParserSettings settings = ParserSettingsBuilder.create().build();
+
+		PackageParser packageParser = Parsers.createPackageParser(settings);
+		String packageText = "java.util.conc";
+		CodeCompletionResult packageResult = packageParser.getCompletionResult(packageText, packageText.length());
+		Assert.assertFalse("Package completions must not be partial after the index is ready", packageResult.isPartial());
+		checkContains(packageResult, "concurrent");
+
+		ClassParser classParser = Parsers.createClassParser(settings);
+		String classText = "java.util.ArrayL";
+		CodeCompletionResult classResult = classParser.getCompletionResult(classText, classText.length());
+		Assert.assertFalse("Class completions must not be partial after the index is ready", classResult.isPartial());
+		checkContains(classResult, "ArrayList");
+	}
+
+	private static void checkContains(CodeCompletionResult result, String expectedCompletion) {
+		boolean found = result.getCompletions().stream()
+			.map(CodeCompletion::getTextToInsert)
+			.anyMatch(expectedCompletion::equals);
+		Assert.assertTrue("Missing completion '" + expectedCompletion + "'", found);
+	}
+}
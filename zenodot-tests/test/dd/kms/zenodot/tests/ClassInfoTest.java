@@ -0,0 +1,77 @@
+package dd.kms.zenodot.tests;
+
+import dd.kms.zenodot.api.common.ClassInfo;
+import dd.kms.zenodot.framework.wrappers.InfoProvider;
+import dd.kms.zenodot.impl.classindex.UnloadableClasses;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ClassInfoTest
+{
+	@Test
+	public void testLoadedClass() {
+		ClassInfo classInfo = InfoProvider.createClassInfoUnchecked(ArrayList.class.getName());
+		Assert.assertSame("Class infos are not shared", classInfo, InfoProvider.createClassInfoUnchecked(ArrayList.class.getName()));
+		Assert.assertSame(ArrayList.class, classInfo.asClass());
+		Assert.assertSame(ArrayList.class, classInfo.asClass());
+	}
+
+	@Test
+	public void testUnloadableClass() {
+		String unloadableClassName = "dd.kms.zenodot.tests.NonExistingClassInfoClass";
+		ClassInfo classInfo = InfoProvider.createClassInfoUnchecked(unloadableClassName);
+		String message;
+		try {
+			classInfo.asClass();
+			Assert.fail("Expected an IllegalStateException");
+			return;
+		} catch (IllegalStateException e) {
+			Assert.assertTrue("The cause has not been preserved", e.getCause() instanceof ClassNotFoundException);
+			message = e.getMessage();
+		}
+		// the memoized failure only retains the message
+		try {
+			classInfo.asClass();
+			Assert.fail("Expected an IllegalStateException");
+		} catch (IllegalStateException e) {
+			Assert.assertEquals("The memoized failure has a different message", message, e.getMessage());
+		}
+		Assert.assertTrue("Unloadable class has not been reported", UnloadableClasses.contains(unloadableClassName));
+	}
+
+	@Test
+	public void testEqualityOfScopedClassInfos() throws InterruptedException {
+		List<ClassInfo> classInfos = new ArrayList<>();
+		WeakReference<ClassLoader> classLoaderReference = createScopedClassInfos(classInfos);
+		ClassInfo first = classInfos.get(0);
+		ClassInfo second = classInfos.get(1);
+		ClassInfo unscoped = new ClassInfo(ArrayList.class.getName());
+		checkEquality(first, second, unscoped);
+
+		for (int i = 0; i < 100 && classLoaderReference.get() != null; i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		Assert.assertNull("The class loader has not been garbage collected", classLoaderReference.get());
+		checkEquality(first, second, unscoped);
+	}
+
+	private WeakReference<ClassLoader> createScopedClassInfos(List<ClassInfo> classInfos) {
+		ClassLoader classLoader = new URLClassLoader(new URL[0], getClass().getClassLoader());
+		classInfos.add(new ClassInfo(ArrayList.class.getName(), classLoader));
+		classInfos.add(new ClassInfo(ArrayList.class.getName(), classLoader));
+		return new WeakReference<>(classLoader);
+	}
+
+	private static void checkEquality(ClassInfo first, ClassInfo second, ClassInfo unscoped) {
+		Assert.assertEquals("Class infos of the same class loader are not equal", first, second);
+		Assert.assertEquals("Equal class infos have different hash codes", first.hashCode(), second.hashCode());
+		Assert.assertNotEquals("Scoped and unscoped class infos are equal", first, unscoped);
+	}
+}
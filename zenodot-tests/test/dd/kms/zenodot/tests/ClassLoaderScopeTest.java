@@ -0,0 +1,120 @@
+package dd.kms.zenodot.tests;
+
+import dd.kms.zenodot.api.ClassParser;
+import dd.kms.zenodot.api.ParseException;
+import dd.kms.zenodot.api.Parsers;
+import dd.kms.zenodot.api.result.CodeCompletion;
+import dd.kms.zenodot.api.settings.ParserSettings;
+import dd.kms.zenodot.api.settings.ParserSettingsBuilder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Tests that the classes of a class loader that is not registered are only visible to parsers
+ * that are scoped to this class loader and that the index of the class loader does not prevent
+ * it from being garbage collected.
+ */
+public class ClassLoaderScopeTest
+{
+	private static final String	TENANT_CLASS_NAME	= "zenodot.tenant.test.TenantClass";
+
+	private Path	classDirectory;
+
+	@Before
+	public void setUp() throws IOException {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		Assume.assumeTrue("No Java compiler available", compiler != null);
+
+		classDirectory = Files.createTempDirectory("zenodot-tenant");
+		Path sourceFile = classDirectory.resolve("TenantClass.java");
+		String source = "package zenodot.tenant.test; public class TenantClass {}";
+		Files.write(sourceFile, Collections.singletonList(source), StandardCharsets.UTF_8);
+		int result = compiler.run(null, null, null, "-d", classDirectory.toString(), sourceFile.toString());
+		Assert.assertEquals("Compiling the tenant class failed", 0, result);
+		Files.delete(sourceFile);
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		if (classDirectory == null) {
+			return;
+		}
+		try (Stream<Path> paths = Files.walk(classDirectory)) {
+			paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	@Test
+	public void testScopedClassLoader() throws IOException, ParseException {
+		try (URLClassLoader classLoader = createClassLoader()) {
+			ParserSettings scopedSettings = ParserSettingsBuilder.create().classLoader(classLoader).build();
+			ClassParser scopedParser = Parsers.createClassParser(scopedSettings);
+			Parsers.getClassIndexReadiness(classLoader).join();
+			Assert.assertTrue("Missing completion for tenant class", completesTenantClass(scopedParser));
+			Class<?> tenantClass = scopedParser.evaluate(TENANT_CLASS_NAME);
+			Assert.assertEquals("Wrong tenant class", TENANT_CLASS_NAME, tenantClass.getName());
+			Assert.assertSame("Wrong class loader", classLoader, tenantClass.getClassLoader());
+
+			ClassParser unscopedParser = Parsers.createClassParser(ParserSettingsBuilder.create().build());
+			Parsers.getClassIndexReadiness().join();
+			try {
+				Assert.assertFalse("Unscoped parser completes tenant class", completesTenantClass(unscopedParser));
+			} catch (ParseException expected) {
+				/* expected because the package of the tenant class is unknown as well */
+			}
+			try {
+				unscopedParser.evaluate(TENANT_CLASS_NAME);
+				Assert.fail("Unscoped parser can evaluate tenant class");
+			} catch (ParseException expected) {
+				/* expected */
+			}
+		}
+	}
+
+	@Test
+	public void testClassLoaderCanBeGarbageCollected() throws IOException, ParseException, InterruptedException {
+		WeakReference<ClassLoader> classLoaderReference = useScopedParser();
+		for (int i = 0; i < 100 && classLoaderReference.get() != null; i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		Assert.assertNull("The class loader has not been garbage collected", classLoaderReference.get());
+	}
+
+	private WeakReference<ClassLoader> useScopedParser() throws IOException, ParseException {
+		try (URLClassLoader classLoader = createClassLoader()) {
+			ClassParser scopedParser = Parsers.createClassParser(ParserSettingsBuilder.create().classLoader(classLoader).build());
+			Parsers.getClassIndexReadiness(classLoader).join();
+			Assert.assertTrue("Missing completion for tenant class", completesTenantClass(scopedParser));
+			scopedParser.evaluate(TENANT_CLASS_NAME);
+			return new WeakReference<>(classLoader);
+		}
+	}
+
+	private URLClassLoader createClassLoader() throws IOException {
+		return new URLClassLoader(new URL[]{ classDirectory.toUri().toURL() }, getClass().getClassLoader());
+	}
+
+	private static boolean completesTenantClass(ClassParser parser) throws ParseException {
+		String text = "zenodot.tenant.test.Ten";
+		return parser.getCompletions(text, text.length()).stream()
+			.map(CodeCompletion::getTextToInsert)
+			.anyMatch("TenantClass"::equals);
+	}
+}
@@ -0,0 +1,176 @@
+package dd.kms.zenodot.tests;
+
+import dd.kms.zenodot.api.ClassParser;
+import dd.kms.zenodot.api.ExpressionParser;
+import dd.kms.zenodot.api.ParseException;
+import dd.kms.zenodot.api.Parsers;
+import dd.kms.zenodot.api.common.ClassInfo;
+import dd.kms.zenodot.api.result.CodeCompletion;
+import dd.kms.zenodot.api.settings.ParserSettingsBuilder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Tests that classes of a directory that is not part of the class path can be completed and
+ * evaluated after registering the directory and not after deregistering it anymore.
+ */
+public class ClassSourceRegistrationTest
+{
+	private static final String	PLUGIN_CLASS_NAME			= "zenodot.plugin.test.PluginClass";
+	private static final String	FAILING_PLUGIN_CLASS_NAME	= "zenodot.plugin.test.FailingPluginClass";
+
+	private Path	classDirectory;
+
+	@Before
+	public void setUp() throws IOException {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		Assume.assumeTrue("No Java compiler available", compiler != null);
+
+		classDirectory = Files.createTempDirectory("zenodot-plugin");
+		Path sourceFile = classDirectory.resolve("PluginClass.java");
+		String source = "package zenodot.plugin.test; public class PluginClass {}";
+		Files.write(sourceFile, Collections.singletonList(source), StandardCharsets.UTF_8);
+		Path failingSourceFile = classDirectory.resolve("FailingPluginClass.java");
+		String failingSource = "package zenodot.plugin.test; public class FailingPluginClass { static { if (true) throw new IllegalStateException(); } }";
+		Files.write(failingSourceFile, Collections.singletonList(failingSource), StandardCharsets.UTF_8);
+		int result = compiler.run(null, null, null, "-d", classDirectory.toString(), sourceFile.toString(), failingSourceFile.toString());
+		Assert.assertEquals("Compiling the plugin classes failed", 0, result);
+		Files.delete(sourceFile);
+		Files.delete(failingSourceFile);
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		if (classDirectory == null) {
+			return;
+		}
+		Parsers.deregisterClassSource(classDirectory);
+		try (Stream<Path> paths = Files.walk(classDirectory)) {
+			paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	@Test
+	public void testRegistrationAndDeregistration() throws ParseException {
+		ClassParser parser = Parsers.createClassParser(ParserSettingsBuilder.create().build());
+
+		Parsers.registerClassSource(classDirectory).join();
+		Assert.assertTrue("Missing completion for plugin class", completesPluginClass(parser));
+		Assert.assertEquals("Wrong plugin class", PLUGIN_CLASS_NAME, parser.evaluate(PLUGIN_CLASS_NAME).getName());
+
+		Parsers.deregisterClassSource(classDirectory);
+		try {
+			parser.evaluate(PLUGIN_CLASS_NAME);
+			Assert.fail("Plugin class can still be evaluated after deregistration");
+		} catch (ParseException expected) {
+			/* expected */
+		}
+	}
+
+	@Test
+	public void testRegistrationWhileParserIsInUse() {
+		ExpressionParser parser = Parsers.createExpressionParser(ParserSettingsBuilder.create().build());
+		String text = "zenodot.plugin.test.Plug";
+		Assert.assertFalse("Completion for plugin class before registration", completesPluginClass(parser, text));
+
+		Parsers.registerClassSource(classDirectory).join();
+		Assert.assertTrue("Missing completion for plugin class registered after previous requests", completesPluginClass(parser, text));
+
+		Parsers.deregisterClassSource(classDirectory);
+		Assert.assertFalse("Completion for plugin class after deregistration", completesPluginClass(parser, text));
+	}
+
+	@Test
+	public void testDeregisteredClassLoaderCanBeGarbageCollected() throws IOException, ReflectiveOperationException, ParseException, InterruptedException {
+		WeakReference<ClassLoader> classLoaderReference = useRegisteredClassLoader();
+		for (int i = 0; i < 100 && classLoaderReference.get() != null; i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		Assert.assertNull("The deregistered class loader has not been garbage collected", classLoaderReference.get());
+	}
+
+	private WeakReference<ClassLoader> useRegisteredClassLoader() throws IOException, ReflectiveOperationException, ParseException {
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[]{ classDirectory.toUri().toURL() }, getClass().getClassLoader())) {
+			Parsers.registerClassSource(classLoader).join();
+			try {
+				ClassParser classParser = Parsers.createClassParser(ParserSettingsBuilder.create().build());
+				Assert.assertTrue("Missing completion for plugin class", completesPluginClass(classParser));
+				classParser.evaluate(PLUGIN_CLASS_NAME);
+
+				// the plugin class as class of this is considered when resolving unqualified class names
+				Object pluginObject = classLoader.loadClass(PLUGIN_CLASS_NAME).getConstructor().newInstance();
+				ExpressionParser expressionParser = Parsers.createExpressionParser(ParserSettingsBuilder.create().build());
+				expressionParser.evaluate("PluginClass.class", pluginObject);
+			} finally {
+				Parsers.deregisterClassSource(classLoader);
+			}
+			return new WeakReference<>(classLoader);
+		}
+	}
+
+	@Test
+	public void testClassInfosDoNotRetainDeregisteredClassLoader() throws IOException, InterruptedException {
+		ClassInfo stringInfo = new ClassInfo(String.class.getName());
+		ClassInfo failingPluginClassInfo = new ClassInfo(FAILING_PLUGIN_CLASS_NAME);
+		WeakReference<ClassLoader> classLoaderReference = resolveWhileRegistered(stringInfo, failingPluginClassInfo);
+		for (int i = 0; i < 100 && classLoaderReference.get() != null; i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		Assert.assertNull("The deregistered class loader has been retained by class infos", classLoaderReference.get());
+		Assert.assertSame(String.class, stringInfo.asClass());
+	}
+
+	private WeakReference<ClassLoader> resolveWhileRegistered(ClassInfo loadableClassInfo, ClassInfo failingClassInfo) throws IOException {
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[]{ classDirectory.toUri().toURL() }, getClass().getClassLoader())) {
+			Parsers.registerClassSource(classLoader).join();
+			try {
+				loadableClassInfo.asClass();
+				try {
+					failingClassInfo.asClass();
+					Assert.fail("Loading a class with a failing static initializer succeeded");
+				} catch (IllegalStateException expected) {
+					/* expected */
+				}
+			} finally {
+				Parsers.deregisterClassSource(classLoader);
+			}
+			return new WeakReference<>(classLoader);
+		}
+	}
+
+	private static boolean completesPluginClass(ClassParser parser) throws ParseException {
+		String text = "zenodot.plugin.test.Plug";
+		return parser.getCompletions(text, text.length()).stream()
+			.map(CodeCompletion::getTextToInsert)
+			.anyMatch("PluginClass"::equals);
+	}
+
+	private static boolean completesPluginClass(ExpressionParser parser, String text) {
+		try {
+			return parser.getCompletions(text, text.length(), Object.class).stream()
+				.map(CodeCompletion::getTextToInsert)
+				.anyMatch("PluginClass"::equals);
+		} catch (ParseException e) {
+			// unknown package
+			return false;
+		}
+	}
+}
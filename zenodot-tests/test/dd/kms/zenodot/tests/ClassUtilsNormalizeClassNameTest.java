@@ -1,5 +1,6 @@
 package dd.kms.zenodot.tests;
 
+import dd.kms.zenodot.impl.classindex.ClassIndexManager;
 import dd.kms.zenodot.impl.utils.ClassUtils;
 import org.junit.Assert;
 import org.junit.Test;
@@ -48,4 +49,40 @@ public class ClassUtilsNormalizeClassNameTest
 		Assert.assertEquals(normalizedClassName, actual);
 
 	}
+
+	@Test
+	public void testNormalizationViaClassIndex() throws ClassNotFoundException {
+		ClassIndexManager.awaitIndex();
+		Assert.assertNotNull("The class index should be built", ClassIndexManager.getIndexIfBuilt());
+		Assert.assertEquals("java.util.Map$Entry", ClassUtils.normalizeClassName("java.util.Map.Entry"));
+		Assert.assertEquals("java.util.AbstractMap$SimpleEntry", ClassUtils.normalizeClassName("java.util.AbstractMap.SimpleEntry"));
+		Assert.assertNull(ClassUtils.getClassUnchecked("java.util.Whatever"));
+
+		// indexed classes are found without trying to load other candidates, also in class loader scopes
+		FailedLoadCountingClassLoader classLoader = new FailedLoadCountingClassLoader();
+		Assert.assertSame(classLoader, ClassUtils.getClassLoaderScope(classLoader));
+		Assert.assertEquals("java.util.Map$Entry", ClassUtils.normalizeClassName("java.util.Map.Entry"));
+		Assert.assertEquals("java.util.Map$Entry", ClassUtils.normalizeClassName("java.util.Map.Entry", classLoader));
+		Assert.assertEquals("java.util.AbstractMap$SimpleEntry", ClassUtils.normalizeClassName("java.util.AbstractMap.SimpleEntry", classLoader));
+		Assert.assertEquals(0, classLoader.numFailedLoads);
+	}
+
+	private static class FailedLoadCountingClassLoader extends ClassLoader
+	{
+		private int	numFailedLoads;
+
+		FailedLoadCountingClassLoader() {
+			super(ClassUtilsNormalizeClassNameTest.class.getClassLoader());
+		}
+
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			try {
+				return super.loadClass(name, resolve);
+			} catch (ClassNotFoundException e) {
+				numFailedLoads++;
+				throw e;
+			}
+		}
+	}
 }
@@ -0,0 +1,50 @@
+package dd.kms.zenodot.tests;
+
+import com.google.common.base.Strings;
+import dd.kms.zenodot.api.matching.StringMatch;
+import dd.kms.zenodot.framework.matching.MatchRatings;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the rating of case-insensitive hump matches. Names with at least 63 characters are rated with a
+ * different implementation, so every name is also tested with a long suffix that does not affect the rating.
+ */
+public class MatchRatingsTest
+{
+	private static final String	LONG_SUFFIX	= "Q" + Strings.repeat("q", 70);
+
+	@Test
+	public void testHumpsIgnoringCase() {
+		testStringMatch("hm", "HashMap", StringMatch.WILDCARD_IGNORE_CASE);
+		testStringMatch("hasm", "HashMap", StringMatch.WILDCARD_IGNORE_CASE);
+		testStringMatch("hmap", "HashMap", StringMatch.WILDCARD_IGNORE_CASE);
+		testStringMatch("hmp", "HashMap", StringMatch.NONE);
+		testStringMatch("cme", "ConcurrentModificationException", StringMatch.WILDCARD_IGNORE_CASE);
+		testStringMatch("chm", "ConcurrentHashMap", StringMatch.WILDCARD_IGNORE_CASE);
+		testStringMatch("cm", "ConcurrentHashMap", StringMatch.NONE);
+		testStringMatch("mh", "HashMap", StringMatch.NONE);
+	}
+
+	@Test
+	public void testHumpsRequiringBothAlternatives() {
+		// 'b' must be matched at the hump, although it also matches directly
+		testStringMatch("aba", "abBa", StringMatch.WILDCARD_IGNORE_CASE);
+		// the first 'b' must be matched directly, although it also matches at the hump
+		testStringMatch("abb", "abaB", StringMatch.WILDCARD_IGNORE_CASE);
+		testStringMatch("abc", "abaB", StringMatch.NONE);
+	}
+
+	@Test
+	public void testHumpsWithWildcards() {
+		testStringMatch("H*P", "hashMapImpl", StringMatch.WILDCARD_IGNORE_CASE);
+		testStringMatch("m*i", "hashMapImpl", StringMatch.NONE);
+		testStringMatch("ha*i", "hashMapImpl", StringMatch.WILDCARD_IGNORE_CASE);
+	}
+
+	private static void testStringMatch(String expected, String actual, StringMatch expectedMatch) {
+		Assert.assertEquals("Wrong match of '" + expected + "' and '" + actual + "'", expectedMatch, MatchRatings.rateStringMatch(expected, actual));
+		String longActual = actual + LONG_SUFFIX;
+		Assert.assertEquals("Wrong match of '" + expected + "' and '" + longActual + "'", expectedMatch, MatchRatings.rateStringMatch(expected, longActual));
+	}
+}
@@ -5,17 +5,32 @@ import dd.kms.zenodot.api.common.RegexUtils;
 import dd.kms.zenodot.api.common.multistringmatching.MultiStringMatcher;
 import org.junit.Assert;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
 
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 /**
- * Tests the {@link MultiStringMatcher}. For the test it suffices to use values
- * identical to the keys.
+ * Tests the {@link MultiStringMatcher} in its mutable and its immutable (compact) representation.
+ * For the test it suffices to use values identical to the keys.
  */
+@RunWith(Parameterized.class)
 public class MultiStringMatcherTest
 {
+	@Parameterized.Parameters(name = "immutable: {0}")
+	public static Collection<Object> getImmutableFlags() {
+		return Arrays.asList(false, true);
+	}
+
+	private final boolean	immutable;
+
+	public MultiStringMatcherTest(boolean immutable) {
+		this.immutable = immutable;
+	}
+
 	@Test
 	public void manualTest() {
 		MultiStringMatcher<String> matcher = new MultiStringMatcher<>();
@@ -33,6 +48,9 @@ public class MultiStringMatcherTest
 		for (String key : keys) {
 			matcher.put(key, key);
 		}
+		if (immutable) {
+			matcher.makeImmutable();
+		}
 
 		/*
 		 * Successful searches for words starting with "A" without shortcuts
@@ -153,6 +171,9 @@ public class MultiStringMatcherTest
 		for (String key : keys) {
 			matcher.put(key, key);
 		}
+		if (immutable) {
+			matcher.makeImmutable();
+		}
 
 		char[] keyPatternCharacters = { 'a', 'c', 'B', 'D'};
 		List<String> keyPatterns = generateWords(keyPatternCharacters, 5);
@@ -169,6 +190,147 @@ public class MultiStringMatcherTest
 		}
 	}
 
+	@Test
+	public void testWildcardPatterns() {
+		List<String> keys = generateWords(new char[]{ 'a', 'b', 'C', 'D' }, 6);
+		MultiStringMatcher<String> matcher = createMatcher(keys);
+		for (String keyPattern : generateWords(new char[]{ 'a', 'c', 'B', 'D', '*' }, 4)) {
+			checkResult(keyPattern, filterWords(keys, keyPattern), matcher.search(keyPattern));
+		}
+	}
+
+	/**
+	 * Patterns with many wildcards can be matched in many ways. The search must not consider
+	 * each of them separately. (The same holds for the regex, which is why it is not used as
+	 * reference here.)
+	 */
+	@Test(timeout = 10000)
+	public void testManyWildcards() {
+		Random random = new Random(42);
+		List<String> keys = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			StringBuilder key = new StringBuilder();
+			for (int j = 0; j < 60; j++) {
+				key.append(random.nextBoolean() ? 'a' : 'b');
+			}
+			keys.add(key.toString());
+		}
+		MultiStringMatcher<String> matcher = createMatcher(keys);
+		for (String keyPattern : new String[]{ "*a*b*a*b*a*b*a*b*c", "*a*b*a*b*a*b*a*b*a*b*", "*b*a*b*a*b*a*b*a*b*a*b*a" }) {
+			String subsequence = keyPattern.replace("*", "");
+			Set<String> expectedResults = keys.stream()
+				.filter(key -> containsSubsequence(key, subsequence))
+				.collect(Collectors.toSet());
+			checkResult(keyPattern, expectedResults, matcher.search(keyPattern));
+		}
+	}
+
+	private static boolean containsSubsequence(String s, String subsequence) {
+		int index = 0;
+		for (int i = 0; i < s.length() && index < subsequence.length(); i++) {
+			if (s.charAt(i) == subsequence.charAt(index)) {
+				index++;
+			}
+		}
+		return index == subsequence.length();
+	}
+
+	@Test
+	public void testStoppableSearch() {
+		List<String> keys = Arrays.asList("ArrayList", "ArrayBlockingQueue", "LinkedList", "List", "ListIterator", "Map");
+		MultiStringMatcher<String> matcher = createMatcher(keys);
+		for (String keyPattern : new String[]{ "L", "*L", "*i*t" }) {
+			Set<String> expectedResults = filterWords(keys, keyPattern);
+			Set<String> allResults = new HashSet<>();
+			matcher.search(keyPattern, value -> {
+				allResults.add(value);
+				return true;
+			});
+			checkResult(keyPattern, expectedResults, allResults);
+
+			List<String> results = new ArrayList<>();
+			matcher.search(keyPattern, value -> {
+				results.add(value);
+				return results.size() < 2;
+			});
+			Assert.assertEquals("The search has not stopped for pattern '" + keyPattern + "'", 2, results.size());
+			Assert.assertTrue("Unexpected results for pattern '" + keyPattern + "'", expectedResults.containsAll(results));
+		}
+	}
+
+	private MultiStringMatcher<String> createMatcher(List<String> keys) {
+		MultiStringMatcher<String> matcher = new MultiStringMatcher<>();
+		for (String key : keys) {
+			matcher.put(key, key);
+		}
+		if (immutable) {
+			matcher.makeImmutable();
+		}
+		return matcher;
+	}
+
+	@Test
+	public void testModification() {
+		MultiStringMatcher<String> matcher = new MultiStringMatcher<>();
+		matcher.put("ArrayList", "ArrayList");
+		if (!immutable) {
+			matcher.put("LinkedList", "LinkedList");
+			checkResult("*List", Sets.newHashSet("ArrayList", "LinkedList"), matcher.search("*List"));
+			return;
+		}
+		matcher.makeImmutable();
+		try {
+			matcher.put("LinkedList", "LinkedList");
+			Assert.fail("Immutable matcher has been modified");
+		} catch (UnsupportedOperationException expected) {
+			/* expected */
+		}
+		checkResult("*List", Sets.newHashSet("ArrayList"), matcher.search("*List"));
+	}
+
+	@Test
+	public void testRankedSearch() {
+		MultiStringMatcher<String> matcher = new MultiStringMatcher<>();
+		for (String key : new String[]{ "ArrayList", "ListIterator", "LinkedList", "List" }) {
+			matcher.put(key, key);
+		}
+		if (!immutable) {
+			try {
+				matcher.searchBest("List", 2);
+				Assert.fail("Ranked search in mutable matcher");
+			} catch (IllegalStateException expected) {
+				/* expected */
+			}
+			return;
+		}
+		matcher.makeImmutable();
+		Assert.assertEquals(Arrays.asList("List", "ListIterator"), matcher.searchBest("List", 2));
+		Assert.assertEquals(Arrays.asList("List", "LinkedList", "ListIterator"), matcher.searchBest("Li", 3));
+		Assert.assertEquals(Arrays.asList("List", "ArrayList", "LinkedList", "ListIterator"), matcher.searchBest("*L", 10));
+	}
+
+	@Test
+	public void testSearchWithTypos() {
+		MultiStringMatcher<String> matcher = new MultiStringMatcher<>();
+		for (String key : new String[]{ "ArrayList", "ListIterator", "LinkedList", "List" }) {
+			matcher.put(key, key);
+		}
+		if (!immutable) {
+			try {
+				matcher.searchWithTypos("Lst", 1, 10);
+				Assert.fail("Search with typos in mutable matcher");
+			} catch (IllegalStateException expected) {
+				/* expected */
+			}
+			return;
+		}
+		matcher.makeImmutable();
+		Assert.assertEquals(Collections.emptyList(), matcher.searchWithTypos("Lst", 0, 10));
+		Assert.assertEquals(Sets.newHashSet("List", "ListIterator"), new HashSet<>(matcher.searchWithTypos("lst", 1, 10)));
+		Assert.assertEquals(Arrays.asList("ArrayList"), matcher.searchWithTypos("aray", 1, 10));
+		Assert.assertEquals(Arrays.asList("LinkedList"), matcher.searchWithTypos("LinkdList", 1, 10));
+	}
+
 	private static List<String> generateWords(char[] characters, int maxLength) {
 		List<String> allWords = new ArrayList<>();
 		List<String> words = Arrays.asList("");
@@ -0,0 +1,38 @@
+package dd.kms.zenodot.tests;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import dd.kms.zenodot.impl.classindex.PackageTrie;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the {@link PackageTrie}
+ */
+public class PackageTrieTest
+{
+	private static final PackageTrie	PACKAGES	= PackageTrie.create(ImmutableList.of("java.util", "java.util.concurrent", "java.lang", "javax.swing", "org.junit"));
+
+	@Test
+	public void testPackageExists() {
+		for (String packageName : ImmutableList.of("java", "java.util", "java.util.concurrent", "java.lang", "javax", "javax.swing", "org", "org.junit")) {
+			Assert.assertTrue("Package '" + packageName + "' should exist", PACKAGES.packageExists(packageName));
+		}
+		for (String packageName : ImmutableList.of("", "jav", "java.", "java.uti", "java.util.concurrent.atomic", "swing", "util")) {
+			Assert.assertFalse("Package '" + packageName + "' should not exist", PACKAGES.packageExists(packageName));
+		}
+	}
+
+	@Test
+	public void testSubpackages() {
+		checkSubpackages(null, "java", "javax", "org");
+		checkSubpackages("java", "java.lang", "java.util");
+		checkSubpackages("java.util", "java.util.concurrent");
+		checkSubpackages("java.util.concurrent");
+		checkSubpackages("com");
+	}
+
+	private static void checkSubpackages(String parentPackageName, String... expectedSubpackageNames) {
+		Assert.assertEquals("Wrong subpackages of '" + parentPackageName + "'", ImmutableSet.copyOf(expectedSubpackageNames), ImmutableSet.copyOf(PACKAGES.getSubpackages(parentPackageName)));
+	}
+}
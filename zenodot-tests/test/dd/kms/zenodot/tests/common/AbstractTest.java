@@ -1,5 +1,6 @@
 package dd.kms.zenodot.tests.common;
 
+import dd.kms.zenodot.api.Parsers;
 import dd.kms.zenodot.api.Variables;
 import dd.kms.zenodot.api.common.AccessModifier;
 import dd.kms.zenodot.api.debug.ParserConsoleLogger;
@@ -18,6 +19,11 @@ public class AbstractTest<T extends AbstractTest<?>>
 {
 	public static final boolean	SKIP_UNSTABLE_TESTS	= "true".equalsIgnoreCase(System.getProperty("skipUnstableTests"));
 
+	static {
+		// the tests expect completions based on the complete class index
+		Parsers.getClassIndexReadiness().join();
+	}
+
 	protected final Object					testInstance;
 	protected final ParserSettingsBuilder	settingsBuilder			= ParserSettingsBuilder.create()
 																			.minimumFieldAccessModifier(AccessModifier.PRIVATE)
@@ -84,7 +84,9 @@ public class ClassTest extends CompletionTest
 			.addTest("MyC",			"dd.kms.zenodot.tests.classesForTest.dummies.MyClass")
 			.addTest("YADC",		"dd.kms.zenodot.tests.classesForTest.dummies.YetAnotherDummyClass")
 			.addTest("DummCl",		"dd.kms.zenodot.tests.classesForTest.DummyClass")
-			.addTest("IntClStage1",	"dd.kms.zenodot.tests.classesForTest.DummyClass.InternalClassStage1");
+			.addTest("IntClStage1",	"dd.kms.zenodot.tests.classesForTest.DummyClass.InternalClassStage1")
+			.addTest("yadc",		"dd.kms.zenodot.tests.classesForTest.dummies.YetAnotherDummyClass")
+			.addTest("dummcl",		"dd.kms.zenodot.tests.classesForTest.DummyClass");
 
 		testBuilder
 			.addTest("java.ut", 					"util")
@@ -0,0 +1,43 @@
+package dd.kms.zenodot.tests.completionTests;
+
+import dd.kms.zenodot.tests.completionTests.framework.CompletionTest;
+import dd.kms.zenodot.tests.completionTests.framework.CompletionTestBuilder;
+import dd.kms.zenodot.tests.completionTests.framework.TestData;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.util.Collection;
+
+@RunWith(Parameterized.class)
+public class TypoTest extends CompletionTest
+{
+	public TypoTest(TestData testData) {
+		super(testData);
+	}
+
+	@Parameters(name = "{0}")
+	public static Collection<Object> getTestData() {
+		Object testInstance = new TestClass();
+		return new CompletionTestBuilder()
+			.testInstance(testInstance)
+			.configurator(test -> {
+				test.importPackages("java.util");
+				test.createVariable("temperatureVariable", 13.5f, false);
+			})
+			.addTest("valeu",							"value", "valueAsDouble()")
+			.addTest("valueAsDoubel",					"value", "valueAsDouble()")
+			.addTest("tempratureV",						"temperatureVariable")
+			.addTest("tmperatureVar",					"temperatureVariable")
+			.addUnstableTest("LinkdList",				"LinkedList")
+			.addUnstableTest("Hashmpa",					"HashMap")
+			.build();
+	}
+
+	private static class TestClass
+	{
+		private int value;
+
+		double valueAsDouble() { return 0.0; }
+	}
+}
@@ -36,6 +36,10 @@ public class WildcardTest extends CompletionTest
 			.addTest("gVAI",							"getValueAsInt()")
 			.addTest("tFV",								"tempFloatVariable")
 			.addTest("tCV",								"tempCharVariable")
+			.addTest("gvad",							"getValueAsDouble()")
+			.addTest("tfv",								"tempFloatVariable")
+			.addUnstableTest("lhs",						"LinkedHashSet")
+			.addUnstableTest("lhm",						"LinkedHashMap")
 			.build();
 	}
 
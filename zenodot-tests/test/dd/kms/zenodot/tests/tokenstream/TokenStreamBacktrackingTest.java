@@ -0,0 +1,86 @@
+package dd.kms.zenodot.tests.tokenstream;
+
+import dd.kms.zenodot.framework.flowcontrol.CodeCompletionException;
+import dd.kms.zenodot.framework.flowcontrol.InternalErrorException;
+import dd.kms.zenodot.framework.flowcontrol.SyntaxException;
+import dd.kms.zenodot.framework.operators.BinaryOperator;
+import dd.kms.zenodot.framework.result.CodeCompletions;
+import dd.kms.zenodot.framework.tokenizer.TokenStream;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parsers backtrack by resetting the position of the token stream and reading tokens of other types.
+ * Tokens that are read again must not be affected by previous reads.
+ */
+public class TokenStreamBacktrackingTest
+{
+	@Test
+	public void testReadTokensAfterBacktracking() throws SyntaxException, CodeCompletionException, InternalErrorException {
+		TokenStream tokenStream = new TokenStream("value + 12 * 3.5e2", -1);
+
+		expectSyntaxException(tokenStream::readIntegerLiteral, tokenStream, 0);
+		Assert.assertEquals("value", tokenStream.readIdentifier(TokenStream.NO_COMPLETIONS, "Expected an identifier"));
+		tokenStream.setPosition(0);
+		Assert.assertEquals("value", tokenStream.readIdentifier(TokenStream.NO_COMPLETIONS, "Expected an identifier"));
+		Assert.assertEquals(BinaryOperator.ADD_OR_CONCAT, tokenStream.readBinaryOperator(TokenStream.NO_COMPLETIONS));
+
+		int literalPosition = tokenStream.getPosition();
+		expectSyntaxException(tokenStream::readDoubleLiteral, tokenStream, literalPosition);
+		expectSyntaxException(tokenStream::readLongLiteral, tokenStream, literalPosition);
+		Assert.assertEquals(12, tokenStream.readIntegerLiteral());
+		tokenStream.setPosition(literalPosition);
+		expectSyntaxException(() -> tokenStream.readPackage(TokenStream.NO_COMPLETIONS), tokenStream, literalPosition);
+		Assert.assertEquals(12, tokenStream.readIntegerLiteral());
+		Assert.assertEquals(BinaryOperator.MULTIPLY, tokenStream.readBinaryOperator(TokenStream.NO_COMPLETIONS));
+
+		literalPosition = tokenStream.getPosition();
+		expectSyntaxException(tokenStream::readFloatLiteral, tokenStream, literalPosition);
+		expectSyntaxException(tokenStream::readIntegerLiteral, tokenStream, literalPosition);
+		Assert.assertEquals(350.0, tokenStream.readDoubleLiteral(), 0.0);
+		tokenStream.readRemainingWhitespaces(TokenStream.NO_COMPLETIONS, "Expected end of expression");
+	}
+
+	@Test
+	public void testCompletionsAfterBacktracking() throws InternalErrorException {
+		String expression = "obj.val";
+		TokenStream tokenStream = new TokenStream(expression, expression.length());
+		List<String> textsToComplete = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			tokenStream.setPosition(0);
+			try {
+				tokenStream.readIdentifier(TokenStream.NO_COMPLETIONS, "Expected an identifier");
+				tokenStream.readCharacter('.');
+				tokenStream.readIdentifier(info -> {
+					textsToComplete.add(info.getTokenTextUntilCaret());
+					return CodeCompletions.NONE;
+				}, "Expected an identifier");
+				Assert.fail("Expected a code completion request");
+			} catch (CodeCompletionException expected) {
+				// expected
+			} catch (SyntaxException e) {
+				Assert.fail("Unexpected syntax exception: " + e.getMessage());
+			}
+		}
+		Assert.assertEquals("val", textsToComplete.get(0));
+		Assert.assertEquals("val", textsToComplete.get(1));
+	}
+
+	private static void expectSyntaxException(TokenReader reader, TokenStream tokenStream, int position) throws CodeCompletionException, InternalErrorException {
+		try {
+			reader.read();
+			Assert.fail("Expected a syntax exception at position " + position);
+		} catch (SyntaxException e) {
+			tokenStream.setPosition(position);
+		}
+	}
+
+	@FunctionalInterface
+	private interface TokenReader
+	{
+		Object read() throws SyntaxException, CodeCompletionException, InternalErrorException;
+	}
+}
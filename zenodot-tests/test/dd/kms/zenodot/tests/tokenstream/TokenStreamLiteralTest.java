@@ -0,0 +1,133 @@
+package dd.kms.zenodot.tests.tokenstream;
+
+import dd.kms.zenodot.framework.flowcontrol.CodeCompletionException;
+import dd.kms.zenodot.framework.flowcontrol.InternalErrorException;
+import dd.kms.zenodot.framework.flowcontrol.SyntaxException;
+import dd.kms.zenodot.framework.result.CodeCompletions;
+import dd.kms.zenodot.framework.tokenizer.CompletionInfo;
+import dd.kms.zenodot.framework.tokenizer.TokenStream;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TokenStreamLiteralTest
+{
+	@Test
+	public void testNumericLiterals() throws SyntaxException, CodeCompletionException {
+		Assert.assertEquals(0L, new TokenStream("0L", -1).readLongLiteral());
+		Assert.assertEquals(0L, new TokenStream("0l", -1).readLongLiteral());
+		Assert.assertEquals(0.5f, new TokenStream(".5f", -1).readFloatLiteral(), 0.0f);
+		Assert.assertEquals(0.5, new TokenStream(".5", -1).readDoubleLiteral(), 0.0);
+		Assert.assertEquals(1.0, new TokenStream("1d", -1).readDoubleLiteral(), 0.0);
+		Assert.assertEquals(10.0, new TokenStream("1e1", -1).readDoubleLiteral(), 0.0);
+	}
+
+	@Test
+	public void testInvalidNumericLiterals() {
+		for (String expression : new String[]{ "1e", "1ed" }) {
+			assertNoIntegerLiteral(expression);
+			assertSyntaxException(() -> new TokenStream(expression, -1).readLongLiteral());
+			assertSyntaxException(() -> new TokenStream(expression, -1).readFloatLiteral());
+			assertSyntaxException(() -> new TokenStream(expression, -1).readDoubleLiteral());
+		}
+		assertNoIntegerLiteral("01");
+		assertSyntaxException(() -> new TokenStream("01L", -1).readLongLiteral());
+		assertNoIntegerLiteral("0L");
+		assertNoIntegerLiteral("1.");
+		assertNoIntegerLiteral("1f");
+	}
+
+	@Test
+	public void testTrailingWhitespacesOfIntegerLiterals() throws SyntaxException, CodeCompletionException {
+		// an integer literal does not include the last white space before a character that cannot follow it
+		testIntegerLiteralEnd("1 .5", 1);
+		testIntegerLiteralEnd("1   .5", 3);
+		testIntegerLiteralEnd("1 2", 1);
+		testIntegerLiteralEnd("1 f", 1);
+		testIntegerLiteralEnd("1 + 2", 2);
+		testIntegerLiteralEnd("1   ", 4);
+	}
+
+	@Test
+	public void testCharacterLiterals() throws SyntaxException, CodeCompletionException, InternalErrorException {
+		Assert.assertEquals('a', new TokenStream("'a'", -1).readCharacterLiteral());
+		Assert.assertEquals('\'', new TokenStream("'\\''", -1).readCharacterLiteral());
+		Assert.assertEquals('\\', new TokenStream("'\\\\'", -1).readCharacterLiteral());
+		Assert.assertEquals('\n', new TokenStream("'\\n'", -1).readCharacterLiteral());
+	}
+
+	@Test
+	public void testInvalidCharacterLiterals() {
+		assertSyntaxException(() -> new TokenStream("'\\'", -1).readCharacterLiteral());
+		assertSyntaxException(() -> new TokenStream("'ab'", -1).readCharacterLiteral());
+		assertSyntaxException(() -> new TokenStream("'\\\n'", -1).readCharacterLiteral());
+		assertSyntaxException(() -> new TokenStream("'\\\r'", -1).readCharacterLiteral());
+	}
+
+	@Test
+	public void testCompletionInTrailingWhitespaces() throws SyntaxException {
+		String expression = "  abc   + d";
+		for (int caretPosition = "  abc".length(); caretPosition <= "  abc   ".length(); caretPosition++) {
+			List<CompletionInfo> completionInfos = new ArrayList<>();
+			TokenStream tokenStream = new TokenStream(expression, caretPosition);
+			try {
+				tokenStream.readIdentifier(info -> { completionInfos.add(info); return CodeCompletions.NONE; }, "Expected an identifier");
+				Assert.fail("Expected a code completion exception");
+			} catch (CodeCompletionException e) {
+				Assert.assertEquals(1, completionInfos.size());
+				CompletionInfo completionInfo = completionInfos.get(0);
+				Assert.assertEquals(0, completionInfo.getTokenStartPosition());
+				Assert.assertEquals("  abc   ".length(), completionInfo.getTokenEndPosition());
+				Assert.assertEquals("  ".length(), completionInfo.getTokenTextStartPosition());
+				Assert.assertEquals("  abc".length(), completionInfo.getTokenTextEndPosition());
+				Assert.assertEquals(caretPosition, completionInfo.getCaretPosition());
+				Assert.assertEquals("abc", completionInfo.getTokenText());
+			}
+		}
+	}
+
+	@Test
+	public void testCompletionBehindTrailingWhitespacesOfIntegerLiteral() throws SyntaxException, CodeCompletionException {
+		// the caret is behind the integer literal because its last white space is not part of it
+		TokenStream tokenStream = new TokenStream("1 .5", 2);
+		Assert.assertEquals(1, tokenStream.readIntegerLiteral());
+		Assert.assertEquals(1, tokenStream.getPosition());
+
+		tokenStream = new TokenStream("1 + 2", 2);
+		try {
+			tokenStream.readIntegerLiteral();
+			Assert.fail("Expected a code completion exception");
+		} catch (CodeCompletionException e) {
+			Assert.assertTrue(e.getCompletions().getCompletions().isEmpty());
+		}
+	}
+
+	private static void testIntegerLiteralEnd(String expression, int expectedEndPosition) throws SyntaxException, CodeCompletionException {
+		TokenStream tokenStream = new TokenStream(expression, -1);
+		Assert.assertEquals(1, tokenStream.readIntegerLiteral());
+		Assert.assertEquals("Wrong end of integer literal in '" + expression + "'", expectedEndPosition, tokenStream.getPosition());
+	}
+
+	private static void assertNoIntegerLiteral(String expression) {
+		assertSyntaxException(() -> new TokenStream(expression, -1).readIntegerLiteral());
+	}
+
+	private static void assertSyntaxException(TokenStreamOperation operation) {
+		try {
+			operation.run();
+			Assert.fail("Expected a syntax exception");
+		} catch (SyntaxException e) {
+			// expected
+		} catch (CodeCompletionException | InternalErrorException e) {
+			Assert.fail("Unexpected exception: " + e);
+		}
+	}
+
+	@FunctionalInterface
+	private interface TokenStreamOperation
+	{
+		void run() throws SyntaxException, CodeCompletionException, InternalErrorException;
+	}
+}
@@ -0,0 +1,38 @@
+package dd.kms.zenodot.tests.tokenstream;
+
+import dd.kms.zenodot.framework.flowcontrol.CodeCompletionException;
+import dd.kms.zenodot.framework.flowcontrol.InternalErrorException;
+import dd.kms.zenodot.framework.flowcontrol.SyntaxException;
+import dd.kms.zenodot.framework.tokenizer.TokenStream;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TokenStreamUntilCharacterTest
+{
+	@Test
+	public void testReadUntilCharacter() throws SyntaxException, CodeCompletionException, InternalErrorException {
+		TokenStream tokenStream = new TokenStream("{ first node/second-node ^last]", -1);
+		Assert.assertEquals('{', tokenStream.readCharacter('{'));
+		Assert.assertEquals("first node", tokenStream.readUntilCharacter(TokenStream.NO_COMPLETIONS, '/', '-'));
+		Assert.assertEquals('/', tokenStream.readCharacter('/', '-'));
+		Assert.assertEquals("second", tokenStream.readUntilCharacter(TokenStream.NO_COMPLETIONS, '/', '-'));
+		Assert.assertEquals('-', tokenStream.readCharacter('/', '-'));
+		Assert.assertEquals("node ", tokenStream.readUntilCharacter(TokenStream.NO_COMPLETIONS, '^', ']'));
+		Assert.assertEquals('^', tokenStream.readCharacter('^', ']'));
+		Assert.assertEquals("last", tokenStream.readUntilCharacter(TokenStream.NO_COMPLETIONS, '\\', ']'));
+		Assert.assertEquals(']', tokenStream.readCharacter('\\', ']'));
+		Assert.assertEquals(TokenStream.EMPTY_CHARACTER, tokenStream.readCharacter(']', TokenStream.EMPTY_CHARACTER));
+	}
+
+	@Test
+	public void testReadUntilCharacterWithoutText() throws CodeCompletionException, InternalErrorException {
+		TokenStream tokenStream = new TokenStream("node]", -1);
+		tokenStream.setPosition("node".length());
+		try {
+			tokenStream.readUntilCharacter(TokenStream.NO_COMPLETIONS, ']');
+			Assert.fail("Expected a syntax exception");
+		} catch (SyntaxException e) {
+			Assert.assertEquals("node".length(), tokenStream.getPosition());
+		}
+	}
+}
@@ -0,0 +1,135 @@
+package dd.kms.zenodot.api;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Annotation processor that generates the class index of a module at build time. It does not process any
+ * annotations, but writes the names of all compiled classes to the resource {@value #RESOURCE_NAME}.
+ * When building the class index at runtime, class directories with such a resource are not scanned. The same
+ * holds for jars if the resource lists all of their classes. Hence, merging jars (e.g., when shading them)
+ * does not hide classes.<br>
+ * <br>
+ * The processor has to be activated explicitly, e.g., in Maven via the {@code annotationProcessors}
+ * configuration of the {@code maven-compiler-plugin}. If only some classes are compiled, then the classes of
+ * the previous resource are retained as long as their class files exist. Anonymous and local classes are not
+ * listed.<br>
+ * <br>
+ * The resource is a UTF-8 text file with one normalized class name per line. Inner classes are marked by the
+ * suffix {@value #INNER_CLASS_MARKER}. Lines starting with '#' are comments.
+ */
+@SupportedAnnotationTypes("*")
+public class ClassIndexProcessor extends AbstractProcessor
+{
+	public static final String			RESOURCE_NAME			= "META-INF/zenodot/class-index.txt";
+	public static final String			INNER_CLASS_MARKER		= " inner";
+
+	private static final String			HEADER					= "# Zenodot class index, generated at build time";
+
+	private final Map<String, Boolean>	innerClassFlagsByName	= new TreeMap<>();
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for (Element element : roundEnv.getRootElements()) {
+			addClasses(element);
+		}
+		if (roundEnv.processingOver()) {
+			addClassesOfPreviousCompilations();
+			writeResource();
+		}
+		// the processor does not claim any annotations
+		return false;
+	}
+
+	private void addClasses(Element element) {
+		if (!element.getKind().isClass() && !element.getKind().isInterface()) {
+			return;
+		}
+		TypeElement typeElement = (TypeElement) element;
+		String className = processingEnv.getElementUtils().getBinaryName(typeElement).toString();
+		innerClassFlagsByName.put(className, typeElement.getNestingKind().isNested());
+		for (Element enclosedElement : typeElement.getEnclosedElements()) {
+			addClasses(enclosedElement);
+		}
+	}
+
+	/**
+	 * Adds the classes of the previous resource that have not been compiled in this compilation, but whose
+	 * class files still exist. Otherwise, the resource would only list the recompiled classes after an
+	 * incremental compilation.
+	 */
+	private void addClassesOfPreviousCompilations() {
+		Filer filer = processingEnv.getFiler();
+		Map<String, Boolean> previousClasses = new LinkedHashMap<>();
+		try {
+			FileObject previousResource = filer.getResource(StandardLocation.CLASS_OUTPUT, "", RESOURCE_NAME);
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(previousResource.openInputStream(), StandardCharsets.UTF_8))) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					if (line.isEmpty() || line.startsWith("#")) {
+						continue;
+					}
+					boolean innerClass = line.endsWith(INNER_CLASS_MARKER);
+					previousClasses.put(innerClass ? line.substring(0, line.length() - INNER_CLASS_MARKER.length()) : line, innerClass);
+				}
+			}
+		} catch (IOException | IllegalArgumentException e) {
+			// there is no previous resource
+			return;
+		}
+		previousClasses.forEach((className, innerClass) -> {
+			if (!innerClassFlagsByName.containsKey(className) && classFileExists(filer, className)) {
+				innerClassFlagsByName.put(className, innerClass);
+			}
+		});
+	}
+
+	private static boolean classFileExists(Filer filer, String className) {
+		int lastDotIndex = className.lastIndexOf('.');
+		String packageName = lastDotIndex < 0 ? "" : className.substring(0, lastDotIndex);
+		String classFileName = className.substring(lastDotIndex + 1) + ".class";
+		try (InputStream ignored = filer.getResource(StandardLocation.CLASS_OUTPUT, packageName, classFileName).openInputStream()) {
+			return true;
+		} catch (IOException | IllegalArgumentException e) {
+			return false;
+		}
+	}
+
+	private void writeResource() {
+		try {
+			FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", RESOURCE_NAME);
+			try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(resource.openOutputStream(), StandardCharsets.UTF_8))) {
+				writer.write(HEADER);
+				writer.newLine();
+				for (Map.Entry<String, Boolean> entry : innerClassFlagsByName.entrySet()) {
+					writer.write(entry.getKey());
+					if (entry.getValue()) {
+						writer.write(INNER_CLASS_MARKER);
+					}
+					writer.newLine();
+				}
+			}
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot write the Zenodot class index: " + e.getMessage());
+		}
+	}
+}
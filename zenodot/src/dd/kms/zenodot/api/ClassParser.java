@@ -1,6 +1,7 @@
 package dd.kms.zenodot.api;
 
 import dd.kms.zenodot.api.result.CodeCompletion;
+import dd.kms.zenodot.api.result.CodeCompletionResult;
 
 import java.util.List;
 
@@ -16,6 +17,14 @@ public interface ClassParser
 	 */
 	List<CodeCompletion> getCompletions(String text, int caretPosition) throws ParseException;
 
+	/**
+	 * Like {@link #getCompletions(String, int)}, but the result also tells whether completions might be missing
+	 * because the class index is still being built
+	 *
+	 * @throws ParseException
+	 */
+	CodeCompletionResult getCompletionResult(String text, int caretPosition) throws ParseException;
+
 	/**
 	 * Evaluates the specified class name as a class taking the imports specified in the settings into account
 	 *
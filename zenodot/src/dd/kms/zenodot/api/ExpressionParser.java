@@ -1,6 +1,7 @@
 package dd.kms.zenodot.api;
 
 import dd.kms.zenodot.api.result.CodeCompletion;
+import dd.kms.zenodot.api.result.CodeCompletionResult;
 import dd.kms.zenodot.api.result.ExecutableArgumentInfo;
 
 import java.util.List;
@@ -25,6 +26,20 @@ public interface ExpressionParser
 	 */
 	List<CodeCompletion> getCompletions(String text, int caretPosition, Object thisValue) throws ParseException;
 
+	/**
+	 * Returns rated code completions and information about the arguments of the current method or constructor
+	 * for the given text at a given caret position in the context provided by {@code thisType}. The result also
+	 * tells whether completions might be missing because the class index is still being built.
+	 */
+	CodeCompletionResult getCompletionResult(String text, int caretPosition, Class<?> thisType) throws ParseException;
+
+	/**
+	 * Returns rated code completions and information about the arguments of the current method or constructor
+	 * for the given text at a given caret position in the context provided by {@code thisValue}. The result also
+	 * tells whether completions might be missing because the class index is still being built.
+	 */
+	CodeCompletionResult getCompletionResult(String text, int caretPosition, Object thisValue) throws ParseException;
+
 	/**
 	 * Returns optional information about the arguments of the current method or constructor {@link ExecutableArgumentInfo}.
 	 * The value will be present if the caret is inside of a method argument list.
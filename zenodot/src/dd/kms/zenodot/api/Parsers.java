@@ -1,9 +1,12 @@
 package dd.kms.zenodot.api;
 
 import dd.kms.zenodot.api.result.CodeCompletion;
+import dd.kms.zenodot.api.settings.ClassIndexSettings;
 import dd.kms.zenodot.api.settings.ParserSettings;
 
+import java.nio.file.Path;
 import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * API entry point of Zenodot
@@ -13,14 +16,78 @@ public class Parsers
 	public static final Comparator<CodeCompletion> COMPLETION_COMPARATOR	= Comparator.comparing(CodeCompletion::getRating).thenComparing(CodeCompletion::getType);
 
 	/**
-	 * This method to loads and initializes Zenodot classes whose initializers may require some time.
-	 * It is not necessary to call this method, but it can save some time when these classes are required later.
+	 * Configures which classes are scanned when building the class index. The class index is shared by all
+	 * parsers. Hence, this method has to be called once before any parser is used and before
+	 * {@link #preloadClasses()} is called.
+	 *
+	 * @throws IllegalStateException if building the class index has already been started
+	 */
+	public static void configureClassIndex(ClassIndexSettings settings) {
+		dd.kms.zenodot.impl.classindex.ClassIndexManager.configure(settings);
+	}
+
+	/**
+	 * This method starts building the class index in the background. It does not block. It is not necessary
+	 * to call this method, but the earlier the index is built, the earlier code completions will consider
+	 * all classes and packages.
 	 */
 	public static void preloadClasses() {
-		try {
-			Class.forName(dd.kms.zenodot.impl.utils.dataproviders.ClassDataProvider.class.getName(), true, Parsers.class.getClassLoader());
-		} catch (ClassNotFoundException ignored) {
-		}
+		getClassIndexReadiness();
+	}
+
+	/**
+	 * Returns a future that is completed when the class index has been built. Until then, code completions
+	 * for classes and packages are limited to what is known without the index and marked as partial (see
+	 * {@link dd.kms.zenodot.api.result.CodeCompletionResult#isPartial()}). Calling this method starts building
+	 * the index if this has not happened yet.
+	 */
+	public static CompletableFuture<Void> getClassIndexReadiness() {
+		return dd.kms.zenodot.impl.classindex.ClassIndexManager.getReadiness();
+	}
+
+	/**
+	 * Like {@link #getClassIndexReadiness()}, but the returned future is only completed when the classes of the
+	 * specified class loader have been indexed as well (see {@link dd.kms.zenodot.api.settings.ParserSettingsBuilder#classLoader(ClassLoader)}).
+	 */
+	public static CompletableFuture<Void> getClassIndexReadiness(ClassLoader classLoader) {
+		ClassLoader classLoaderScope = dd.kms.zenodot.impl.utils.ClassUtils.getClassLoaderScope(classLoader);
+		return dd.kms.zenodot.impl.classindex.ClassIndexManager.getReadiness(classLoaderScope);
+	}
+
+	/**
+	 * Registers a jar file or a class directory that is not part of the class path, e.g., a plugin that
+	 * is loaded at runtime. Only this source is scanned and merged into the class index. Its classes are
+	 * loaded by a dedicated class loader. If the classes are already loaded by a class loader of the
+	 * application, then register this class loader instead via {@link #registerClassSource(ClassLoader)}.
+	 *
+	 * @return a future that is completed when the source has been merged into the class index
+	 */
+	public static CompletableFuture<Void> registerClassSource(Path jarOrDirectory) {
+		return dd.kms.zenodot.impl.classindex.ClassIndexManager.registerClassSource(jarOrDirectory);
+	}
+
+	/**
+	 * Registers a class loader, e.g., a plugin class loader. Only the class path of this class loader,
+	 * not the class paths of its parents, is scanned and merged into the class index.
+	 *
+	 * @return a future that is completed when the source has been merged into the class index
+	 */
+	public static CompletableFuture<Void> registerClassSource(ClassLoader classLoader) {
+		return dd.kms.zenodot.impl.classindex.ClassIndexManager.registerClassSource(classLoader);
+	}
+
+	/**
+	 * Removes a jar file or a class directory registered via {@link #registerClassSource(Path)} from the class index
+	 */
+	public static void deregisterClassSource(Path jarOrDirectory) {
+		dd.kms.zenodot.impl.classindex.ClassIndexManager.deregisterClassSource(jarOrDirectory);
+	}
+
+	/**
+	 * Removes a class loader registered via {@link #registerClassSource(ClassLoader)} from the class index
+	 */
+	public static void deregisterClassSource(ClassLoader classLoader) {
+		dd.kms.zenodot.impl.classindex.ClassIndexManager.deregisterClassSource(classLoader);
 	}
 
 	public static ExpressionParser createExpressionParser(ParserSettings settings) {
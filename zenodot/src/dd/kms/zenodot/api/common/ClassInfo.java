@@ -1,17 +1,43 @@
 package dd.kms.zenodot.api.common;
 
+import com.google.common.collect.MapMaker;
+
+import javax.annotation.Nullable;
+import java.lang.ref.WeakReference;
+import java.util.Map;
 import java.util.Objects;
 
 /**
  * References a class by its fully qualified (normalized) name. That way, a class does not have to be loaded
- * until it is used.
+ * until it is used.<br>
+ * <br>
+ * The result of loading the class is memoized, including a failure. The class is only referenced weakly
+ * and of a failure only the message is retained such that class loaders can be garbage collected.<br>
+ * <br>
+ * If a class loader is specified, then the class is loaded via this class loader only. The class loader
+ * is also referenced weakly. Equality is based on an identity token of the class loader that is captured at
+ * construction. Hence, it does not change when the class loader is garbage collected.
  */
 public class ClassInfo
 {
-	private final String normalizedClassName;
+	/**
+	 * Maps class loaders to tokens that identify them without retaining them. The keys are compared by identity.
+	 */
+	private static final Map<ClassLoader, Object>		CLASS_LOADER_TOKENS	= new MapMaker().weakKeys().makeMap();
+
+	private final String								normalizedClassName;
+	private final @Nullable WeakReference<ClassLoader>	classLoader;
+	private final @Nullable Object						classLoaderToken;
+	private volatile @Nullable Resolution				resolution;
 
 	public ClassInfo(String normalizedClassName) {
+		this(normalizedClassName, null);
+	}
+
+	public ClassInfo(String normalizedClassName, @Nullable ClassLoader classLoader) {
 		this.normalizedClassName = normalizedClassName;
+		this.classLoader = classLoader == null ? null : new WeakReference<>(classLoader);
+		this.classLoaderToken = classLoader == null ? null : CLASS_LOADER_TOKENS.computeIfAbsent(classLoader, loader -> new Object());
 	}
 
 	/**
@@ -44,11 +70,37 @@ public class ClassInfo
 	 * @throws IllegalStateException if any exception occurred when loading the {@code Class}
 	 */
 	public Class<?> asClass() {
+		long registeredClassLoadersGeneration = dd.kms.zenodot.impl.classindex.RegisteredClassLoaders.getGeneration();
+		Resolution resolution = this.resolution;
+		// the result may change when class sources are registered or deregistered
+		if (resolution != null && resolution.registeredClassLoadersGeneration == registeredClassLoadersGeneration) {
+			if (resolution.errorMessage != null) {
+				throw new IllegalStateException(resolution.errorMessage);
+			}
+			Class<?> clazz = resolution.clazz.get();
+			if (clazz != null) {
+				return clazz;
+			}
+		}
+		ClassLoader classLoader = null;
+		if (this.classLoader != null) {
+			classLoader = this.classLoader.get();
+			if (classLoader == null) {
+				throw new IllegalStateException("Error loading class '" + getRegularName() + "': The class loader has been garbage collected");
+			}
+		}
 		try {
-			return Class.forName(normalizedClassName);
+			Class<?> clazz = dd.kms.zenodot.impl.utils.ClassUtils.loadClass(normalizedClassName, true, classLoader);
+			this.resolution = new Resolution(registeredClassLoadersGeneration, clazz, null);
+			return clazz;
 		} catch (Throwable t) {
-			dd.kms.zenodot.impl.utils.dataproviders.ClassDataProvider.reportClassWithError(this);
-			throw new IllegalStateException("Error loading class '" + getRegularName() + "': " + t, t);
+			IllegalStateException exception = new IllegalStateException("Error loading class '" + getRegularName() + "': " + t, t);
+			this.resolution = new Resolution(registeredClassLoadersGeneration, null, exception.getMessage());
+			if (classLoader == null) {
+				// classes of a dedicated class loader must not be excluded for other class loaders
+				dd.kms.zenodot.impl.utils.dataproviders.ClassDataProvider.reportClassWithError(this);
+			}
+			throw exception;
 		}
 	}
 
@@ -57,7 +109,8 @@ public class ClassInfo
 		if (this == o) return true;
 		if (o == null || getClass() != o.getClass()) return false;
 		ClassInfo that = (ClassInfo) o;
-		return Objects.equals(normalizedClassName, that.normalizedClassName);
+		return Objects.equals(normalizedClassName, that.normalizedClassName)
+			&& classLoaderToken == that.classLoaderToken;
 	}
 
 	@Override
@@ -69,4 +122,20 @@ public class ClassInfo
 	public String toString() {
 		return getRegularName();
 	}
+
+	private static class Resolution
+	{
+		private final long						registeredClassLoadersGeneration;
+		private final WeakReference<Class<?>>	clazz;
+		/**
+		 * The throwable itself is not retained because it might reference the class loader, e.g., via its stack trace
+		 */
+		private final @Nullable String			errorMessage;
+
+		Resolution(long registeredClassLoadersGeneration, @Nullable Class<?> clazz, @Nullable String errorMessage) {
+			this.registeredClassLoadersGeneration = registeredClassLoadersGeneration;
+			this.clazz = new WeakReference<>(clazz);
+			this.errorMessage = errorMessage;
+		}
+	}
 }
@@ -2,24 +2,32 @@ package dd.kms.zenodot.api.common.multistringmatching;
 
 import dd.kms.zenodot.api.common.RegexUtils;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Predicate;
 
 /**
  * This class is intended to be used for searching in a fixed large list of strings
  * over and over again with different wildcard patterns. The result is supposed to be
  * the same as when filtering all contained strings with the regex returned by
  * {@link RegexUtils#createRegexForWildcardString(String)}.
- * However, it is optimized for this special type of regex pattern.
+ * However, it is optimized for this special type of regex pattern.<br>
+ * <br>
+ * When all strings have been added, the matcher should be made immutable via {@link #makeImmutable()}.
+ * This converts it to a compact representation that requires considerably less memory and is faster
+ * to search.
  */
 public class MultiStringMatcher<T>
 {
-	private final MultiStringMatcherNode<T>	root 		= new MultiStringMatcherNode<>();
-	private boolean							immutable;
+	private @Nullable MultiStringMatcherNode<T>	root 			= new MultiStringMatcherNode<>();
+	private @Nullable MultiStringMatcher<T>		immutableMatcher;
 
 	public void put(String key, T value) {
-		if (immutable) {
+		if (root == null) {
 			throw new UnsupportedOperationException("Trying to modify immutable " + getClass().getSimpleName());
 		}
 		if (value == null) {
@@ -81,8 +89,33 @@ public class MultiStringMatcher<T>
 		}
 	}
 
+	/**
+	 * Converts the matcher to a compact representation. Afterwards, no more strings can be added.
+	 */
 	public void makeImmutable() {
-		this.immutable = true;
+		if (root != null) {
+			List<String> keys = new ArrayList<>();
+			List<T> values = new ArrayList<>();
+			collectEntries(root, new StringBuilder(), keys, values);
+			immutableMatcher = dd.kms.zenodot.impl.classindex.PackedMultiStringMatcher.create(keys, values);
+			root = null;
+		}
+	}
+
+	private static <T> void collectEntries(MultiStringMatcherNode<T> node, StringBuilder key, List<String> keys, List<T> values) {
+		List<T> nodeValues = node.getValues();
+		if (!nodeValues.isEmpty()) {
+			String nodeKey = key.toString();
+			for (T value : nodeValues) {
+				keys.add(nodeKey);
+				values.add(value);
+			}
+		}
+		for (Map.Entry<Character, MultiStringMatcherNode<T>> childEntry : node.getChildrenByCharacter()) {
+			key.append(childEntry.getKey().charValue());
+			collectEntries(childEntry.getValue(), key, keys, values);
+			key.setLength(key.length() - 1);
+		}
 	}
 
 	public Set<T> search(String keyPattern) {
@@ -90,7 +123,58 @@ public class MultiStringMatcher<T>
 	}
 
 	public Set<T> search(String keyPattern, int maxNumberOfResults) {
-		MultiStringWildcardSearch<T> wildcardSearch = new MultiStringWildcardSearch<>(keyPattern, root, maxNumberOfResults);
-		return wildcardSearch.search();
+		if (immutableMatcher != null) {
+			return immutableMatcher.search(keyPattern, maxNumberOfResults);
+		}
+		Set<T> results = new HashSet<>();
+		if (maxNumberOfResults > 0) {
+			search(keyPattern, value -> {
+				results.add(value);
+				return results.size() < maxNumberOfResults;
+			});
+		}
+		return results;
+	}
+
+	/**
+	 * Passes the values of all keys that match the pattern to the {@code consumer} until it returns {@code false}.
+	 * In contrast to {@link #search(String, int)}, no result set is created. A value may be passed multiple times,
+	 * e.g., if it has been registered for multiple keys.
+	 */
+	public void search(String keyPattern, Predicate<? super T> consumer) {
+		if (immutableMatcher != null) {
+			immutableMatcher.search(keyPattern, consumer);
+			return;
+		}
+		new MultiStringWildcardSearch<>(keyPattern, root, consumer).search();
+	}
+
+	/**
+	 * Returns the values of the best {@code maxNumberOfResults} keys that match the pattern, best matches first:
+	 * keys that equal the pattern, followed by keys that start with the pattern, followed by keys that only match
+	 * via shortcuts or wildcards. Within these categories, shorter keys are better. In contrast to
+	 * {@link #search(String, int)}, the limit does not cut off arbitrary results.
+	 *
+	 * @throws IllegalStateException if the matcher has not been made immutable (see {@link #makeImmutable()})
+	 */
+	public List<T> searchBest(String keyPattern, int maxNumberOfResults) {
+		if (immutableMatcher == null) {
+			throw new IllegalStateException("Ranked searches require an immutable " + getClass().getSimpleName());
+		}
+		return immutableMatcher.searchBest(keyPattern, maxNumberOfResults);
+	}
+
+	/**
+	 * Returns the values of keys that start with the specified string when ignoring case and allowing at most
+	 * {@code maxTypos} typos (inserted, deleted, or substituted characters). Values of keys with fewer typos come
+	 * first. The string is not interpreted as pattern, i.e., shortcuts and wildcards are not supported.
+	 *
+	 * @throws IllegalStateException if the matcher has not been made immutable (see {@link #makeImmutable()})
+	 */
+	public List<T> searchWithTypos(String key, int maxTypos, int maxNumberOfResults) {
+		if (immutableMatcher == null) {
+			throw new IllegalStateException("Searches with typos require an immutable " + getClass().getSimpleName());
+		}
+		return immutableMatcher.searchWithTypos(key, maxTypos, maxNumberOfResults);
 	}
 }
@@ -67,6 +67,10 @@ class MultiStringMatcherNode<T>
 		return children.values();
 	}
 
+	Set<Map.Entry<Character, MultiStringMatcherNode<T>>> getChildrenByCharacter() {
+		return children.entrySet();
+	}
+
 	void addShortcut(char c, MultiStringMatcherNode<T> shortcutNode) {
 		shortcutNodes.put(c, shortcutNode);
 	}
@@ -1,114 +1,122 @@
 package dd.kms.zenodot.api.common.multistringmatching;
 
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.function.Predicate;
 
+/**
+ * Iterative search over states (node, pattern index): The state describes that the path to the node
+ * matches the pattern up to, but excluding, the pattern index. Pending states are kept on an explicit
+ * stack instead of the call stack.<br>
+ * <br>
+ * A wildcard is matched by continuing the search with the next pattern index at every node of the
+ * current subtree. For patterns like "*a*b*c*", the subtrees of nested matches overlap, so a naive
+ * search visits them over and over again. Hence, the nodes at which a wildcard has already been
+ * processed are remembered per pattern index. This is not necessary for the first wildcard: Without
+ * preceding wildcards, every state can be reached in one way only.
+ */
 class MultiStringWildcardSearch<T>
 {
-	private final String					keyPattern;
-	private final MultiStringMatcherNode<T>	root;
-	private final int						maxNumberOfResults;
-	private final Set<T>					results		= new HashSet<>();
+	private final String								keyPattern;
+	private final Predicate<? super T>					consumer;
+	private final int									firstWildcardIndex;
+	private final @Nullable List<Set<MultiStringMatcherNode<T>>>	visitedNodesByWildcardIndex;
 
-	MultiStringWildcardSearch(String keyPattern, MultiStringMatcherNode<T> root, int maxNumberOfResults) {
+	private final Deque<MultiStringMatcherNode<T>>		nodeStack			= new ArrayDeque<>();
+	private int[]										patternIndexStack	= new int[16];
+
+	/**
+	 * @param consumer	receives the values of all matching keys and returns whether to continue the search
+	 */
+	MultiStringWildcardSearch(String keyPattern, MultiStringMatcherNode<T> root, Predicate<? super T> consumer) {
 		this.keyPattern = keyPattern;
-		this.root = root;
-		this.maxNumberOfResults = maxNumberOfResults;
+		this.consumer = consumer;
+		this.firstWildcardIndex = keyPattern.indexOf('*');
+		this.visitedNodesByWildcardIndex = keyPattern.indexOf('*', firstWildcardIndex + 1) >= 0
+			? new ArrayList<>(Collections.nCopies(keyPattern.length(), null))
+			: null;
+		push(root, 0);
 	}
 
-	Set<T> search() {
-		try {
-			search(0, root);
-		} catch (EarlyTerminationException e) {
-			/* This is no error. */
+	void search() {
+		while (!nodeStack.isEmpty()) {
+			MultiStringMatcherNode<T> node = nodeStack.pop();
+			int patternIndex = patternIndexStack[nodeStack.size()];
+			if (!process(node, patternIndex)) {
+				return;
+			}
 		}
-		return results;
 	}
 
-	private void search(int startIndex, MultiStringMatcherNode<T> node) {
-		if (startIndex == keyPattern.length()) {
+	/**
+	 * Returns false if the consumer stopped the search
+	 */
+	private boolean process(MultiStringMatcherNode<T> node, int patternIndex) {
+		if (patternIndex == keyPattern.length()) {
 			/*
-			 * The pattern ends at this node => All results of this node and all
-			 * of its children will match the pattern.
+			 * The pattern ends at this node => All values of this node and all
+			 * of its descendants match the pattern.
 			 */
-			collectResultsOfWholeTree(node);
-			return;
-		}
-		char c = keyPattern.charAt(startIndex);
-		/*
-		 * Search in child
-		 */
-		MultiStringMatcherNode<T> child = node.getChild(c);
-		if (child != null) {
-			search(startIndex+1, child);
-		}
-		/*
-		 * Search in shortcuts
-		 */
-		if (Character.isUpperCase(c)) {
-			Collection<MultiStringMatcherNode<T>> shortcutNodes = node.getShortcuts(c);
-			for (MultiStringMatcherNode<T> shortcutNode : shortcutNodes) {
-				search(startIndex+1, shortcutNode);
+			for (T value : node.getValues()) {
+				if (!consumer.test(value)) {
+					return false;
+				}
+			}
+			for (MultiStringMatcherNode<T> child : node.getChildren()) {
+				push(child, patternIndex);
 			}
+			return true;
 		}
-		/*
-		 * Wildcard search
-		 */
+		char c = keyPattern.charAt(patternIndex);
 		if (c == '*') {
-			collectWildcardSearchResults(startIndex+1, node);
-		}
-	}
-
-	private void collectResultsOfWholeTree(MultiStringMatcherNode<T> node) {
-		List<T> values = node.getValues();
-		if (!values.isEmpty()) {
-			if (results.size() + values.size() < maxNumberOfResults) {
-				results.addAll(values);
-			} else {
-				for (T value : values) {
-					results.add(value);
-					if (results.size() >= maxNumberOfResults) {
-						/*
-						 * Use an exception to break to regular search control flow.
-						 */
-						throw new EarlyTerminationException();
-					}
+			/*
+			 * Match '*' with the empty string or with an arbitrary character followed by '*'. A trailing '*'
+			 * need not consume characters because the whole subtree will be collected anyway.
+			 */
+			push(node, patternIndex + 1);
+			if (patternIndex + 1 < keyPattern.length()) {
+				for (MultiStringMatcherNode<T> child : node.getChildren()) {
+					push(child, patternIndex);
 				}
 			}
+			return true;
+		}
+		MultiStringMatcherNode<T> child = node.getChild(c);
+		if (child != null) {
+			push(child, patternIndex + 1);
 		}
-		Collection<MultiStringMatcherNode<T>> children = node.getChildren();
-		for (MultiStringMatcherNode<T> child : children) {
-			collectResultsOfWholeTree(child);
+		if (Character.isUpperCase(c)) {
+			for (MultiStringMatcherNode<T> shortcutNode : node.getShortcuts(c)) {
+				push(shortcutNode, patternIndex + 1);
+			}
 		}
+		return true;
 	}
 
-	private void collectWildcardSearchResults(int startIndex, MultiStringMatcherNode<T> node) {
-		if (startIndex == keyPattern.length()) {
-			/*
-			 * The pattern ends at this node => All results of this node and all
-			 * of its children will match the pattern.
-			 */
-			collectResultsOfWholeTree(node);
+	private void push(MultiStringMatcherNode<T> node, int patternIndex) {
+		if (isRepeatedWildcard(node, patternIndex)) {
 			return;
 		}
-		/*
-		 * Match '*' with empty string
-		 */
-		search(startIndex, node);
-		/*
-		 * Match '*' with an arbitrary child letter and apply wildcard search again
-		 */
-		Collection<MultiStringMatcherNode<T>> children = node.getChildren();
-		for (MultiStringMatcherNode<T> child : children) {
-			collectWildcardSearchResults(startIndex, child);
+		int stackSize = nodeStack.size();
+		if (stackSize == patternIndexStack.length) {
+			patternIndexStack = Arrays.copyOf(patternIndexStack, 2*stackSize);
 		}
+		patternIndexStack[stackSize] = patternIndex;
+		nodeStack.push(node);
 	}
 
 	/**
-	 * Used to break the regular search control flow. This exception does
-	 * not indicate an error.
+	 * Returns whether a wildcard at the pattern index has already been processed at the node and marks it as processed
 	 */
-	private static class EarlyTerminationException extends RuntimeException {}
+	private boolean isRepeatedWildcard(MultiStringMatcherNode<T> node, int patternIndex) {
+		if (visitedNodesByWildcardIndex == null || patternIndex <= firstWildcardIndex || patternIndex == keyPattern.length() || keyPattern.charAt(patternIndex) != '*') {
+			return false;
+		}
+		Set<MultiStringMatcherNode<T>> visitedNodes = visitedNodesByWildcardIndex.get(patternIndex);
+		if (visitedNodes == null) {
+			visitedNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+			visitedNodesByWildcardIndex.set(patternIndex, visitedNodes);
+		}
+		return !visitedNodes.add(node);
+	}
 }
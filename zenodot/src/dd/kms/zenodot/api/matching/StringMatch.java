@@ -44,6 +44,15 @@ public enum StringMatch
 	 */
 	PREFIX_IGNORE_CASE,
 
+	/**
+	 * The string matches the expected string when interpreting the expected string as wildcard string and ignoring
+	 * case-sensitivity. Additionally, every letter of the expected string, not only a capital one, may match the next
+	 * capital letter of the string.<br>
+	 * <br>
+	 * <b>Example:</b> {@code actual = "HashMap"}, {@code expected = "hm"}
+	 */
+	WILDCARD_IGNORE_CASE,
+
 	/**
 	 * The expected string starts with the string.<br>
 	 * <br>
@@ -58,6 +67,15 @@ public enum StringMatch
 	 */
 	INVERSE_PREFIX_IGNORE_CASE,
 
+	/**
+	 * The string starts with the expected string when ignoring case-sensitivity and allowing a few typos
+	 * (inserted, deleted, or substituted characters). The number of tolerated typos depends on the length of
+	 * the expected string.<br>
+	 * <br>
+	 * <b>Example:</b> {@code actual = "ArrayList"}, {@code expected = "Aray"}
+	 */
+	FUZZY,
+
 	/**
 	 * The string does not match the expected string in any of the currently supported senses.
 	 */
@@ -0,0 +1,22 @@
+package dd.kms.zenodot.api.result;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Contains the rated code completions and, if available, information about the arguments
+ * of the executable the caret is currently in.
+ */
+public interface CodeCompletionResult
+{
+	List<CodeCompletion> getCompletions();
+
+	Optional<ExecutableArgumentInfo> getExecutableArgumentInfo();
+
+	/**
+	 * Returns {@code true} if some completions might be missing because the class index is still being built
+	 * in the background. In this case, the completions should be requested again when the index is ready
+	 * (see {@link dd.kms.zenodot.api.Parsers#getClassIndexReadiness()}).
+	 */
+	boolean isPartial();
+}
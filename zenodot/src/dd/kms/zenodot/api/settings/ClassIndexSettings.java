@@ -0,0 +1,26 @@
+package dd.kms.zenodot.api.settings;
+
+import java.util.Set;
+
+/**
+ * Immutable settings that control which classes are scanned when building the class index. Can only be
+ * created with a {@link ClassIndexSettingsBuilder}.<br>
+ * <br>
+ * The class index is shared by all parsers. Hence, the settings have to be applied globally via
+ * {@link dd.kms.zenodot.api.Parsers#configureClassIndex(ClassIndexSettings)} before the index is built.
+ */
+public interface ClassIndexSettings
+{
+	boolean isScanSystemJarsAndModules();
+	Set<String> getAcceptedPackages();
+	Set<String> getRejectedPackages();
+	Set<String> getAcceptedModules();
+	Set<String> getRejectedModules();
+	Set<String> getAcceptedJars();
+	Set<String> getRejectedJars();
+	ClassScanner getClassScanner();
+	int getScanThreadCount();
+	boolean isVerifyClassesInBackground();
+
+	ClassIndexSettingsBuilder builder();
+}
@@ -0,0 +1,74 @@
+package dd.kms.zenodot.api.settings;
+
+/**
+ * Builder for {@link ClassIndexSettings}<br>
+ * <br>
+ * You can either create a new builder via {@link #create()} or derive
+ * one from existing settings via {@link ClassIndexSettings#builder()}.<br>
+ * <br>
+ * Restricting the scan to the packages, modules, and jars that are actually required can
+ * reduce the time and the memory required for building the class index considerably.
+ */
+public interface ClassIndexSettingsBuilder
+{
+	static ClassIndexSettingsBuilder create() {
+		return new dd.kms.zenodot.impl.settings.ClassIndexSettingsBuilderImpl();
+	}
+
+	/**
+	 * Specify whether the jars and modules of the JDK are scanned. This is the case by default.
+	 */
+	ClassIndexSettingsBuilder scanSystemJarsAndModules(boolean scanSystemJarsAndModules);
+
+	/**
+	 * If packages are accepted, then only these packages and their subpackages are scanned. Otherwise,
+	 * all packages are scanned.
+	 */
+	ClassIndexSettingsBuilder acceptPackages(Iterable<String> packageNames);
+
+	/**
+	 * Rejected packages and their subpackages are not scanned, even if they are accepted.
+	 */
+	ClassIndexSettingsBuilder rejectPackages(Iterable<String> packageNames);
+
+	/**
+	 * If modules are accepted, then only these modules are scanned. Otherwise, all modules are scanned.
+	 */
+	ClassIndexSettingsBuilder acceptModules(Iterable<String> moduleNames);
+
+	/**
+	 * Rejected modules are not scanned, even if they are accepted.
+	 */
+	ClassIndexSettingsBuilder rejectModules(Iterable<String> moduleNames);
+
+	/**
+	 * If jars are accepted, then only these jars are scanned. Otherwise, all jars are scanned. The jars
+	 * are specified by their file names, which may contain the wildcard '*'.
+	 */
+	ClassIndexSettingsBuilder acceptJars(Iterable<String> jarFileNames);
+
+	/**
+	 * Rejected jars are not scanned, even if they are accepted. See {@link #acceptJars(Iterable)} for
+	 * how to specify jars.
+	 */
+	ClassIndexSettingsBuilder rejectJars(Iterable<String> jarFileNames);
+
+	/**
+	 * Specify how class sources are scanned. By default, {@link ClassScanner#CLASS_GRAPH} is used.
+	 */
+	ClassIndexSettingsBuilder classScanner(ClassScanner classScanner);
+
+	/**
+	 * The number of threads that scan the class path. By default, half of the available processors are used.
+	 */
+	ClassIndexSettingsBuilder scanThreadCount(int scanThreadCount);
+
+	/**
+	 * If enabled, then a low-priority background thread checks which indexed classes can be loaded. Classes
+	 * that cannot be loaded are not suggested anymore. Note that this loads all indexed classes (without
+	 * initializing them), which costs time and memory. Hence, this is disabled by default.
+	 */
+	ClassIndexSettingsBuilder verifyClassesInBackground(boolean verifyClassesInBackground);
+
+	ClassIndexSettings build();
+}
@@ -0,0 +1,24 @@
+package dd.kms.zenodot.api.settings;
+
+/**
+ * Selects how the class path, the runtime image, and registered class sources are scanned
+ * when building the class index
+ */
+public enum ClassScanner
+{
+	/**
+	 * The class path is scanned with ClassGraph. ClassGraph parses all class files, which provides
+	 * exact information about inner classes, but costs considerably more time and memory than
+	 * required for collecting class names.
+	 */
+	CLASS_GRAPH,
+
+	/**
+	 * The class path is scanned with a lightweight scanner that only lists file names: It reads the
+	 * module listings of the runtime image via the {@code jrt:/} file system and the central directories
+	 * of jar files via memory-mapped files. Class files are never parsed. Hence, inner classes are
+	 * recognized by the '$' in their names. Class loaders can only be scanned if they are
+	 * {@link java.net.URLClassLoader}s. Otherwise, ClassGraph is used for them.
+	 */
+	NIO
+}
@@ -4,6 +4,7 @@ import dd.kms.zenodot.api.common.AccessModifier;
 import dd.kms.zenodot.api.debug.ParserLogger;
 import dd.kms.zenodot.api.settings.extensions.ParserExtension;
 
+import javax.annotation.Nullable;
 import java.util.Collection;
 
 /**
@@ -19,6 +20,12 @@ public interface ParserSettings
 	AccessModifier getMinimumMethodAccessModifier();
 	EvaluationMode getEvaluationMode();
 	boolean isConsiderAllClassesForClassCompletions();
+	/**
+	 * Returns the class loader classes are resolved with or {@code null} if classes are resolved
+	 * with the class loader of Zenodot and the registered class loaders.
+	 */
+	@Nullable
+	ClassLoader getClassLoader();
 	Collection<String> getParserExtensionNames();
 	/**
 	 * Returns the parser extension registered for the {@code extensionName}.
@@ -31,7 +31,8 @@ public interface ParserSettingsBuilder
 	ParserSettingsBuilder importClasses(Iterable<Class<?>> classes);
 
 	/**
-	 * see {@link #importClasses(Iterable)}
+	 * see {@link #importClasses(Iterable)}. If a class loader has been specified via {@link #classLoader(ClassLoader)},
+	 * then the classes are loaded by this class loader.
 	 */
 	ParserSettingsBuilder importClassesByName(Iterable<String> classNames) throws ClassNotFoundException;
 
@@ -70,6 +71,18 @@ public interface ParserSettingsBuilder
 	 */
 	ParserSettingsBuilder considerAllClassesForClassCompletions(boolean considerAllClassesForClassCompletions);
 
+	/**
+	 * Scopes the parser to the specified class loader, e.g., the class loader of a tenant or a plugin. Classes are then
+	 * resolved with this class loader and code completions consider the classes of this class loader and its parents.
+	 * These classes are indexed separately from the shared class index. Such an index is shared by all parsers scoped
+	 * to the same class loader and released when the class loader becomes unreachable. Class loaders that do not add
+	 * any classes to the shared index (like the class loader of Zenodot) are ignored.<br>
+	 * <br>
+	 * By default, no class loader is specified. Then classes are resolved with the class loader of Zenodot and the
+	 * class loaders registered via {@link dd.kms.zenodot.api.Parsers#registerClassSource(ClassLoader)}.
+	 */
+	ParserSettingsBuilder classLoader(@Nullable ClassLoader classLoader);
+
 	/**
 	 * Updates the extension with the specified {@code extensionName}. If the specified {@code parserExtension} is
 	 * {@code null}, then the extension is removed. Extensions are created via the {@link ParserExtensionBuilder}.
@@ -1,10 +1,27 @@
 package dd.kms.zenodot.api.settings.extensions;
 
 import dd.kms.zenodot.framework.parsers.AbstractParser;
+import dd.kms.zenodot.framework.utils.ParserToolbox;
+
+import java.util.function.Function;
 
 public interface AdditionalParserSettings
 {
 	ParserType getParserType();
-	Class<? extends AbstractParser<?, ?, ?>> getParserClass();
+
+	/**
+	 * Returns the factory that creates the parser, usually a reference to the parser's constructor.
+	 */
+	Function<ParserToolbox, ? extends AbstractParser<?, ?, ?>> getParserFactory();
+
 	Object getSettings();
+
+	/**
+	 * Returns {@code false} if subexpressions parsed by the parser cannot start with the specified character.
+	 * In this case, the parser is not tried for such subexpressions unless code completions are requested
+	 * at their beginning. The default implementation returns {@code true}.
+	 */
+	default boolean canStartWith(char c) {
+		return true;
+	}
 }
@@ -8,6 +8,7 @@ import dd.kms.zenodot.api.matching.StringMatch;
 import dd.kms.zenodot.api.matching.TypeMatch;
 import dd.kms.zenodot.framework.wrappers.InfoProvider;
 
+import java.util.BitSet;
 import java.util.Objects;
 import java.util.regex.Pattern;
 
@@ -23,30 +24,174 @@ public class MatchRatings
 	/*
 	 * String Comparison
 	 */
+	/**
+	 * Case-insensitive comparisons are performed character by character, so the strings are not converted to lower case.
+	 */
 	public static StringMatch rateStringMatch(String expected, String actual) {
 		if (actual.equals(expected)) {
 			return StringMatch.FULL;
 		} else if (expected.isEmpty()) {
 			return actual.isEmpty() ? StringMatch.FULL : StringMatch.PREFIX;
+		} else if (actual.equalsIgnoreCase(expected)) {
+			return StringMatch.FULL_IGNORE_CASE;
+		} else if (actual.startsWith(expected)) {
+			return StringMatch.PREFIX;
+		} else if (WildcardPatternGenerator.generate(expected).matcher(actual).matches()) {
+			return StringMatch.WILDCARD;
+		} else if (actual.regionMatches(true, 0, expected, 0, expected.length())) {
+			return StringMatch.PREFIX_IGNORE_CASE;
+		} else if (matchesHumpsIgnoreCase(expected, actual)) {
+			return StringMatch.WILDCARD_IGNORE_CASE;
+		} else if (expected.startsWith(actual)) {
+			return StringMatch.INVERSE_PREFIX;
+		} else if (expected.regionMatches(true, 0, actual, 0, actual.length())) {
+			return StringMatch.INVERSE_PREFIX_IGNORE_CASE;
+		} else if (startsWithTypos(actual, expected, getMaxNumberOfTypos(expected.length()))) {
+			return StringMatch.FUZZY;
 		} else {
-			String actualLowerCase = actual.toLowerCase();
-			String expectedLowerCase = expected.toLowerCase();
-			if (actualLowerCase.equals(expectedLowerCase)) {
-				return StringMatch.FULL_IGNORE_CASE;
-			} else if (actual.startsWith(expected)) {
-				return StringMatch.PREFIX;
-			} else if (WildcardPatternGenerator.generate(expected).matcher(actual).matches()) {
-				return StringMatch.WILDCARD;
-			} else if (actualLowerCase.startsWith(expectedLowerCase)) {
-				return StringMatch.PREFIX_IGNORE_CASE;
-			} else if (expected.startsWith(actual)) {
-				return StringMatch.INVERSE_PREFIX;
-			} else if (expectedLowerCase.startsWith(actualLowerCase)) {
-				return StringMatch.INVERSE_PREFIX_IGNORE_CASE;
+			return StringMatch.NONE;
+		}
+	}
+
+	/**
+	 * Returns whether {@code actual} matches the wildcard string {@code expected} (see {@link RegexUtils#createRegexForWildcardString(String)})
+	 * when ignoring case and when allowing every character of {@code expected} except for the first one to match the next
+	 * capital letter of {@code actual}. A greedy scan does not suffice because matching a character directly or at the next
+	 * hump may both be necessary, depending on the remaining characters. Hence, the positions in {@code actual} that can be
+	 * reached by matching a prefix of {@code expected} are tracked. For all but very long names, they are tracked in the
+	 * bits of a {@code long} such that no memory has to be allocated per candidate.
+	 */
+	private static boolean matchesHumpsIgnoreCase(String expected, String actual) {
+		int actualLength = actual.length();
+		if (actualLength >= Long.SIZE - 1) {
+			return matchesHumpsIgnoreCaseWithBitSets(expected, actual);
+		}
+		long allPositions = (1L << (actualLength + 1)) - 1;
+		long innerPositions = allPositions >>> 1;
+		long positions = 1L;
+		for (int i = 0; i < expected.length(); i++) {
+			char c = expected.charAt(i);
+			long nextPositions = 0L;
+			if (c == '*') {
+				// all positions from the first reachable one on
+				nextPositions = allPositions & -Long.lowestOneBit(positions);
 			} else {
-				return StringMatch.NONE;
+				for (long remainingPositions = positions & innerPositions; remainingPositions != 0; remainingPositions &= remainingPositions - 1) {
+					int position = Long.numberOfTrailingZeros(remainingPositions);
+					if (equalsIgnoreCase(actual.charAt(position), c)) {
+						nextPositions |= 1L << (position + 1);
+					}
+					int humpEnd = i > 0 ? getHumpEnd(actual, position, c) : -1;
+					if (humpEnd >= 0) {
+						nextPositions |= 1L << humpEnd;
+					}
+				}
+			}
+			if (nextPositions == 0) {
+				return false;
+			}
+			positions = nextPositions;
+		}
+		// arbitrary suffixes are allowed
+		return true;
+	}
+
+	private static boolean matchesHumpsIgnoreCaseWithBitSets(String expected, String actual) {
+		int actualLength = actual.length();
+		BitSet positions = new BitSet(actualLength + 1);
+		BitSet nextPositions = new BitSet(actualLength + 1);
+		positions.set(0);
+		for (int i = 0; i < expected.length(); i++) {
+			char c = expected.charAt(i);
+			nextPositions.clear();
+			if (c == '*') {
+				nextPositions.set(positions.nextSetBit(0), actualLength + 1);
+			} else {
+				for (int position = positions.nextSetBit(0); position >= 0 && position < actualLength; position = positions.nextSetBit(position + 1)) {
+					if (equalsIgnoreCase(actual.charAt(position), c)) {
+						nextPositions.set(position + 1);
+					}
+					int humpEnd = i > 0 ? getHumpEnd(actual, position, c) : -1;
+					if (humpEnd >= 0) {
+						nextPositions.set(humpEnd);
+					}
+				}
+			}
+			if (nextPositions.isEmpty()) {
+				return false;
+			}
+			BitSet temp = positions;
+			positions = nextPositions;
+			nextPositions = temp;
+		}
+		// arbitrary suffixes are allowed
+		return true;
+	}
+
+	/**
+	 * Returns the position after the next capital letter behind {@code position} if this letter matches {@code c}
+	 * and {@code -1} otherwise. Capital letters cannot be skipped.
+	 */
+	private static int getHumpEnd(String actual, int position, char c) {
+		if (Character.isUpperCase(actual.charAt(position))) {
+			return -1;
+		}
+		int actualLength = actual.length();
+		int hump = position + 1;
+		while (hump < actualLength && !Character.isUpperCase(actual.charAt(hump))) {
+			hump++;
+		}
+		return hump < actualLength && equalsIgnoreCase(actual.charAt(hump), c) ? hump + 1 : -1;
+	}
+
+	private static boolean equalsIgnoreCase(char c1, char c2) {
+		return c1 == c2 || Character.toLowerCase(c1) == Character.toLowerCase(c2);
+	}
+
+	/**
+	 * Returns how many typos are tolerated for a {@link StringMatch#FUZZY} match of an expected string of the specified length
+	 */
+	public static int getMaxNumberOfTypos(int expectedLength) {
+		return expectedLength < 4 ? 0 : expectedLength < 8 ? 1 : 2;
+	}
+
+	/**
+	 * Returns whether a prefix of {@code s} has an edit distance of at most {@code maxTypos} to {@code prefix} when ignoring case.
+	 * Only the rows of the Levenshtein matrix are computed that may still lead to a result.
+	 */
+	private static boolean startsWithTypos(String s, String prefix, int maxTypos) {
+		if (maxTypos <= 0) {
+			return false;
+		}
+		int prefixLength = prefix.length();
+		int[] row = new int[prefixLength + 1];
+		int[] nextRow = new int[prefixLength + 1];
+		for (int j = 0; j <= prefixLength; j++) {
+			row[j] = j;
+		}
+		if (row[prefixLength] <= maxTypos) {
+			return true;
+		}
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			nextRow[0] = row[0] + 1;
+			int minimum = nextRow[0];
+			for (int j = 1; j <= prefixLength; j++) {
+				int substitutionCost = equalsIgnoreCase(prefix.charAt(j - 1), c) ? 0 : 1;
+				nextRow[j] = Math.min(Math.min(row[j] + 1, nextRow[j - 1] + 1), row[j - 1] + substitutionCost);
+				minimum = Math.min(minimum, nextRow[j]);
+			}
+			if (nextRow[prefixLength] <= maxTypos) {
+				return true;
+			}
+			if (minimum > maxTypos) {
+				return false;
 			}
+			int[] temp = row;
+			row = nextRow;
+			nextRow = temp;
 		}
+		return false;
 	}
 
 	/*
@@ -21,14 +21,24 @@ public class CodeCompletions
 
 	private final List<CodeCompletion>				completions;
 	private final @Nullable ExecutableArgumentInfo	executableArgumentInfo;
+	private final boolean							partial;
 
 	public CodeCompletions(List<CodeCompletion> completions) {
 		this(completions, null);
 	}
 
 	public CodeCompletions(List<CodeCompletion> completions, ExecutableArgumentInfo executableArgumentInfo) {
+		this(completions, executableArgumentInfo, false);
+	}
+
+	/**
+	 * Set {@code partial} to {@code true} if some completions might be missing because the required
+	 * information is not available yet (e.g., because the class index is still being built).
+	 */
+	public CodeCompletions(List<CodeCompletion> completions, @Nullable ExecutableArgumentInfo executableArgumentInfo, boolean partial) {
 		this.completions = completions.stream().distinct().collect(ImmutableList.toImmutableList());
 		this.executableArgumentInfo = executableArgumentInfo;
+		this.partial = partial;
 	}
 
 	public List<CodeCompletion> getCompletions() {
@@ -38,4 +48,8 @@ public class CodeCompletions
 	public Optional<ExecutableArgumentInfo> getExecutableArgumentInfo() {
 		return Optional.ofNullable(executableArgumentInfo);
 	}
+
+	public boolean isPartial() {
+		return partial;
+	}
 }
@@ -0,0 +1,67 @@
+package dd.kms.zenodot.framework.tokenizer;
+
+/**
+ * Remembers which tokens have already been scanned in an expression. Parsers backtrack by resetting the
+ * position of the {@link TokenStream}, and the alternative parsers of an operand try to read the same tokens
+ * (e.g., an identifier at the beginning of the operand) again. With this cache, each token type is scanned
+ * at most once per position and the text of a token is only extracted once.<br>
+ * <br>
+ * The tables of a token type are created when the first token of this type is read.
+ */
+class TokenCache
+{
+	private static final int	NOT_SCANNED	= 0;
+	private static final int	NO_TOKEN	= -1;
+
+	private final String		expression;
+
+	/**
+	 * For each token type and position: {@link #NOT_SCANNED}, {@link #NO_TOKEN}, or the end position of
+	 * the token + 1
+	 */
+	private final int[][]		tokenEndsByType;
+	private final String[][]	tokenTextsByType;
+
+	TokenCache(String expression) {
+		this.expression = expression;
+		int numTypes = TokenType.values().length;
+		this.tokenEndsByType = new int[numTypes][];
+		this.tokenTextsByType = new String[numTypes][];
+	}
+
+	String getExpression() {
+		return expression;
+	}
+
+	/**
+	 * Returns the end position of the token of the specified type that starts at the specified position
+	 * or -1 if there is no such token
+	 */
+	int getTokenEnd(TokenType type, int position) {
+		int[] tokenEnds = tokenEndsByType[type.ordinal()];
+		if (tokenEnds == null) {
+			tokenEnds = tokenEndsByType[type.ordinal()] = new int[expression.length() + 1];
+		}
+		int entry = tokenEnds[position];
+		if (entry == NOT_SCANNED) {
+			int tokenEnd = type.scan(expression, position);
+			entry = tokenEnds[position] = tokenEnd < 0 ? NO_TOKEN : tokenEnd + 1;
+		}
+		return entry == NO_TOKEN ? -1 : entry - 1;
+	}
+
+	/**
+	 * Returns the text of a token of the specified type that has been found by {@link #getTokenEnd(TokenType, int)}
+	 */
+	String getTokenText(TokenType type, int position, int tokenEnd) {
+		String[] tokenTexts = tokenTextsByType[type.ordinal()];
+		if (tokenTexts == null) {
+			tokenTexts = tokenTextsByType[type.ordinal()] = new String[expression.length() + 1];
+		}
+		String text = tokenTexts[position];
+		if (text == null) {
+			text = tokenTexts[position] = expression.substring(position, tokenEnd);
+		}
+		return text;
+	}
+}
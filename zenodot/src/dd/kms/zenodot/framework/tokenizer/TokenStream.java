@@ -4,7 +4,6 @@ import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import dd.kms.zenodot.api.common.RegexUtils;
 import dd.kms.zenodot.api.result.CodeCompletion;
 import dd.kms.zenodot.framework.flowcontrol.CodeCompletionException;
 import dd.kms.zenodot.framework.flowcontrol.InternalErrorException;
@@ -16,8 +15,6 @@ import dd.kms.zenodot.framework.result.CodeCompletions;
 import javax.annotation.Nullable;
 import java.util.*;
 import java.util.function.Function;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
@@ -25,7 +22,10 @@ import java.util.stream.Collectors;
  * is not responsible for determining how the expression has to be split into tokens. It is the parsers'
  * responsibility to query the next token with the correct type. If a parser expects a token type
  * that is not available, then the parser is not the right one for parsing the current subexpression
- * and the parsing framework will try another parser.
+ * and the parsing framework will try another parser.<br>
+ * <br>
+ * Since parsers backtrack by resetting the position, the same tokens are queried several times. Scanned
+ * tokens are therefore cached in a {@code TokenCache}.
  */
 public class TokenStream
 {
@@ -33,19 +33,6 @@ public class TokenStream
 
 	public static final CompletionGenerator NO_COMPLETIONS					= info -> CodeCompletions.NONE;
 
-	private static final Pattern 			WHITESPACE_PATTERN				= Pattern.compile("^(\\s*).*");
-	private static final Pattern 			REMAINING_WHITESPACE_PATTERN	= Pattern.compile("^(\\s*)$");
-	private static final Pattern			CHARACTERS_PATTERN				= Pattern.compile("^\\s*([^\\s]*).*");
-	private static final Pattern			IDENTIFIER_PATTERN  			= Pattern.compile("^(([_\\$A-Za-z][_\\$A-Za-z0-9]*)\\s*).*");
-	private static final Pattern			CHARACTER_LITERAL_PATTERN		= Pattern.compile("^('(\\\\.|[^\\\\])'\\s*).*");
-	private static final Pattern			KEYWORD_PATTERN					= IDENTIFIER_PATTERN;
-	private static final Pattern			INTEGER_LITERAL_PATTERN			= Pattern.compile("^((0|[1-9][0-9]*)\\s*)($|[^0-9dDeEfFL\\.].*)");
-	private static final Pattern			LONG_LITERAL_PATTERN			= Pattern.compile("^((0|[1-9][0-9]*)[lL]\\s*).*");
-	private static final Pattern			FLOAT_LITERAL_PATTERN 			= Pattern.compile("^((([0-9]+([eE][+-]?[0-9]+)?|\\.[0-9]+([eE][+-]?[0-9]+)?|[0-9]+\\.[0-9]*([eE][+-]?[0-9]+)?)[fF])\\s*).*");
-	private static final Pattern			DOUBLE_LITERAL_PATTERN 			= Pattern.compile("^((([0-9]+(([eE][+-]?[0-9]+)?[dD]|[eE][+-]?[0-9]+[dD]?)|\\.[0-9]+([eE][+-]?[0-9]+)?[dD]?|[0-9]+\\.[0-9]*([eE][+-]?[0-9]+)?[dD]?))\\s*).*");
-	private static final Pattern			PACKAGE_NAME_PATTERN			= Pattern.compile("^((\\d*[A-Za-z][_A-Za-z0-9]*)\\s*).*");	// although uncommon, there exist packages starting with an upper-case letter
-	private static final Pattern			CLASS_NAME_PATTERN				= PACKAGE_NAME_PATTERN;										// although uncommon, there exist class names starting with a lower-case letter
-
 	// Unary prefix operators, sorted from longest to shortest to ensure that, e.g., "++" is tested before "+"
 	private static final List<String> 		UNARY_OPERATORS 				= getOperators(UnaryOperator.values(), UnaryOperator::getOperator);
 
@@ -63,11 +50,6 @@ public class TokenStream
 		.put('\\', '\\')
 		.build();
 
-	/**
-	 * Cache for {@link #getOrCreateSingleCharacterPattern(char...)}
-	 */
-	private static final Map<String, Pattern>	CHARACTERS_TO_PATTERN	= new HashMap<>();
-
 	/**
 	 * In the modes {@link dd.kms.zenodot.api.settings.CompletionMode#COMPLETE_AND_REPLACE_WHOLE_WORDS}
 	 * and {@link dd.kms.zenodot.api.settings.CompletionMode#COMPLETE_UNTIL_CARET_REPLACE_WHOLE_WORDS} also
@@ -96,32 +78,6 @@ public class TokenStream
 		')', ' ', ','
 	);
 
-	private static Pattern getOrCreateSingleCharacterPattern(char... allowedCharacters) {
-		String s = String.valueOf(allowedCharacters);
-		Pattern cachedPattern = CHARACTERS_TO_PATTERN.get(s);
-		if (cachedPattern != null) {
-			return cachedPattern;
-		}
-		StringBuilder regexBuilder = new StringBuilder("(([");
-		boolean allowEmptyCharacter = false;
-		for (char c : allowedCharacters) {
-			if (c == EMPTY_CHARACTER) {
-				allowEmptyCharacter = true;
-			} else {
-				String escapedCharacter = RegexUtils.escapeIfSpecial(c);
-				regexBuilder.append(escapedCharacter);
-			}
-		}
-		regexBuilder.append("]");
-		if (allowEmptyCharacter) {
-			regexBuilder.append("?");
-		}
-		regexBuilder.append(")).*");
-		Pattern pattern = Pattern.compile(regexBuilder.toString());
-		CHARACTERS_TO_PATTERN.put(s, pattern);
-		return pattern;
-	}
-
 	/**
 	 * returns a {@link List} of operators, sorted according to their length (descending)
 	 */
@@ -132,6 +88,20 @@ public class TokenStream
 			.collect(Collectors.toList());
 	}
 
+	private static int skipWhitespaces(String s, int pos) {
+		while (pos < s.length() && isWhitespace(s.charAt(pos))) {
+			pos++;
+		}
+		return pos;
+	}
+
+	/**
+	 * Same characters as the regex character class {@code \s}
+	 */
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
+
 	private String unescapeCharacters(String s) throws SyntaxException {
 		StringBuffer unescapedString = new StringBuffer();
 		int pos = 0;
@@ -156,31 +126,47 @@ public class TokenStream
 		return unescapedString.toString();
 	}
 
-	private final String	expression;
-	private final int		caretPosition;
+	private final String		expression;
+	private final TokenCache	tokenCache;
+	private final int			caretPosition;
 
-	private int				position;
+	private int					position;
 
 	public TokenStream(String expression, int caretPosition) {
 		this.expression = expression;
+		this.tokenCache = new TokenCache(expression);
 		this.caretPosition = caretPosition < 0 ? Integer.MAX_VALUE : caretPosition;
 		this.position = 0;
 	}
 
+	/**
+	 * Returns {@code true} if identifiers and keywords can start with the specified character
+	 */
+	public static boolean isIdentifierStart(char c) {
+		return TokenType.isIdentifierStart(c);
+	}
+
+	/**
+	 * Returns {@code true} if package and class names can start with the specified character
+	 */
+	public static boolean isPackageOrClassNameStart(char c) {
+		return TokenType.isLetter(c) || TokenType.isDigit(c);
+	}
+
 	public String readIdentifier(CompletionGenerator completionGenerator, String errorMessage) throws SyntaxException, CodeCompletionException {
-		return readRegex(IDENTIFIER_PATTERN, 2, completionGenerator, errorMessage, true);
+		return readToken(TokenType.IDENTIFIER, completionGenerator, errorMessage);
 	}
 
 	public String readKeyword(CompletionGenerator completionGenerator, String errorMessage) throws SyntaxException, CodeCompletionException {
-		return readRegex(KEYWORD_PATTERN, 2, completionGenerator, errorMessage, true);
+		return readToken(TokenType.IDENTIFIER, completionGenerator, errorMessage);
 	}
 
 	public String readPackage(CompletionGenerator completionGenerator) throws SyntaxException, CodeCompletionException {
-		return readRegex(PACKAGE_NAME_PATTERN, 2, completionGenerator, "Expected a package name", true);
+		return readToken(TokenType.PACKAGE_OR_CLASS_NAME, completionGenerator, "Expected a package name");
 	}
 
 	public String readClass(CompletionGenerator completionGenerator) throws SyntaxException, CodeCompletionException {
-		return readRegex(CLASS_NAME_PATTERN, 2, completionGenerator, "Expected a class name", true);
+		return readToken(TokenType.PACKAGE_OR_CLASS_NAME, completionGenerator, "Expected a class name");
 	}
 
 	public String readStringLiteral(CompletionGenerator completionGenerator) throws SyntaxException, CodeCompletionException, InternalErrorException {
@@ -261,9 +247,9 @@ public class TokenStream
 		if (peekCharacter() != '\'') {
 			throw new SyntaxException(errorMessage);
 		}
-		String escapedCharacterLiteral;
+		String quotedCharacterLiteral;
 		try {
-			escapedCharacterLiteral = readRegex(CHARACTER_LITERAL_PATTERN, 2, NO_COMPLETIONS, errorMessage, true);
+			quotedCharacterLiteral = readToken(TokenType.CHARACTER_LITERAL, NO_COMPLETIONS, errorMessage);
 		} catch (SyntaxException e) {
 			if (position <= caretPosition && caretPosition <= expression.length()) {
 				// missing closing single quotes, but code completion requested
@@ -271,7 +257,7 @@ public class TokenStream
 			}
 			throw e;
 		}
-		String characterLiteral = unescapeCharacters(escapedCharacterLiteral);
+		String characterLiteral = unescapeCharacters(quotedCharacterLiteral.substring(1, quotedCharacterLiteral.length() - 1));
 		int length = characterLiteral.length();
 		if (length == 0) {
 			throw new InternalErrorException(toString() + ": The literal '" + characterLiteral + "' is empty");
@@ -282,7 +268,7 @@ public class TokenStream
 	}
 
 	public int readIntegerLiteral() throws SyntaxException, CodeCompletionException {
-		String integerLiteral = readRegex(INTEGER_LITERAL_PATTERN, 2, NO_COMPLETIONS, "Expected an integer literal", true);
+		String integerLiteral = readToken(TokenType.INTEGER_LITERAL, NO_COMPLETIONS, "Expected an integer literal");
 		try {
 			return Integer.parseInt(integerLiteral);
 		} catch (NumberFormatException e) {
@@ -291,7 +277,8 @@ public class TokenStream
 	}
 
 	public long readLongLiteral() throws SyntaxException, CodeCompletionException {
-		String longLiteral = readRegex(LONG_LITERAL_PATTERN, 2, NO_COMPLETIONS, "Expected a long literal", true);
+		String longLiteralWithSuffix = readToken(TokenType.LONG_LITERAL, NO_COMPLETIONS, "Expected a long literal");
+		String longLiteral = longLiteralWithSuffix.substring(0, longLiteralWithSuffix.length() - 1);
 		try {
 			return Long.parseLong(longLiteral);
 		} catch (NumberFormatException e) {
@@ -300,7 +287,7 @@ public class TokenStream
 	}
 
 	public float readFloatLiteral() throws SyntaxException, CodeCompletionException {
-		String floatLiteral = readRegex(FLOAT_LITERAL_PATTERN, 2, NO_COMPLETIONS, "Expected a float literal", true);
+		String floatLiteral = readToken(TokenType.FLOAT_LITERAL, NO_COMPLETIONS, "Expected a float literal");
 		try {
 			return Float.parseFloat(floatLiteral);
 		} catch (NumberFormatException e) {
@@ -309,7 +296,7 @@ public class TokenStream
 	}
 
 	public double readDoubleLiteral() throws SyntaxException, CodeCompletionException {
-		String doubleLiteral = readRegex(DOUBLE_LITERAL_PATTERN, 2, NO_COMPLETIONS, "Expected a double literal", true);
+		String doubleLiteral = readToken(TokenType.DOUBLE_LITERAL, NO_COMPLETIONS, "Expected a double literal");
 		try {
 			return Double.parseDouble(doubleLiteral);
 		} catch (NumberFormatException e) {
@@ -317,28 +304,39 @@ public class TokenStream
 		}
 	}
 
+	/**
+	 * Reads one of the expected characters. If {@link #EMPTY_CHARACTER} is one of the expected characters,
+	 * then it is returned without consuming anything if none of the other characters follows.
+	 */
 	public char readCharacter(char... expectedCharacters) throws SyntaxException, CodeCompletionException, InternalErrorException {
-		Pattern pattern = getOrCreateSingleCharacterPattern(expectedCharacters);
-		String s = readRegex(pattern, 2, NO_COMPLETIONS, "Expected " + joinCharacters(expectedCharacters), false);
-		if (s.length() > 1) {
-			throw new InternalErrorException(toString() + ": Obtained " + s.length() + " characters when parsing only 1: " + s);
-		}
-		char c = s.isEmpty() ? EMPTY_CHARACTER : s.charAt(0);
-		for (char expectedCharacter : expectedCharacters) {
-			if (c == expectedCharacter) {
-				return c;
-			}
+		int startPos = skipLeadingWhitespaces(NO_COMPLETIONS);
+		int textStartPos = position;
+		char c = textStartPos < expression.length() ? expression.charAt(textStartPos) : EMPTY_CHARACTER;
+		int textEndPos = -1;
+		if (c != EMPTY_CHARACTER && containsCharacter(expectedCharacters, c)) {
+			textEndPos = textStartPos + 1;
+		} else if (containsCharacter(expectedCharacters, EMPTY_CHARACTER)) {
+			c = EMPTY_CHARACTER;
+			textEndPos = textStartPos;
+		} else {
+			throwNoTokenException(startPos, textStartPos, NO_COMPLETIONS, "Expected " + joinCharacters(expectedCharacters));
 		}
-		throw new InternalErrorException(toString() +  ": Expected " + joinCharacters(expectedCharacters) + ", but found character " + c);
+		completeOrSkipToken(startPos, textStartPos, textEndPos, textEndPos, false, NO_COMPLETIONS);
+		return c;
 	}
 
 	public char peekCharacter() {
-		Matcher matcher = match(CHARACTERS_PATTERN);
-		if (!matcher.matches()) {
-			throw new IllegalStateException("Internal Error: Characters pattern did not match");
-		}
-		String characters = matcher.group(1);
-		return characters.isEmpty() ? EMPTY_CHARACTER : characters.charAt(0);
+		int pos = skipWhitespaces(expression, position);
+		return pos < expression.length() ? expression.charAt(pos) : EMPTY_CHARACTER;
+	}
+
+	/**
+	 * Returns {@code true} if code completions are requested at or before the next character that
+	 * is not a white space. In this case, all tokens can be completed, no matter with which character
+	 * they start.
+	 */
+	public boolean isCaretAtOrBeforeNextCharacter() {
+		return caretPosition <= skipWhitespaces(expression, position);
 	}
 
 	/**
@@ -358,13 +356,26 @@ public class TokenStream
 	}
 
 	public String readUntilCharacter(CompletionGenerator completionGenerator, char... terminalCharacters) throws SyntaxException, CodeCompletionException {
-		StringBuilder regex = new StringBuilder("^([^");
-		for (char terminalCharacter : terminalCharacters) {
-			regex.append(RegexUtils.escapeIfSpecial(terminalCharacter));
+		int startPos = skipLeadingWhitespaces(completionGenerator);
+		int textStartPos = position;
+		int textEndPos = textStartPos;
+		while (textEndPos < expression.length() && !containsCharacter(terminalCharacters, expression.charAt(textEndPos))) {
+			textEndPos++;
+		}
+		if (textEndPos == textStartPos) {
+			throwNoTokenException(startPos, textStartPos, completionGenerator, "Failed parsing until " + joinCharacters(terminalCharacters));
+		}
+		completeOrSkipToken(startPos, textStartPos, textEndPos, textEndPos, true, completionGenerator);
+		return expression.substring(textStartPos, textEndPos);
+	}
+
+	private static boolean containsCharacter(char[] characters, char c) {
+		for (char character : characters) {
+			if (character == c) {
+				return true;
+			}
 		}
-		regex.append("]+).*");
-		Pattern pattern = Pattern.compile(regex.toString());
-		return readRegex(pattern, 1, completionGenerator, "Failed parsing until " + joinCharacters(terminalCharacters), true);
+		return false;
 	}
 
 	public String readUntilStrings(CompletionGenerator completionGenerator, String... terminalStrings) throws SyntaxException, CodeCompletionException {
@@ -452,16 +463,42 @@ public class TokenStream
 	}
 
 	public String readRemainingWhitespaces(CompletionGenerator completionGenerator, String errorMessage) throws SyntaxException, CodeCompletionException {
-		return readRegex(REMAINING_WHITESPACE_PATTERN, 1, completionGenerator, errorMessage, true);
+		return readToken(TokenType.END_OF_EXPRESSION, completionGenerator, errorMessage);
+	}
+
+	private String readToken(TokenType tokenType, CompletionGenerator completionGenerator, String errorMessage) throws SyntaxException, CodeCompletionException {
+		int startPos = skipLeadingWhitespaces(completionGenerator);
+		int textStartPos = position;
+		int textEndPos = tokenCache.getTokenEnd(tokenType, textStartPos);
+		if (textEndPos < 0) {
+			throwNoTokenException(startPos, textStartPos, completionGenerator, errorMessage);
+		}
+		int endPos = tokenType == TokenType.INTEGER_LITERAL ? skipIntegerLiteralTrailingWhitespaces(textEndPos) : skipWhitespaces(expression, textEndPos);
+		completeOrSkipToken(startPos, textStartPos, textEndPos, endPos, true, completionGenerator);
+		return tokenCache.getTokenText(tokenType, textStartPos, textEndPos);
+	}
+
+	/**
+	 * An integer literal only includes its trailing white spaces if they are not followed by a character that
+	 * cannot follow an integer literal. Otherwise, it includes all but the last trailing white space.
+	 */
+	private int skipIntegerLiteralTrailingWhitespaces(int textEndPos) {
+		int endPos = skipWhitespaces(expression, textEndPos);
+		if (endPos > textEndPos && endPos < expression.length() && !TokenType.canFollowIntegerLiteral(expression.charAt(endPos))) {
+			return endPos - 1;
+		}
+		return endPos;
 	}
 
-	private String readRegex(Pattern pattern, int groupIndexToExtract, CompletionGenerator completionGenerator, String errorMessage, boolean supportCompletionsInTrailingWhitespaces) throws SyntaxException, CodeCompletionException {
+	/**
+	 * Skips white spaces before the next token and returns the position before these white spaces.
+	 */
+	private int skipLeadingWhitespaces(CompletionGenerator completionGenerator) throws SyntaxException, CodeCompletionException {
 		if (caretPosition < position) {
 			throw new IllegalStateException("Internal error: Reading tokens after caret position");
 		}
 		int startPos = position;
 		skipSpaces();
-		int textStartPos = position;
 
 		if (caretPosition < position) {
 			// Completion within leading white spaces
@@ -469,24 +506,25 @@ public class TokenStream
 			CodeCompletions completions = completionGenerator.generate(completionSuggestionInfo);
 			throw new CodeCompletionException(completions);
 		}
+		return startPos;
+	}
 
-		Matcher matcher = match(pattern);
-		if (!matcher.matches()) {
-			if (caretPosition == textStartPos) {
-				// Completion at beginning of non-white spaces
-				CompletionInfo completionSuggestionInfo = new CompletionInfoImpl(startPos, textStartPos, textStartPos, textStartPos);
-				CodeCompletions completions = completionGenerator.generate(completionSuggestionInfo);
-				throw new CodeCompletionException(completions);
-			}
-			// No completion requested, no match
-			throw new SyntaxException(errorMessage);
+	private void throwNoTokenException(int startPos, int textStartPos, CompletionGenerator completionGenerator, String errorMessage) throws SyntaxException, CodeCompletionException {
+		if (caretPosition == textStartPos) {
+			// Completion at beginning of non-white spaces
+			CompletionInfo completionSuggestionInfo = new CompletionInfoImpl(startPos, textStartPos, textStartPos, textStartPos);
+			CodeCompletions completions = completionGenerator.generate(completionSuggestionInfo);
+			throw new CodeCompletionException(completions);
 		}
+		// No completion requested, no match
+		throw new SyntaxException(errorMessage);
+	}
 
-		String wholeToken = matcher.group(1);
-		int endPos = textStartPos + wholeToken.length();
-		String extractedString = matcher.group(groupIndexToExtract);
-		int textEndPos = textStartPos + extractedString.length();
-
+	/**
+	 * Requests code completions if the caret is inside the token text or, if supported, in its trailing white spaces.
+	 * Otherwise, moves the stream behind the token.
+	 */
+	private void completeOrSkipToken(int startPos, int textStartPos, int textEndPos, int endPos, boolean supportCompletionsInTrailingWhitespaces, CompletionGenerator completionGenerator) throws SyntaxException, CodeCompletionException {
 		if (caretPosition <= endPos) {
 			// Code completion
 			if (caretPosition < textEndPos || supportCompletionsInTrailingWhitespaces) {
@@ -502,7 +540,6 @@ public class TokenStream
 			position = endPos;
 			assert caretPosition > position;
 		}
-		return extractedString;
 	}
 
 	@Nullable
@@ -574,12 +611,7 @@ public class TokenStream
 	}
 
 	private void skipSpaces() {
-		Matcher matcher = match(WHITESPACE_PATTERN);
-		if (!matcher.matches()) {
-			throw new IllegalStateException("Internal Error: Optional space pattern did not match");
-		}
-		String leadingSpaces = matcher.group(1);
-		position += leadingSpaces.length();
+		position = skipWhitespaces(expression, position);
 	}
 
 	private String joinCharacters(char[] characters) {
@@ -596,14 +628,18 @@ public class TokenStream
 		return builder.toString();
 	}
 
-	private Matcher match(Pattern pattern) {
-		return pattern.matcher(expression.substring(position));
-	}
-
 	public String getExpression() {
 		return expression;
 	}
 
+	/**
+	 * Returns {@code true} if the stream has been created for code completion and {@code false} if it has
+	 * been created for evaluation.
+	 */
+	public boolean isCodeCompletionRequested() {
+		return caretPosition != Integer.MAX_VALUE;
+	}
+
 	public int getPosition() {
 		return position;
 	}
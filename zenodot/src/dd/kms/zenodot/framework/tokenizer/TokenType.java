@@ -0,0 +1,206 @@
+package dd.kms.zenodot.framework.tokenizer;
+
+/**
+ * Types of tokens whose extent can be determined without knowing the context. Each type has a scanner that
+ * checks whether a token of that type starts at a certain position of the expression and returns the end
+ * position of the token or -1 if there is no such token.<br>
+ * <br>
+ * Tokens are not determined by splitting the expression in advance. It is the parsers' responsibility to
+ * query the tokens with the correct type (see {@link TokenStream}).
+ */
+enum TokenType
+{
+	IDENTIFIER					(TokenType::scanIdentifier),
+	PACKAGE_OR_CLASS_NAME		(TokenType::scanPackageOrClassName),
+	CHARACTER_LITERAL			(TokenType::scanCharacterLiteral),
+	INTEGER_LITERAL				(TokenType::scanIntegerLiteral),
+	LONG_LITERAL				(TokenType::scanLongLiteral),
+	FLOAT_LITERAL				(TokenType::scanFloatLiteral),
+	DOUBLE_LITERAL				(TokenType::scanDoubleLiteral),
+	END_OF_EXPRESSION			(TokenType::scanEndOfExpression);
+
+	private final TokenScanner	scanner;
+
+	TokenType(TokenScanner scanner) {
+		this.scanner = scanner;
+	}
+
+	int scan(String expression, int position) {
+		return scanner.scan(expression, position);
+	}
+
+	/**
+	 * Scans {@code [_$A-Za-z][_$A-Za-z0-9]*}
+	 */
+	private static int scanIdentifier(String s, int pos) {
+		if (pos == s.length() || !isIdentifierStart(s.charAt(pos))) {
+			return -1;
+		}
+		pos++;
+		while (pos < s.length() && (isIdentifierStart(s.charAt(pos)) || isDigit(s.charAt(pos)))) {
+			pos++;
+		}
+		return pos;
+	}
+
+	/**
+	 * Scans {@code [0-9]*[A-Za-z][_A-Za-z0-9]*}. Although uncommon, there exist packages starting with an
+	 * upper-case letter and class names starting with a lower-case letter.
+	 */
+	private static int scanPackageOrClassName(String s, int pos) {
+		pos = skipDigits(s, pos);
+		if (pos == s.length() || !isLetter(s.charAt(pos))) {
+			return -1;
+		}
+		pos++;
+		while (pos < s.length() && (isLetter(s.charAt(pos)) || isDigit(s.charAt(pos)) || s.charAt(pos) == '_')) {
+			pos++;
+		}
+		return pos;
+	}
+
+	/**
+	 * Scans a character literal including the single quotes. The character may be escaped, but a line
+	 * terminator cannot.
+	 */
+	private static int scanCharacterLiteral(String s, int pos) {
+		if (pos == s.length() || s.charAt(pos) != '\'') {
+			return -1;
+		}
+		pos++;
+		if (pos < s.length() && s.charAt(pos) == '\\') {
+			pos++;
+			if (pos < s.length() && isLineTerminator(s.charAt(pos))) {
+				return -1;
+			}
+		}
+		pos++;
+		return pos < s.length() && s.charAt(pos) == '\'' ? pos + 1 : -1;
+	}
+
+	/**
+	 * Scans {@code 0|[1-9][0-9]*} if it is not the beginning of a {@code long}, {@code float}, or
+	 * {@code double} literal
+	 */
+	private static int scanIntegerLiteral(String s, int pos) {
+		int end = scanDecimalIntegerLiteral(s, pos);
+		if (end < 0 || end == s.length()) {
+			return end;
+		}
+		return canFollowIntegerLiteral(s.charAt(end)) ? end : -1;
+	}
+
+	/**
+	 * Returns {@code false} if the character continues an integer literal to a {@code long}, {@code float},
+	 * or {@code double} literal. This also applies to the first character after the white spaces following
+	 * an integer literal.
+	 */
+	static boolean canFollowIntegerLiteral(char c) {
+		return !isDigit(c) && c != '.' && "dDeEfFL".indexOf(c) < 0;
+	}
+
+	/**
+	 * Scans {@code (0|[1-9][0-9]*)[lL]}
+	 */
+	private static int scanLongLiteral(String s, int pos) {
+		int end = scanDecimalIntegerLiteral(s, pos);
+		return end >= 0 && end < s.length() && (s.charAt(end) == 'l' || s.charAt(end) == 'L') ? end + 1 : -1;
+	}
+
+	/**
+	 * Scans a floating point literal with suffix {@code f} or {@code F}
+	 */
+	private static int scanFloatLiteral(String s, int pos) {
+		int end = scanFloatingPointLiteralWithoutSuffix(s, pos);
+		return end >= 0 && end < s.length() && (s.charAt(end) == 'f' || s.charAt(end) == 'F') ? end + 1 : -1;
+	}
+
+	/**
+	 * Scans a floating point literal with optional suffix {@code d} or {@code D}. Without decimal point
+	 * and without exponent, the suffix is mandatory.
+	 */
+	private static int scanDoubleLiteral(String s, int pos) {
+		int end = scanFloatingPointLiteralWithoutSuffix(s, pos);
+		if (end < 0) {
+			return -1;
+		}
+		boolean hasSuffix = end < s.length() && (s.charAt(end) == 'd' || s.charAt(end) == 'D');
+		if (hasSuffix) {
+			return end + 1;
+		}
+		boolean isInteger = skipDigits(s, pos) == end;
+		return isInteger ? -1 : end;
+	}
+
+	private static int scanDecimalIntegerLiteral(String s, int pos) {
+		if (pos == s.length() || !isDigit(s.charAt(pos))) {
+			return -1;
+		}
+		return s.charAt(pos) == '0' ? pos + 1 : skipDigits(s, pos);
+	}
+
+	/**
+	 * Scans {@code ([0-9]+|[0-9]+\.[0-9]*|\.[0-9]+)([eE][+-]?[0-9]+)?}
+	 */
+	private static int scanFloatingPointLiteralWithoutSuffix(String s, int pos) {
+		int integerPartEnd = skipDigits(s, pos);
+		int end = integerPartEnd;
+		if (end < s.length() && s.charAt(end) == '.') {
+			end = skipDigits(s, end + 1);
+			if (integerPartEnd == pos && end == pos + 1) {
+				// neither integer nor fractional digits
+				return -1;
+			}
+		} else if (integerPartEnd == pos) {
+			return -1;
+		}
+		int exponentPos = end;
+		if (exponentPos < s.length() && (s.charAt(exponentPos) == 'e' || s.charAt(exponentPos) == 'E')) {
+			exponentPos++;
+			if (exponentPos < s.length() && (s.charAt(exponentPos) == '+' || s.charAt(exponentPos) == '-')) {
+				exponentPos++;
+			}
+			int exponentEnd = skipDigits(s, exponentPos);
+			if (exponentEnd > exponentPos) {
+				end = exponentEnd;
+			}
+		}
+		return end;
+	}
+
+	private static int scanEndOfExpression(String s, int pos) {
+		return pos == s.length() ? pos : -1;
+	}
+
+	private static int skipDigits(String s, int pos) {
+		while (pos < s.length() && isDigit(s.charAt(pos))) {
+			pos++;
+		}
+		return pos;
+	}
+
+	static boolean isIdentifierStart(char c) {
+		return isLetter(c) || c == '_' || c == '$';
+	}
+
+	static boolean isLetter(char c) {
+		return 'a' <= c && c <= 'z' || 'A' <= c && c <= 'Z';
+	}
+
+	static boolean isDigit(char c) {
+		return '0' <= c && c <= '9';
+	}
+
+	/**
+	 * Same characters as the line terminators not matched by the regex {@code .}
+	 */
+	private static boolean isLineTerminator(char c) {
+		return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+	}
+
+	@FunctionalInterface
+	private interface TokenScanner
+	{
+		int scan(String expression, int position);
+	}
+}
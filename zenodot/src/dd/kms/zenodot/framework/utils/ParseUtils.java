@@ -67,8 +67,8 @@ public class ParseUtils
 	 */
 	public static ClassParseResult parseClass(TokenStream tokenStream, ParserToolbox parserToolbox) throws SyntaxException, InternalErrorException, CodeCompletionException, EvaluationException {
 		List<AbstractParser<ObjectInfo, ClassParseResult, ClassParseResultExpectation>> parsers = Arrays.asList(
-			parserToolbox.createParser(dd.kms.zenodot.impl.parsers.UnqualifiedClassParser.class),
-			parserToolbox.createParser(dd.kms.zenodot.impl.parsers.RootpackageParser.class)
+			parserToolbox.createParser(dd.kms.zenodot.impl.parsers.UnqualifiedClassParser::new),
+			parserToolbox.createParser(dd.kms.zenodot.impl.parsers.RootpackageParser::new)
 		);
 		// possible ambiguities: imported class name identical to class name in default package => imported class wins
 		return parse(tokenStream, null, new ClassParseResultExpectation(), parsers);
@@ -155,13 +155,13 @@ public class ParseUtils
 		if (parseResult instanceof ObjectParseResult) {
 			ObjectParseResult objectParseResult = (ObjectParseResult) parseResult;
 			ObjectInfo objectInfo = objectParseResult.getObjectInfo();
-			AbstractParser<ObjectInfo, ObjectParseResult, ObjectParseResultExpectation> objectTailParser = parserToolbox.createParser(dd.kms.zenodot.impl.parsers.ObjectTailParser.class);
+			AbstractParser<ObjectInfo, ObjectParseResult, ObjectParseResultExpectation> objectTailParser = parserToolbox.createParser(dd.kms.zenodot.impl.parsers.ObjectTailParser::new);
 			ObjectParseResult tailParseResult = objectTailParser.parse(tokenStream, objectInfo, expectation);
 			return new ParseResultWithTail(objectParseResult, tailParseResult, tokenStream);
 		} else if (parseResult instanceof ClassParseResult) {
 			ClassParseResult classParseResult = (ClassParseResult) parseResult;
 			Class<?> type = classParseResult.getType();
-			AbstractParser<Class<?>, ObjectParseResult, ObjectParseResultExpectation> classTailParser = parserToolbox.createParser(dd.kms.zenodot.impl.parsers.ClassTailParser.class);
+			AbstractParser<Class<?>, ObjectParseResult, ObjectParseResultExpectation> classTailParser = parserToolbox.createParser(dd.kms.zenodot.impl.parsers.ClassTailParser::new);
 			return classTailParser.parse(tokenStream, type, expectation);
 		} else {
 			throw new InternalErrorException("Can only parse tails of objects and classes, but requested for " + parseResult.getClass().getSimpleName());
@@ -268,14 +268,16 @@ public class ParseUtils
 			}
 			Collection<CodeCompletion> completions = new LinkedHashSet<>();
 			Optional<ExecutableArgumentInfo> methodArgumentInfo	= Optional.empty();
+			boolean partial = false;
 			for (CodeCompletionException codeCompletionException : completionExceptions) {
 				CodeCompletions codeCompletions = codeCompletionException.getCompletions();
 				if (!methodArgumentInfo.isPresent()) {
 					methodArgumentInfo = codeCompletions.getExecutableArgumentInfo();
 				}
 				completions.addAll(codeCompletions.getCompletions());
+				partial |= codeCompletions.isPartial();
 			}
-			CodeCompletions codeCompletions = new CodeCompletions(ImmutableList.copyOf(completions), methodArgumentInfo.orElse(null));
+			CodeCompletions codeCompletions = new CodeCompletions(ImmutableList.copyOf(completions), methodArgumentInfo.orElse(null), partial);
 			return new CodeCompletionException(codeCompletions);
 		}
 
@@ -10,15 +10,12 @@ import dd.kms.zenodot.api.settings.EvaluationMode;
 import dd.kms.zenodot.api.settings.ParserSettings;
 import dd.kms.zenodot.api.settings.extensions.CompletionProvider;
 import dd.kms.zenodot.api.settings.extensions.ParserExtension;
-import dd.kms.zenodot.framework.flowcontrol.InternalErrorException;
 import dd.kms.zenodot.framework.operators.BinaryOperator;
 import dd.kms.zenodot.framework.parsers.AbstractParser;
 import dd.kms.zenodot.framework.parsers.CallerContext;
 import dd.kms.zenodot.framework.parsers.expectations.ObjectParseResultExpectation;
-import dd.kms.zenodot.framework.parsers.expectations.ParseResultExpectation;
 import dd.kms.zenodot.framework.result.CodeCompletions;
 import dd.kms.zenodot.framework.result.ObjectParseResult;
-import dd.kms.zenodot.framework.result.ParseResult;
 import dd.kms.zenodot.framework.tokenizer.CompletionGenerator;
 import dd.kms.zenodot.framework.tokenizer.TokenStream;
 import dd.kms.zenodot.framework.wrappers.ObjectInfo;
@@ -29,6 +26,7 @@ import java.lang.reflect.Executable;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -89,7 +87,7 @@ public class ParserToolbox
 	}
 
 	private Object injectRecursively(Class<?> clazz, Set<Class<?>> pendingClasses) {
-		Preconditions.checkArgument(!clazz.isPrimitive(), "Cannot inject primitive class " + clazz);
+		Preconditions.checkArgument(!clazz.isPrimitive(), "Cannot inject primitive class %s", clazz);
 		Preconditions.checkArgument(!pendingClasses.contains(clazz), "Detected cyclic dependencies during injection");
 		pendingClasses.add(clazz);
 
@@ -101,7 +99,7 @@ public class ParserToolbox
 		List<Constructor<?>> constructors = Arrays.stream(clazz.getConstructors())
 			.filter(c -> Modifier.isPublic(c.getModifiers()))
 			.collect(Collectors.toList());
-		Preconditions.checkArgument(constructors.size() == 1, "Cannot inject class " + clazz + " because it must have exactly one public constructor");
+		Preconditions.checkArgument(constructors.size() == 1, "Cannot inject class %s because it must have exactly one public constructor", clazz);
 		Constructor<?> constructor = Iterables.getOnlyElement(constructors);
 		Class<?>[] parameterTypes = constructor.getParameterTypes();
 		int numParameters = parameterTypes.length;
@@ -109,7 +107,7 @@ public class ParserToolbox
 		for (int i = 0; i < numParameters; i++) {
 			Class<?> parameterType = parameterTypes[i];
 			List<Object> registeredInstances = getRegisteredInstances(parameterType);
-			Preconditions.checkArgument(registeredInstances.size() <= 1, "Cannot inject class " + clazz + " because multiple instances are registered for constructor argument " + (i+1) + " of type " + parameterType);
+			Preconditions.checkArgument(registeredInstances.size() <= 1, "Cannot inject class %s because multiple instances are registered for constructor argument %s of type %s", clazz, i+1, parameterType);
 			parameters[i] = registeredInstances.isEmpty()
 					? injectRecursively(parameterType, pendingClasses)
 					: Iterables.getOnlyElement(registeredInstances);
@@ -177,13 +175,11 @@ public class ParserToolbox
 	/*
 	 * Parsers
 	 */
-	public <C, T extends ParseResult, S extends ParseResultExpectation<T>, P extends AbstractParser<C, T, S>> P createParser(Class<P> parserClass) throws InternalErrorException {
-		try {
-			Constructor<P> constructor = parserClass.getConstructor(ParserToolbox.class);
-			return constructor.newInstance(this);
-		} catch (NoSuchMethodException | InstantiationException | IllegalAccessException | InvocationTargetException e) {
-			throw new InternalErrorException("Creating parser failed: " + e.getMessage(), e);
-		}
+	/**
+	 * Creates a parser with the specified factory, which is usually a reference to the parser's constructor.
+	 */
+	public <P extends AbstractParser<?, ?, ?>> P createParser(Function<ParserToolbox, P> parserFactory) {
+		return parserFactory.apply(this);
 	}
 
 	public AbstractParser<ObjectInfo, ObjectParseResult, ObjectParseResultExpectation> createExpressionParser() {
@@ -1,7 +1,11 @@
 package dd.kms.zenodot.framework.wrappers;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import dd.kms.zenodot.api.common.*;
+import dd.kms.zenodot.impl.utils.ClassUtils;
 
+import javax.annotation.Nullable;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Executable;
 import java.lang.reflect.Method;
@@ -17,6 +21,14 @@ public class InfoProvider
 
 	public static final ObjectInfo NULL_LITERAL		= createObjectInfo(null, NO_TYPE);
 
+	/*
+	 * ClassInfos memoize their classes. Sharing them avoids loading the same class again when
+	 * completing the same class names repeatedly. ClassInfos of classes that have to be loaded
+	 * via a dedicated class loader are not shared to avoid retaining these class loaders.
+	 */
+	private static final int						MAX_NUM_CACHED_CLASS_INFOS	= 4096;
+	private static final Cache<String, ClassInfo>	CLASS_INFOS					= CacheBuilder.newBuilder().maximumSize(MAX_NUM_CACHED_CLASS_INFOS).build();
+
 	public static List<ExecutableInfo> getAvailableExecutableInfos(Executable executable) {
 		return executable.isVarArgs()
 			? Arrays.asList(new RegularExecutableInfo(executable), new VariadicExecutableInfo(executable))
@@ -24,11 +36,20 @@ public class InfoProvider
 	}
 
 	public static ClassInfo createClassInfo(Class<?> clazz) {
-		return createClassInfoUnchecked(clazz.getName());
+		return createClassInfoUnchecked(clazz.getName(), ClassUtils.getClassLoaderScope(clazz.getClassLoader()));
 	}
 
 	public static ClassInfo createClassInfoUnchecked(String qualifiedClassName) {
-		return new ClassInfo(qualifiedClassName);
+		return createClassInfoUnchecked(qualifiedClassName, null);
+	}
+
+	/**
+	 * See {@link ClassUtils#getClassLoaderScope(ClassLoader)} for the meaning of {@code classLoaderScope}
+	 */
+	public static ClassInfo createClassInfoUnchecked(String qualifiedClassName, @Nullable ClassLoader classLoaderScope) {
+		return classLoaderScope == null
+			? CLASS_INFOS.asMap().computeIfAbsent(qualifiedClassName, ClassInfo::new)
+			: new ClassInfo(qualifiedClassName, classLoaderScope);
 	}
 
 	public static ObjectInfo createObjectInfo(Object object) {
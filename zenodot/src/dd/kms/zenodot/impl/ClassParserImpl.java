@@ -3,6 +3,7 @@ package dd.kms.zenodot.impl;
 import dd.kms.zenodot.api.ClassParser;
 import dd.kms.zenodot.api.ParseException;
 import dd.kms.zenodot.api.result.CodeCompletion;
+import dd.kms.zenodot.api.result.CodeCompletionResult;
 import dd.kms.zenodot.api.settings.ParserSettings;
 import dd.kms.zenodot.framework.flowcontrol.CodeCompletionException;
 import dd.kms.zenodot.framework.flowcontrol.EvaluationException;
@@ -14,6 +15,7 @@ import dd.kms.zenodot.framework.tokenizer.TokenStream;
 import dd.kms.zenodot.framework.utils.ParseUtils;
 import dd.kms.zenodot.framework.utils.ParserToolbox;
 import dd.kms.zenodot.framework.wrappers.InfoProvider;
+import dd.kms.zenodot.impl.result.CodeCompletionResultImpl;
 
 import java.util.List;
 
@@ -30,6 +32,11 @@ public class ClassParserImpl extends AbstractParser<ClassParseResult, ClassParse
 		return getCodeCompletions(text, caretPosition, InfoProvider.NULL_LITERAL, PARSE_RESULT_EXPECTATION).getCompletions();
 	}
 
+	@Override
+	public CodeCompletionResult getCompletionResult(String text, int caretPosition) throws ParseException {
+		return new CodeCompletionResultImpl(getCodeCompletions(text, caretPosition, InfoProvider.NULL_LITERAL, PARSE_RESULT_EXPECTATION));
+	}
+
 	@Override
 	public Class<?> evaluate(String className) throws ParseException {
 		TokenStream tokenStream = new TokenStream(className, -1);
@@ -4,6 +4,7 @@ import dd.kms.zenodot.api.CompiledExpression;
 import dd.kms.zenodot.api.ExpressionParser;
 import dd.kms.zenodot.api.ParseException;
 import dd.kms.zenodot.api.result.CodeCompletion;
+import dd.kms.zenodot.api.result.CodeCompletionResult;
 import dd.kms.zenodot.api.result.ExecutableArgumentInfo;
 import dd.kms.zenodot.api.settings.EvaluationMode;
 import dd.kms.zenodot.api.settings.ParserSettings;
@@ -17,6 +18,7 @@ import dd.kms.zenodot.framework.tokenizer.TokenStream;
 import dd.kms.zenodot.framework.utils.ParserToolbox;
 import dd.kms.zenodot.framework.wrappers.InfoProvider;
 import dd.kms.zenodot.framework.wrappers.ObjectInfo;
+import dd.kms.zenodot.impl.result.CodeCompletionResultImpl;
 
 import java.util.List;
 import java.util.Optional;
@@ -43,6 +45,18 @@ class ExpressionParserImpl extends AbstractParser<ObjectParseResult, ObjectParse
 		return getCodeCompletions(text, caretPosition, thisInfo, getParseResultExpectation()).getCompletions();
 	}
 
+	@Override
+	public CodeCompletionResult getCompletionResult(String text, int caretPosition, Class<?> thisType) throws ParseException {
+		ObjectInfo thisInfo = InfoProvider.createObjectInfo(InfoProvider.INDETERMINATE_VALUE, thisType);
+		return new CodeCompletionResultImpl(getCodeCompletions(text, caretPosition, thisInfo, getParseResultExpectation()));
+	}
+
+	@Override
+	public CodeCompletionResult getCompletionResult(String text, int caretPosition, Object thisValue) throws ParseException {
+		ObjectInfo thisInfo = InfoProvider.createObjectInfo(thisValue);
+		return new CodeCompletionResultImpl(getCodeCompletions(text, caretPosition, thisInfo, getParseResultExpectation()));
+	}
+
 	@Override
 	public Optional<ExecutableArgumentInfo> getExecutableArgumentInfo(String text, int caretPosition, Class<?> thisType) throws ParseException {
 		ObjectInfo thisInfo = InfoProvider.createObjectInfo(InfoProvider.INDETERMINATE_VALUE, thisType);
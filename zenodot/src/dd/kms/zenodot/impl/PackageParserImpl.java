@@ -3,6 +3,7 @@ package dd.kms.zenodot.impl;
 import dd.kms.zenodot.api.PackageParser;
 import dd.kms.zenodot.api.ParseException;
 import dd.kms.zenodot.api.result.CodeCompletion;
+import dd.kms.zenodot.api.result.CodeCompletionResult;
 import dd.kms.zenodot.api.settings.ParserSettings;
 import dd.kms.zenodot.framework.flowcontrol.CodeCompletionException;
 import dd.kms.zenodot.framework.flowcontrol.EvaluationException;
@@ -13,6 +14,7 @@ import dd.kms.zenodot.framework.result.PackageParseResult;
 import dd.kms.zenodot.framework.tokenizer.TokenStream;
 import dd.kms.zenodot.framework.utils.ParserToolbox;
 import dd.kms.zenodot.framework.wrappers.InfoProvider;
+import dd.kms.zenodot.impl.result.CodeCompletionResultImpl;
 import dd.kms.zenodot.impl.parsers.RootpackageParser;
 
 import java.util.List;
@@ -30,6 +32,11 @@ public class PackageParserImpl extends AbstractParser<PackageParseResult, Packag
 		return getCodeCompletions(text, caretPosition, InfoProvider.NULL_LITERAL, PARSE_RESULT_EXPECTATION).getCompletions();
 	}
 
+	@Override
+	public CodeCompletionResult getCompletionResult(String text, int caretPosition) throws ParseException {
+		return new CodeCompletionResultImpl(getCodeCompletions(text, caretPosition, InfoProvider.NULL_LITERAL, PARSE_RESULT_EXPECTATION));
+	}
+
 	@Override
 	public String evaluate(String packageName) throws ParseException {
 		TokenStream tokenStream = new TokenStream(packageName, -1);
@@ -44,7 +51,7 @@ public class PackageParserImpl extends AbstractParser<PackageParseResult, Packag
 
 	@Override
 	PackageParseResult doParse(TokenStream tokenStream, ParserToolbox parserToolbox, PackageParseResultExpectation parseResultExpectation) throws InternalErrorException, EvaluationException, CodeCompletionException, SyntaxException {
-		RootpackageParser<PackageParseResult, PackageParseResultExpectation> rootpackageParser = parserToolbox.createParser(RootpackageParser.class);
+		RootpackageParser<PackageParseResult, PackageParseResultExpectation> rootpackageParser = parserToolbox.createParser(RootpackageParser::new);
 		return rootpackageParser.parse(tokenStream, null, parseResultExpectation);
 	}
 }
@@ -0,0 +1,89 @@
+package dd.kms.zenodot.impl.classindex;
+
+import dd.kms.zenodot.api.settings.ClassIndexSettings;
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.ClassInfo;
+import io.github.classgraph.ScanResult;
+
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Scans class sources with ClassGraph
+ */
+class ClassGraphClassNameScanner implements ClassNameScanner
+{
+	static final ClassNameScanner	INSTANCE			= new ClassGraphClassNameScanner();
+
+	private static final String		OBJECT_CLASS_NAME	= Object.class.getName();
+
+	@Override
+	public ClassNameTable scanClassPath(ClassIndexSettings settings, Set<Path> excludedClassPathElements) {
+		ClassGraph classGraph = new ClassGraph()
+			.filterClasspathElements(classPathElement -> !isExcluded(classPathElement, excludedClassPathElements))
+			.acceptModules(toArray(settings.getAcceptedModules()))
+			.rejectModules(toArray(settings.getRejectedModules()))
+			.acceptJars(toArray(settings.getAcceptedJars()))
+			.rejectJars(toArray(settings.getRejectedJars()));
+		boolean includeObjectClass = false;
+		if (settings.isScanSystemJarsAndModules()) {
+			classGraph.enableSystemJarsAndModules();
+			// ClassGraph never reports java.lang.Object
+			includeObjectClass = ClassNameFilter.isPackageInScope(Object.class.getPackage().getName(), settings);
+		}
+		return scan(classGraph, settings, includeObjectClass);
+	}
+
+	@Override
+	public ClassNameTable scanClassPathElement(Path jarOrDirectory, ClassIndexSettings settings) {
+		return scan(new ClassGraph().overrideClasspath(jarOrDirectory.toString()), settings, false);
+	}
+
+	@Override
+	public ClassNameTable scanClassLoader(ClassLoader classLoader, ClassIndexSettings settings) {
+		return scan(new ClassGraph().overrideClassLoaders(classLoader).ignoreParentClassLoaders(), settings, false);
+	}
+
+	private static ClassNameTable scan(ClassGraph classGraph, ClassIndexSettings settings, boolean includeObjectClass) {
+		classGraph
+			.acceptPackages(toArray(settings.getAcceptedPackages()))
+			.rejectPackages(toArray(settings.getRejectedPackages()));
+		ClassNameTable.Builder builder = new ClassNameTable.Builder();
+		int parallelism = settings.getScanThreadCount();
+		ExecutorService executorService = Executors.newFixedThreadPool(parallelism);
+		try (ScanResult scanResult = classGraph
+			.enableClassInfo()
+			.ignoreClassVisibility()
+			.removeTemporaryFilesAfterScan()
+			.scan(executorService, parallelism)) {
+			for (ClassInfo clazz : scanResult.getAllClasses()) {
+				builder.add(clazz.getName(), clazz.isInnerClass());
+			}
+			if (includeObjectClass && scanResult.getClassInfo(OBJECT_CLASS_NAME) == null) {
+				builder.add(OBJECT_CLASS_NAME, false);
+			}
+		} finally {
+			executorService.shutdown();
+		}
+		return builder.build();
+	}
+
+	private static boolean isExcluded(String classPathElement, Set<Path> excludedClassPathElements) {
+		if (excludedClassPathElements.isEmpty()) {
+			return false;
+		}
+		try {
+			return excludedClassPathElements.contains(Paths.get(classPathElement).toAbsolutePath().normalize());
+		} catch (InvalidPathException e) {
+			return false;
+		}
+	}
+
+	private static String[] toArray(Set<String> strings) {
+		return strings.toArray(new String[0]);
+	}
+}
@@ -0,0 +1,114 @@
+package dd.kms.zenodot.impl.classindex;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import dd.kms.zenodot.api.common.ClassInfo;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable index of all packages and classes found in the class path, the runtime image, and the
+ * class sources that have been registered additionally. Registering or deregistering a class source
+ * does not modify an index, but yields a new one. Since the indexes of the individual sources are
+ * shared between these instances, this is cheap.
+ */
+public class ClassIndex
+{
+	public static final ClassIndex	EMPTY	= new ClassIndex(ImmutableList.of(ClassSourceIndex.EMPTY));
+
+	static ClassIndex create(List<ClassSourceIndex> sourceIndexes) {
+		return new ClassIndex(ImmutableList.copyOf(sourceIndexes));
+	}
+
+	private final List<ClassSourceIndex>	sourceIndexes;
+	private final PackageTrie				packages;
+
+	private ClassIndex(List<ClassSourceIndex> sourceIndexes) {
+		this.sourceIndexes = sourceIndexes;
+		this.packages = PackageTrie.create(sourceIndexes.stream().flatMap(sourceIndex -> sourceIndex.getPackageNames().stream()).collect(Collectors.toList()));
+	}
+
+	List<ClassSourceIndex> getSourceIndexes() {
+		return sourceIndexes;
+	}
+
+	public PackageTrie getPackages() {
+		return packages;
+	}
+
+	public boolean packageExists(String packageName) {
+		return packages.packageExists(packageName);
+	}
+
+	/**
+	 * Returns whether a class with the specified normalized name (see {@link dd.kms.zenodot.impl.utils.ClassUtils#normalizeClassName(String)})
+	 * has been indexed
+	 */
+	public boolean containsClass(String normalizedClassName) {
+		for (ClassSourceIndex sourceIndex : sourceIndexes) {
+			if (sourceIndex.containsClass(normalizedClassName)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public Set<ClassInfo> getTopLevelClasses(String packageName) {
+		Set<ClassInfo> topLevelClasses = ImmutableSet.of();
+		for (ClassSourceIndex sourceIndex : sourceIndexes) {
+			Set<ClassInfo> topLevelClassesOfSource = sourceIndex.getTopLevelClasses(packageName);
+			if (!topLevelClassesOfSource.isEmpty()) {
+				topLevelClasses = topLevelClasses.isEmpty() ? topLevelClassesOfSource : Sets.union(topLevelClasses, topLevelClassesOfSource);
+			}
+		}
+		return topLevelClasses;
+	}
+
+	/**
+	 * Returns the classes whose unqualified names match the pattern best, best matches first: classes whose names
+	 * equal the pattern, followed by classes whose names start with the pattern, followed by classes whose names
+	 * only match via shortcuts or wildcards. Within these categories, shorter names are preferred.
+	 */
+	public Set<ClassInfo> searchClassesByUnqualifiedName(String unqualifiedNamePattern, int maxNumberOfResults) {
+		return searchRankedClasses(sourceIndex -> sourceIndex.searchClassesByUnqualifiedName(unqualifiedNamePattern, maxNumberOfResults), maxNumberOfResults);
+	}
+
+	/**
+	 * Like {@link #searchClassesByUnqualifiedName(String, int)}, but ignores case and allows every character of the pattern,
+	 * not only capital letters, to match the next capital letter of a class name. For example, "hm" finds {@code HashMap}.
+	 */
+	public Set<ClassInfo> searchClassesByUnqualifiedNameIgnoringCase(String unqualifiedNamePattern, int maxNumberOfResults) {
+		return searchRankedClasses(sourceIndex -> sourceIndex.searchClassesByUnqualifiedNameIgnoringCase(unqualifiedNamePattern, maxNumberOfResults), maxNumberOfResults);
+	}
+
+	/**
+	 * Returns classes whose unqualified names start with the specified name when ignoring case and allowing at most
+	 * {@code maxTypos} typos. Classes with fewer typos are returned first.
+	 */
+	public Set<ClassInfo> searchClassesByUnqualifiedNameWithTypos(String unqualifiedName, int maxTypos, int maxNumberOfResults) {
+		return searchRankedClasses(sourceIndex -> sourceIndex.searchClassesByUnqualifiedNameWithTypos(unqualifiedName, maxTypos, maxNumberOfResults), maxNumberOfResults);
+	}
+
+	private Set<ClassInfo> searchRankedClasses(Function<ClassSourceIndex, Map<ClassInfo, Integer>> search, int maxNumberOfResults) {
+		if (sourceIndexes.size() == 1) {
+			return search.apply(sourceIndexes.get(0)).keySet();
+		}
+		List<Map.Entry<ClassInfo, Integer>> rankedClasses = new ArrayList<>();
+		for (ClassSourceIndex sourceIndex : sourceIndexes) {
+			rankedClasses.addAll(search.apply(sourceIndex).entrySet());
+		}
+		// stable sort: for equal ranks, the order of the sources decides
+		rankedClasses.sort(Map.Entry.comparingByValue());
+		Set<ClassInfo> classes = new LinkedHashSet<>();
+		for (Map.Entry<ClassInfo, Integer> rankedClass : rankedClasses) {
+			if (classes.size() >= maxNumberOfResults) {
+				break;
+			}
+			classes.add(rankedClass.getKey());
+		}
+		return classes;
+	}
+}
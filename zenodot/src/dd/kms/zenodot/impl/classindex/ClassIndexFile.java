@@ -0,0 +1,137 @@
+package dd.kms.zenodot.impl.classindex;
+
+import javax.annotation.Nullable;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Arrays;
+
+/**
+ * Reads and writes {@link ClassSourceIndex}s from and to binary index files. The file has the following layout
+ * (all numbers big endian):
+ * <ol>
+ *     <li>magic number and format version (2 ints)</li>
+ *     <li>length of the class path fingerprint (int) followed by the fingerprint bytes</li>
+ *     <li>number of classes {@code n} and total number of characters {@code c} (2 ints)</li>
+ *     <li>{@code n+1} name offsets (ints)</li>
+ *     <li>{@code n} class flags (bytes)</li>
+ *     <li>{@code c} characters of all concatenated class names (chars)</li>
+ *     <li>the sorted class indices and the tries of the {@code ClassSourceIndex} (see {@link ClassSourceIndex#write(DataOutputStream)})</li>
+ * </ol>
+ * When reading an index file, the file is memory-mapped and the returned index directly operates on views of the
+ * mapped buffer for the class names. Hence, no class name is decoded before it is requested. The sorted class
+ * indices and the tries are copied from the mapped buffer into arrays, so classes are neither sorted nor are the
+ * tries built again.
+ */
+class ClassIndexFile
+{
+	static final int			VERSION	= 3;
+
+	private static final int	MAGIC	= 0x5A454E4F;	// "ZENO"
+
+	/**
+	 * Returns the {@link ClassSourceIndex} stored in the specified file or {@code null} if the file
+	 * does not exist, is corrupt, or has been written for a different class path fingerprint.
+	 */
+	@Nullable
+	static ClassSourceIndex read(Path file, byte[] expectedFingerprint) {
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+				return null;
+			}
+			byte[] fingerprint = new byte[buffer.getInt()];
+			buffer.get(fingerprint);
+			if (!Arrays.equals(fingerprint, expectedFingerprint)) {
+				return null;
+			}
+			int numClasses = buffer.getInt();
+			int numCharacters = buffer.getInt();
+
+			IntBuffer offsets = slice(buffer, 4*(numClasses + 1)).asIntBuffer();
+			ByteBuffer flags = slice(buffer, numClasses);
+			CharBuffer names = slice(buffer, 2*numCharacters).asCharBuffer();
+			ClassSourceIndex index = ClassSourceIndex.read(new ClassNameTable(names, offsets, flags), buffer);
+			return buffer.hasRemaining() ? null : index;
+		} catch (IOException | RuntimeException e) {
+			// corrupt or inaccessible file => rebuild index
+			return null;
+		}
+	}
+
+	static void write(Path file, byte[] fingerprint, ClassSourceIndex index) throws IOException {
+		Path directory = file.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+		Path tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+				ClassNameTable table = index.getClassNames();
+				CharBuffer names = table.getNames();
+				IntBuffer offsets = table.getOffsets();
+				ByteBuffer flags = table.getFlags();
+
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeInt(fingerprint.length);
+				out.write(fingerprint);
+				out.writeInt(flags.remaining());
+				out.writeInt(names.remaining());
+				while (offsets.hasRemaining()) {
+					out.writeInt(offsets.get());
+				}
+				while (flags.hasRemaining()) {
+					out.writeByte(flags.get());
+				}
+				while (names.hasRemaining()) {
+					out.writeChar(names.get());
+				}
+				index.write(out);
+			}
+			Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	static void writeInts(DataOutputStream out, int[] values) throws IOException {
+		for (int value : values) {
+			out.writeInt(value);
+		}
+	}
+
+	static void writeChars(DataOutputStream out, char[] characters) throws IOException {
+		for (char c : characters) {
+			out.writeChar(c);
+		}
+	}
+
+	static int[] readInts(ByteBuffer buffer, int length) {
+		int[] values = new int[length];
+		slice(buffer, 4*length).asIntBuffer().get(values);
+		return values;
+	}
+
+	static char[] readChars(ByteBuffer buffer, int length) {
+		char[] characters = new char[length];
+		slice(buffer, 2*length).asCharBuffer().get(characters);
+		return characters;
+	}
+
+	private static ByteBuffer slice(ByteBuffer buffer, int length) {
+		ByteBuffer slice = buffer.slice();
+		// cast to Buffer for compatibility with Java 8 where the covariant overrides do not exist
+		((Buffer) slice).limit(length);
+		((Buffer) buffer).position(buffer.position() + length);
+		return slice;
+	}
+}
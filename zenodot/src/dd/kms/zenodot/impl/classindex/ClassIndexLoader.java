@@ -0,0 +1,120 @@
+package dd.kms.zenodot.impl.classindex;
+
+import dd.kms.zenodot.api.settings.ClassIndexSettings;
+import dd.kms.zenodot.api.settings.ClassIndexSettingsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Provides the names of all classes in the class path and the runtime image. The scanner that collects
+ * the names is selected via the {@link ClassIndexSettings}.<br>
+ * <br>
+ * Scanning the class path and building the index of its classes are expensive. Hence, the index is persisted
+ * in an index file (see {@link ClassIndexFile}) that is reused by later JVMs as long as the class path and the
+ * runtime image do not change (see {@link ClassPathFingerprint}).<br>
+ * <br>
+ * The directory of the index files can be configured via the system property {@value #CACHE_DIRECTORY_PROPERTY}.
+ * By default, the index files are stored in a subdirectory of the temporary directory.
+ */
+public class ClassIndexLoader
+{
+	public static final String	CACHE_DIRECTORY_PROPERTY	= "zenodot.classIndexCacheDirectory";
+
+	public static ClassNameTable load(ClassIndexSettings settings) {
+		return load(settings, getDefaultCacheDirectory());
+	}
+
+	public static ClassNameTable load(Path cacheDirectory) {
+		return load(ClassIndexSettingsBuilder.create().build(), cacheDirectory);
+	}
+
+	public static ClassNameTable load(ClassIndexSettings settings, Path cacheDirectory) {
+		return loadIndex(settings, cacheDirectory).getClassNames();
+	}
+
+	static ClassSourceIndex loadIndex(ClassIndexSettings settings) {
+		return loadIndex(settings, getDefaultCacheDirectory());
+	}
+
+	static ClassSourceIndex loadIndex(ClassIndexSettings settings, Path cacheDirectory) {
+		ClassPathFingerprint fingerprint = new ClassPathFingerprint(settings);
+		byte[] stateHash = fingerprint.computeStateHash();
+		Path indexFile = cacheDirectory.resolve("class-index-" + fingerprint.getConfigurationId() + ".bin");
+
+		ClassSourceIndex cachedIndex = ClassIndexFile.read(indexFile, stateHash);
+		if (cachedIndex != null) {
+			return cachedIndex;
+		}
+
+		ClassNameTable table = scanClassPath(settings);
+		ClassSourceIndex index = ClassSourceIndex.create(table);
+		if (!table.isComplete()) {
+			// do not persist the result of a failed scan; the next start will scan again
+			return index;
+		}
+		try {
+			ClassIndexFile.write(indexFile, stateHash, index);
+		} catch (IOException | RuntimeException e) {
+			/* The index file is only a cache. We will try to write it again on the next start. */
+		}
+		return index;
+	}
+
+	/**
+	 * Collects the classes of the class path and the runtime image. Class path elements that contain a
+	 * {@link ClassIndexResource} are not scanned. Their classes are read from that resource instead.
+	 */
+	public static ClassNameTable scanClassPath(ClassIndexSettings settings) {
+		Map<String, Boolean> innerClassFlagsByName = new LinkedHashMap<>();
+		Set<Path> coveredClassPathElements = ClassIndexResource.readClassPathResources(new ClassNameFilter(settings), innerClassFlagsByName);
+		ClassNameTable scannedClasses = ClassNameScanner.get(settings).scanClassPath(settings, coveredClassPathElements);
+		return merge(innerClassFlagsByName, scannedClasses);
+	}
+
+	/**
+	 * Collects the classes of a single jar file or class directory. Only the package filters of the settings
+	 * are applied. The result is not persisted.
+	 */
+	public static ClassNameTable scanClassPathElement(Path jarOrDirectory, ClassIndexSettings settings) {
+		Map<String, Boolean> innerClassFlagsByName = new LinkedHashMap<>();
+		if (ClassIndexResource.readResource(jarOrDirectory, new ClassNameFilter(settings), innerClassFlagsByName)) {
+			return merge(innerClassFlagsByName, new ClassNameTable.Builder().build());
+		}
+		return ClassNameScanner.get(settings).scanClassPathElement(jarOrDirectory, settings);
+	}
+
+	/**
+	 * Scans the class path of a single {@link ClassLoader} without its parents. Only the package filters
+	 * of the settings are applied. The result is not persisted.
+	 */
+	public static ClassNameTable scanClassLoader(ClassLoader classLoader, ClassIndexSettings settings) {
+		return ClassNameScanner.get(settings).scanClassLoader(classLoader, settings);
+	}
+
+	private static ClassNameTable merge(Map<String, Boolean> innerClassFlagsByName, ClassNameTable classes) {
+		ClassNameTable.Builder builder = new ClassNameTable.Builder();
+		if (!classes.isComplete()) {
+			builder.incomplete();
+		}
+		innerClassFlagsByName.forEach(builder::add);
+		for (int i = 0; i < classes.size(); i++) {
+			String className = classes.getName(i);
+			if (!innerClassFlagsByName.containsKey(className)) {
+				builder.add(className, classes.isInnerClass(i));
+			}
+		}
+		return builder.build();
+	}
+
+	private static Path getDefaultCacheDirectory() {
+		String cacheDirectory = System.getProperty(CACHE_DIRECTORY_PROPERTY);
+		return cacheDirectory != null
+			? Paths.get(cacheDirectory)
+			: Paths.get(System.getProperty("java.io.tmpdir"), "zenodot");
+	}
+}
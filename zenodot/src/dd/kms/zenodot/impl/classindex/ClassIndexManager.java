@@ -0,0 +1,329 @@
+package dd.kms.zenodot.impl.classindex;
+
+import dd.kms.zenodot.api.settings.ClassIndexSettings;
+import dd.kms.zenodot.api.settings.ClassIndexSettingsBuilder;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Builds the {@link ClassIndex} in the background. The build is started on demand, e.g., via
+ * {@link dd.kms.zenodot.api.Parsers#preloadClasses()} or by the first parser that requires
+ * information about classes or packages. The {@link ClassIndexSettings} have to be configured
+ * before.<br>
+ * <br>
+ * Additional class sources (jars, class directories, or class loaders) can be registered and deregistered
+ * at any time. Only the registered source is scanned. When the scan is complete, a new {@code ClassIndex}
+ * is published that shares the indexes of all other sources.<br>
+ * <br>
+ * Readers do not block while the index is being built or updated. They can check whether the index is ready
+ * via {@link #getIndexIfReady()} and fall back to the information that is available without the index.<br>
+ * <br>
+ * Parsers can be scoped to a class loader that is not covered by this shared index, e.g., the class loader of a
+ * tenant in an application server. Such class loaders are scanned and indexed separately (see {@link ClassLoaderIndexes}).
+ * The methods that accept a {@code classLoaderScope} (see {@link dd.kms.zenodot.impl.utils.ClassUtils#getClassLoaderScope(ClassLoader)})
+ * consider these indexes in addition to the shared index.
+ */
+public class ClassIndexManager
+{
+	private static final Executor									BACKGROUND_EXECUTOR	= ClassIndexManager::runInBackground;
+	private static final Logger										LOGGER				= Logger.getLogger(ClassIndexManager.class.getName());
+
+	private static final Object										LOCK				= new Object();
+
+	/*
+	 * The following fields are guarded by LOCK
+	 */
+	private static final Map<Object, ClassSourceRegistration>		REGISTERED_SOURCES	= new LinkedHashMap<>();
+	private static ClassIndexSettings								settings			= ClassIndexSettingsBuilder.create().build();
+	private static @Nullable CompletableFuture<Void>				indexFuture;
+	private static @Nullable ClassSourceIndex						classPathIndex;
+
+	private static volatile @Nullable ClassIndex					currentIndex;
+	private static volatile @Nullable ClassIndex					scannedIndex;
+
+	/**
+	 * Configures which classes are scanned.
+	 *
+	 * @throws IllegalStateException if building the index has already been started
+	 */
+	public static void configure(ClassIndexSettings settings) {
+		synchronized (LOCK) {
+			if (indexFuture != null) {
+				throw new IllegalStateException("The class index must be configured before it is built");
+			}
+			ClassIndexManager.settings = settings;
+		}
+	}
+
+	/**
+	 * Returns a future that is completed when the index of the class path and the runtime image has been built.
+	 * Completing or cancelling the returned future does not affect the index. Calling this method starts building
+	 * the index if this has not happened yet.
+	 */
+	public static CompletableFuture<Void> getReadiness() {
+		return startBuildingIndex().thenApply(ignored -> null);
+	}
+
+	/**
+	 * Returns the current index if the index of the class path and the runtime image has already been built
+	 * and {@code null} otherwise. In the latter case, building the index is started if this has not happened yet.
+	 */
+	@Nullable
+	public static ClassIndex getIndexIfReady() {
+		ClassIndex index = currentIndex;
+		if (index == null) {
+			startBuildingIndex();
+		}
+		return index;
+	}
+
+	/**
+	 * Like {@link #getIndexIfReady()}, but also considers the classes of the specified class loader scope if it is not
+	 * {@code null}. In this case, the index is only ready if this class loader and its parents have been scanned as well.
+	 */
+	@Nullable
+	public static ClassIndex getIndexIfReady(@Nullable ClassLoader classLoaderScope) {
+		ClassIndex index = getIndexIfReady();
+		return classLoaderScope == null ? index : ClassLoaderIndexes.getIndexIfReady(classLoaderScope, index, getSettings(), BACKGROUND_EXECUTOR);
+	}
+
+	/**
+	 * Like {@link #getReadiness()}, but also waits for the scan of the specified class loader scope if it is not {@code null}
+	 */
+	public static CompletableFuture<Void> getReadiness(@Nullable ClassLoader classLoaderScope) {
+		CompletableFuture<Void> readiness = getReadiness();
+		return classLoaderScope == null
+			? readiness
+			: CompletableFuture.allOf(readiness, ClassLoaderIndexes.getReadiness(classLoaderScope, getSettings(), BACKGROUND_EXECUTOR));
+	}
+
+	/**
+	 * Returns the index of all class sources that have been scanned so far without starting to build the index. While
+	 * the class path and the runtime image are being indexed, this index only contains the registered class sources.
+	 * In general, the index does not necessarily contain all classes that can be loaded by name, e.g., if the scan
+	 * scope has been restricted (see {@link ClassIndexSettings}) or if a class source has not been scanned yet.
+	 * Hence, only the presence of a class in the index is meaningful.
+	 */
+	@Nullable
+	public static ClassIndex getIndexIfBuilt() {
+		return scannedIndex;
+	}
+
+	/**
+	 * Like {@link #getIndexIfBuilt()}, but also considers the classes of the specified class loader scope if it
+	 * is not {@code null} and if this class loader and its parents have already been scanned. Scans are not started.
+	 */
+	@Nullable
+	public static ClassIndex getIndexIfBuilt(@Nullable ClassLoader classLoaderScope) {
+		ClassIndex index = scannedIndex;
+		if (classLoaderScope == null || index == null) {
+			return index;
+		}
+		ClassIndex scopedIndex = ClassLoaderIndexes.getIndexIfScanned(classLoaderScope, index);
+		return scopedIndex != null ? scopedIndex : index;
+	}
+
+	/**
+	 * Returns the current index and blocks until the index of the class path and the runtime image has been
+	 * built.
+	 */
+	public static ClassIndex awaitIndex() {
+		try {
+			startBuildingIndex().join();
+		} catch (CompletionException | CancellationException e) {
+			return ClassIndex.EMPTY;
+		}
+		ClassIndex index = currentIndex;
+		return index != null ? index : ClassIndex.EMPTY;
+	}
+
+	/**
+	 * Like {@link #awaitIndex()}, but also considers the classes of the specified class loader scope if it is not {@code null}
+	 */
+	public static ClassIndex awaitIndex(@Nullable ClassLoader classLoaderScope) {
+		if (classLoaderScope == null) {
+			return awaitIndex();
+		}
+		ClassIndexSettings scanSettings = getSettings();
+		ClassLoaderIndexes.getReadiness(classLoaderScope, scanSettings, BACKGROUND_EXECUTOR).join();
+		ClassIndex index = ClassLoaderIndexes.getIndexIfReady(classLoaderScope, awaitIndex(), scanSettings, BACKGROUND_EXECUTOR);
+		return index != null ? index : ClassIndex.EMPTY;
+	}
+
+	/**
+	 * Registers a jar file or a class directory. Its classes will be loaded by a dedicated class loader.
+	 * If the classes are already loaded by a class loader of the application, then this class loader
+	 * should be registered instead (see {@link #registerClassSource(ClassLoader)}).
+	 *
+	 * @return a future that is completed when the source has been scanned and merged into the index
+	 */
+	public static CompletableFuture<Void> registerClassSource(Path jarOrDirectory) {
+		Path source = jarOrDirectory.toAbsolutePath().normalize();
+		URLClassLoader classLoader;
+		try {
+			classLoader = new URLClassLoader(new URL[]{ source.toUri().toURL() }, ClassIndexManager.class.getClassLoader());
+		} catch (MalformedURLException e) {
+			throw new IllegalArgumentException("Invalid class source '" + jarOrDirectory + "': " + e.getMessage(), e);
+		}
+		return registerClassSource(source, classLoader, true, settings -> ClassIndexLoader.scanClassPathElement(source, settings));
+	}
+
+	/**
+	 * Registers a class loader. Only the class path of this class loader is scanned, not the class paths
+	 * of its parents.
+	 *
+	 * @return a future that is completed when the source has been scanned and merged into the index
+	 */
+	public static CompletableFuture<Void> registerClassSource(ClassLoader classLoader) {
+		return registerClassSource(classLoader, classLoader, false, settings -> ClassIndexLoader.scanClassLoader(classLoader, settings));
+	}
+
+	public static void deregisterClassSource(Path jarOrDirectory) {
+		deregisterClassSource((Object) jarOrDirectory.toAbsolutePath().normalize());
+	}
+
+	public static void deregisterClassSource(ClassLoader classLoader) {
+		deregisterClassSource((Object) classLoader);
+	}
+
+	private static CompletableFuture<Void> registerClassSource(Object source, ClassLoader classLoader, boolean ownsClassLoader, Function<ClassIndexSettings, ClassNameTable> scanner) {
+		ClassSourceRegistration registration = new ClassSourceRegistration(classLoader, ownsClassLoader);
+		ClassSourceRegistration previousRegistration;
+		ClassIndexSettings scanSettings;
+		CompletableFuture<Void> classPathIndexFuture;
+		synchronized (LOCK) {
+			classPathIndexFuture = startBuildingIndex();
+			previousRegistration = REGISTERED_SOURCES.put(source, registration);
+			scanSettings = settings;
+			publish();
+		}
+		if (previousRegistration != null) {
+			previousRegistration.close();
+		}
+		CompletableFuture<Void> sourceIndexFuture = CompletableFuture.runAsync(() -> {
+			ClassSourceIndex sourceIndex = ClassSourceIndex.create(scanner.apply(scanSettings));
+			synchronized (LOCK) {
+				if (REGISTERED_SOURCES.get(source) != registration) {
+					// source has been deregistered or registered again in the meantime
+					return;
+				}
+				registration.sourceIndex = sourceIndex;
+				publish();
+			}
+			if (scanSettings.isVerifyClassesInBackground()) {
+				ClassLoadabilityVerifier.verifyInBackground(sourceIndex.getClassNames());
+			}
+		}, BACKGROUND_EXECUTOR);
+		// the source's classes are only part of the index once the class path has been indexed as well
+		return CompletableFuture.allOf(classPathIndexFuture, sourceIndexFuture);
+	}
+
+	private static void deregisterClassSource(Object source) {
+		ClassSourceRegistration registration;
+		synchronized (LOCK) {
+			registration = REGISTERED_SOURCES.remove(source);
+			publish();
+		}
+		if (registration != null) {
+			registration.close();
+		}
+	}
+
+	private static ClassIndexSettings getSettings() {
+		synchronized (LOCK) {
+			return settings;
+		}
+	}
+
+	private static CompletableFuture<Void> startBuildingIndex() {
+		synchronized (LOCK) {
+			if (indexFuture == null) {
+				ClassIndexSettings scanSettings = settings;
+				indexFuture = CompletableFuture.runAsync(() -> buildClassPathIndex(scanSettings), BACKGROUND_EXECUTOR);
+			}
+			return indexFuture;
+		}
+	}
+
+	private static void buildClassPathIndex(ClassIndexSettings settings) {
+		ClassSourceIndex index;
+		try {
+			index = ClassIndexLoader.loadIndex(settings);
+		} catch (RuntimeException e) {
+			LOGGER.log(Level.WARNING, "Building the class index failed", e);
+			index = ClassSourceIndex.EMPTY;
+		}
+		synchronized (LOCK) {
+			classPathIndex = index;
+			publish();
+		}
+		if (settings.isVerifyClassesInBackground()) {
+			ClassLoadabilityVerifier.verifyInBackground(index.getClassNames());
+		}
+	}
+
+	/**
+	 * Publishes a new snapshot of the index and the registered class loaders. Must be called while holding {@link #LOCK}.
+	 */
+	private static void publish() {
+		List<ClassLoader> classLoaders = new ArrayList<>();
+		List<ClassSourceIndex> sourceIndexes = new ArrayList<>();
+		if (classPathIndex != null) {
+			sourceIndexes.add(classPathIndex);
+		}
+		for (ClassSourceRegistration registration : REGISTERED_SOURCES.values()) {
+			classLoaders.add(registration.classLoader);
+			if (registration.sourceIndex != null) {
+				sourceIndexes.add(registration.sourceIndex);
+			}
+		}
+		RegisteredClassLoaders.set(classLoaders);
+		ClassIndex index = ClassIndex.create(sourceIndexes);
+		scannedIndex = index;
+		if (classPathIndex != null) {
+			// the index is not considered ready before the class path has been indexed
+			currentIndex = index;
+		}
+	}
+
+	private static void runInBackground(Runnable runnable) {
+		Thread thread = new Thread(runnable, "Zenodot class index builder");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	private static class ClassSourceRegistration
+	{
+		private final ClassLoader			classLoader;
+		private final boolean				ownsClassLoader;
+
+		private @Nullable ClassSourceIndex	sourceIndex;
+
+		ClassSourceRegistration(ClassLoader classLoader, boolean ownsClassLoader) {
+			this.classLoader = classLoader;
+			this.ownsClassLoader = ownsClassLoader;
+		}
+
+		void close() {
+			if (ownsClassLoader && classLoader instanceof URLClassLoader) {
+				try {
+					((URLClassLoader) classLoader).close();
+				} catch (IOException ignored) {
+					/* nothing we can do about it */
+				}
+			}
+		}
+	}
+}
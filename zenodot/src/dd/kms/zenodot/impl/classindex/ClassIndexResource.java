@@ -0,0 +1,163 @@
+package dd.kms.zenodot.impl.classindex;
+
+import dd.kms.zenodot.api.ClassIndexProcessor;
+
+import javax.annotation.Nullable;
+import java.io.*;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Reads the class index resources generated at build time by the {@link ClassIndexProcessor}. Class path elements
+ * that contain such a resource are not scanned when building the class index. Since a jar might have been merged
+ * from several jars of which only one resource has been retained, the resource of a jar is only used if it lists
+ * all named classes of the jar's central directory. Otherwise, the jar is scanned.
+ */
+class ClassIndexResource
+{
+
+	/**
+	 * Reads the class index resources of all elements of the class path and adds the classes that pass the
+	 * filter to {@code innerClassFlagsByName}.
+	 *
+	 * @return the class path elements that are covered by a resource and need not be scanned
+	 */
+	static Set<Path> readClassPathResources(ClassNameFilter filter, Map<String, Boolean> innerClassFlagsByName) {
+		Set<Path> coveredClassPathElements = new HashSet<>();
+		Enumeration<URL> resources;
+		try {
+			resources = ClassIndexResource.class.getClassLoader().getResources(ClassIndexProcessor.RESOURCE_NAME);
+		} catch (IOException e) {
+			return coveredClassPathElements;
+		}
+		while (resources.hasMoreElements()) {
+			URL resource = resources.nextElement();
+			Path classPathElement = getClassPathElement(resource);
+			if (classPathElement == null) {
+				continue;
+			}
+			boolean rejectedJar = !Files.isDirectory(classPathElement) && !filter.acceptsJar(classPathElement.getFileName().toString());
+			if (rejectedJar || readResource(classPathElement, filter, innerClassFlagsByName)) {
+				coveredClassPathElements.add(classPathElement);
+			}
+		}
+		return coveredClassPathElements;
+	}
+
+	/**
+	 * Reads the class index resource of a single jar file or class directory, if it has one, and adds the
+	 * classes that pass the filter to {@code innerClassFlagsByName}.
+	 *
+	 * @return whether the jar file or class directory contains a usable class index resource
+	 */
+	static boolean readResource(Path jarOrDirectory, ClassNameFilter filter, Map<String, Boolean> innerClassFlagsByName) {
+		Map<String, Boolean> classes;
+		try {
+			if (Files.isDirectory(jarOrDirectory)) {
+				Path resource = jarOrDirectory.resolve(ClassIndexProcessor.RESOURCE_NAME);
+				if (!Files.isRegularFile(resource)) {
+					return false;
+				}
+				try (InputStream stream = Files.newInputStream(resource)) {
+					classes = read(stream, filter);
+				}
+			} else {
+				JarCentralDirectory centralDirectory = JarCentralDirectory.open(jarOrDirectory);
+				byte[] content = centralDirectory.readEntry(ClassIndexProcessor.RESOURCE_NAME);
+				if (content == null) {
+					return false;
+				}
+				classes = read(new ByteArrayInputStream(content), filter);
+				if (!listsAllNamedClasses(classes.keySet(), centralDirectory, filter)) {
+					return false;
+				}
+			}
+		} catch (IOException e) {
+			// the class path element will be scanned instead
+			return false;
+		}
+		classes.forEach(innerClassFlagsByName::putIfAbsent);
+		return true;
+	}
+
+	private static Map<String, Boolean> read(InputStream stream, ClassNameFilter filter) throws IOException {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+		Map<String, Boolean> classes = new LinkedHashMap<>();
+		String line;
+		while ((line = reader.readLine()) != null) {
+			if (line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+			boolean innerClass = line.endsWith(ClassIndexProcessor.INNER_CLASS_MARKER);
+			String className = innerClass ? line.substring(0, line.length() - ClassIndexProcessor.INNER_CLASS_MARKER.length()) : line;
+			if (filter.acceptsClass(className)) {
+				classes.put(className, innerClass);
+			}
+		}
+		return classes;
+	}
+
+	/**
+	 * Returns whether the listed classes contain all classes of the jar except for anonymous and local classes,
+	 * which the {@link ClassIndexProcessor} does not list. Reading the central directory is considerably cheaper
+	 * than scanning the jar with ClassGraph.
+	 */
+	private static boolean listsAllNamedClasses(Set<String> listedClasses, JarCentralDirectory centralDirectory, ClassNameFilter filter) throws IOException {
+		boolean[] listsAllClasses = { true };
+		centralDirectory.forEachEntryName(".class", entryName -> {
+			String className = filter.toClassName(entryName);
+			if (className != null && !isAnonymousOrLocalClass(className) && !listedClasses.contains(className)) {
+				listsAllClasses[0] = false;
+			}
+		});
+		return listsAllClasses[0];
+	}
+
+	/**
+	 * The binary names of anonymous and local classes contain a '$' that is followed by a digit
+	 */
+	private static boolean isAnonymousOrLocalClass(String className) {
+		for (int i = className.indexOf('$'); i >= 0 && i + 1 < className.length(); i = className.indexOf('$', i + 1)) {
+			if (Character.isDigit(className.charAt(i + 1))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the jar file or the class directory that contains the resource or {@code null} if the resource
+	 * is not located in the local file system
+	 */
+	@Nullable
+	private static Path getClassPathElement(URL resource) {
+		try {
+			switch (resource.getProtocol()) {
+				case "file": {
+					Path resourcePath = Paths.get(resource.toURI());
+					Path classPathElement = resourcePath;
+					for (int i = 0; i < Paths.get(ClassIndexProcessor.RESOURCE_NAME).getNameCount() && classPathElement != null; i++) {
+						classPathElement = classPathElement.getParent();
+					}
+					return classPathElement == null ? null : classPathElement.toAbsolutePath().normalize();
+				}
+				case "jar": {
+					URL jarFileUrl = ((JarURLConnection) resource.openConnection()).getJarFileURL();
+					return "file".equals(jarFileUrl.getProtocol())
+						? Paths.get(jarFileUrl.toURI()).toAbsolutePath().normalize()
+						: null;
+				}
+				default:
+					return null;
+			}
+		} catch (IOException | URISyntaxException | RuntimeException e) {
+			return null;
+		}
+	}
+}
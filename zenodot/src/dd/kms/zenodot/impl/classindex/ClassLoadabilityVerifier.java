@@ -0,0 +1,34 @@
+package dd.kms.zenodot.impl.classindex;
+
+import dd.kms.zenodot.impl.utils.ClassUtils;
+
+/**
+ * Checks which classes of a {@link ClassNameTable} can actually be loaded and reports those
+ * that cannot to {@link UnloadableClasses}. That way, broken classes are not suggested and
+ * failing class loads do not occur while completing code.<br>
+ * <br>
+ * Classes are loaded, but not initialized. Nevertheless, loading all classes of the class path
+ * is expensive in terms of time and metaspace. Hence, the verification is optional (see
+ * {@link dd.kms.zenodot.api.settings.ClassIndexSettingsBuilder#verifyClassesInBackground(boolean)})
+ * and runs in a low-priority thread.
+ */
+public class ClassLoadabilityVerifier
+{
+	static void verifyInBackground(ClassNameTable classNames) {
+		Thread thread = new Thread(() -> verify(classNames), "Zenodot class loadability verifier");
+		thread.setDaemon(true);
+		thread.setPriority(Thread.MIN_PRIORITY);
+		thread.start();
+	}
+
+	public static void verify(ClassNameTable classNames) {
+		for (int i = 0; i < classNames.size(); i++) {
+			String className = classNames.getName(i);
+			try {
+				ClassUtils.loadClass(className, false);
+			} catch (Throwable t) {
+				UnloadableClasses.report(className);
+			}
+		}
+	}
+}
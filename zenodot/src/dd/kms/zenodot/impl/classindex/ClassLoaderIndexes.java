@@ -0,0 +1,150 @@
+package dd.kms.zenodot.impl.classindex;
+
+import dd.kms.zenodot.api.settings.ClassIndexSettings;
+import dd.kms.zenodot.impl.utils.ClassUtils;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Holds the indexes of class loaders that parsers are scoped to (see {@link ClassUtils#getClassLoaderScope(ClassLoader)}).
+ * Every class loader is scanned once, without its parents. The index of a scope consists of the indexes of the class
+ * loader and of its parents up to the first class loader that is covered by the shared index, followed by the shared
+ * index. Hence, scopes with a common parent class loader share the index of that parent.<br>
+ * <br>
+ * The indexes are associated with their class loaders via weak keys. When a class loader becomes unreachable, its
+ * index is evicted.
+ */
+class ClassLoaderIndexes
+{
+	private static final Logger								LOGGER	= Logger.getLogger(ClassLoaderIndexes.class.getName());
+
+	/*
+	 * Guarded by itself
+	 */
+	private static final Map<ClassLoader, ClassLoaderIndex>	INDEXES	= new WeakHashMap<>();
+
+	/**
+	 * Returns the index of the specified class loader scope based on the {@code sharedIndex} if the class loader and
+	 * its parents have already been scanned and {@code null} otherwise. In the latter case, the scans are started if
+	 * this has not happened yet.
+	 */
+	@Nullable
+	static ClassIndex getIndexIfReady(ClassLoader classLoaderScope, @Nullable ClassIndex sharedIndex, ClassIndexSettings settings, Executor executor) {
+		List<ClassLoaderIndex> classLoaderIndexes = getClassLoaderIndexes(classLoaderScope, settings, executor);
+		return sharedIndex != null ? getScopedIndex(classLoaderIndexes, sharedIndex) : null;
+	}
+
+	/**
+	 * Like {@link #getIndexIfReady(ClassLoader, ClassIndex, ClassIndexSettings, Executor)}, but does not start any scans
+	 */
+	@Nullable
+	static ClassIndex getIndexIfScanned(ClassLoader classLoaderScope, ClassIndex sharedIndex) {
+		List<ClassLoaderIndex> classLoaderIndexes = new ArrayList<>();
+		synchronized (INDEXES) {
+			for (ClassLoader classLoader = classLoaderScope; ClassUtils.getClassLoaderScope(classLoader) != null; classLoader = classLoader.getParent()) {
+				ClassLoaderIndex classLoaderIndex = INDEXES.get(classLoader);
+				if (classLoaderIndex == null) {
+					return null;
+				}
+				classLoaderIndexes.add(classLoaderIndex);
+			}
+		}
+		return classLoaderIndexes.isEmpty() ? null : getScopedIndex(classLoaderIndexes, sharedIndex);
+	}
+
+	@Nullable
+	private static ClassIndex getScopedIndex(List<ClassLoaderIndex> classLoaderIndexes, ClassIndex sharedIndex) {
+		ClassLoaderIndex classLoaderIndex = classLoaderIndexes.get(0);
+		ScopedIndex scopedIndex = classLoaderIndex.scopedIndex;
+		if (scopedIndex != null && scopedIndex.sharedIndex == sharedIndex) {
+			return scopedIndex.index;
+		}
+		List<ClassSourceIndex> sourceIndexes = new ArrayList<>();
+		for (ClassLoaderIndex index : classLoaderIndexes) {
+			ClassSourceIndex sourceIndex = index.sourceIndex.getNow(null);
+			if (sourceIndex == null) {
+				return null;
+			}
+			sourceIndexes.add(sourceIndex);
+		}
+		sourceIndexes.addAll(sharedIndex.getSourceIndexes());
+		ClassIndex index = ClassIndex.create(sourceIndexes);
+		classLoaderIndex.scopedIndex = new ScopedIndex(sharedIndex, index);
+		return index;
+	}
+
+	/**
+	 * Returns a future that is completed when the class loader and its parents have been scanned
+	 */
+	static CompletableFuture<Void> getReadiness(ClassLoader classLoaderScope, ClassIndexSettings settings, Executor executor) {
+		CompletableFuture<?>[] futures = getClassLoaderIndexes(classLoaderScope, settings, executor).stream()
+			.map(classLoaderIndex -> classLoaderIndex.sourceIndex)
+			.toArray(CompletableFuture<?>[]::new);
+		return CompletableFuture.allOf(futures);
+	}
+
+	/**
+	 * Returns the number of class loaders whose indexes are currently held
+	 */
+	static int getNumberOfIndexedClassLoaders() {
+		synchronized (INDEXES) {
+			return INDEXES.size();
+		}
+	}
+
+	private static List<ClassLoaderIndex> getClassLoaderIndexes(ClassLoader classLoaderScope, ClassIndexSettings settings, Executor executor) {
+		List<ClassLoaderIndex> classLoaderIndexes = new ArrayList<>();
+		synchronized (INDEXES) {
+			for (ClassLoader classLoader = classLoaderScope; ClassUtils.getClassLoaderScope(classLoader) != null; classLoader = classLoader.getParent()) {
+				ClassLoader scannedClassLoader = classLoader;
+				ClassLoaderIndex classLoaderIndex = INDEXES.computeIfAbsent(scannedClassLoader, ignored -> new ClassLoaderIndex(
+					CompletableFuture.supplyAsync(() -> scan(scannedClassLoader, settings), executor)
+				));
+				classLoaderIndexes.add(classLoaderIndex);
+			}
+		}
+		return classLoaderIndexes;
+	}
+
+	private static ClassSourceIndex scan(ClassLoader classLoader, ClassIndexSettings settings) {
+		try {
+			return ClassSourceIndex.create(ClassIndexLoader.scanClassLoader(classLoader, settings), classLoader);
+		} catch (RuntimeException e) {
+			// parsers scoped to this class loader will only know the classes of its parents and of the shared index
+			LOGGER.log(Level.WARNING, "Scanning the class loader '" + classLoader + "' failed", e);
+			return ClassSourceIndex.EMPTY;
+		}
+	}
+
+	/**
+	 * Must not reference its class loader strongly. Otherwise, the class loader would never become unreachable.
+	 */
+	private static class ClassLoaderIndex
+	{
+		private final CompletableFuture<ClassSourceIndex>	sourceIndex;
+		private volatile @Nullable ScopedIndex				scopedIndex;
+
+		ClassLoaderIndex(CompletableFuture<ClassSourceIndex> sourceIndex) {
+			this.sourceIndex = sourceIndex;
+		}
+	}
+
+	private static class ScopedIndex
+	{
+		private final ClassIndex	sharedIndex;
+		private final ClassIndex	index;
+
+		ScopedIndex(ClassIndex sharedIndex, ClassIndex index) {
+			this.sharedIndex = sharedIndex;
+			this.index = index;
+		}
+	}
+}
@@ -0,0 +1,166 @@
+package dd.kms.zenodot.impl.classindex;
+
+import dd.kms.zenodot.api.settings.ClassIndexSettings;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Applies the scan scope of the {@link ClassIndexSettings} to the file names found by the {@link NioClassNameScanner}
+ * and to the class names read from {@link ClassIndexResource}s. Converts the paths of class files to class names.
+ */
+class ClassNameFilter
+{
+	private static final String	CLASS_FILE_EXTENSION		= ".class";
+	private static final String	MULTI_RELEASE_DIRECTORY		= "META-INF/versions/";
+
+	static boolean isPackageInScope(String packageName, ClassIndexSettings settings) {
+		Set<String> acceptedPackages = settings.getAcceptedPackages();
+		boolean accepted = acceptedPackages.isEmpty() || acceptedPackages.stream().anyMatch(p -> isPackageOrSubpackage(packageName, p));
+		return accepted && settings.getRejectedPackages().stream().noneMatch(p -> isPackageOrSubpackage(packageName, p));
+	}
+
+	private static boolean isPackageOrSubpackage(String packageName, String parentPackageName) {
+		return packageName.equals(parentPackageName) || packageName.startsWith(parentPackageName + ".");
+	}
+
+	private final ClassIndexSettings	settings;
+	private final List<Pattern>			acceptedJars;
+	private final List<Pattern>			rejectedJars;
+	private final int					javaFeatureVersion;
+
+	/*
+	 * Class files are usually grouped by directories, so the result of the last package check is cached.
+	 * Instances must therefore not be shared by multiple threads.
+	 */
+	private @Nullable String			lastPackageName;
+	private boolean						lastPackageInScope;
+
+	ClassNameFilter(ClassIndexSettings settings) {
+		this.settings = settings;
+		this.acceptedJars = toPatterns(settings.getAcceptedJars());
+		this.rejectedJars = toPatterns(settings.getRejectedJars());
+		this.javaFeatureVersion = getJavaFeatureVersion();
+	}
+
+	/**
+	 * Returns a filter with the same settings that can be used by another thread
+	 */
+	ClassNameFilter copy() {
+		return new ClassNameFilter(settings);
+	}
+
+	boolean acceptsModule(String moduleName) {
+		Set<String> acceptedModules = settings.getAcceptedModules();
+		return (acceptedModules.isEmpty() || acceptedModules.contains(moduleName))
+			&& !settings.getRejectedModules().contains(moduleName);
+	}
+
+	boolean acceptsJar(String jarFileName) {
+		return (acceptedJars.isEmpty() || matchesAny(jarFileName, acceptedJars))
+			&& !matchesAny(jarFileName, rejectedJars);
+	}
+
+	/**
+	 * Returns the normalized class name for the path of a class file relative to the root of a jar or a
+	 * directory, or {@code null} if the file is not a class file, does not describe a regular class (e.g.,
+	 * {@code module-info.class}), or the class is not in scope. Paths must be separated by '/'.
+	 */
+	@Nullable
+	String toClassName(String path) {
+		if (!path.endsWith(CLASS_FILE_EXTENSION)) {
+			return null;
+		}
+		int begin = 0;
+		if (path.startsWith(MULTI_RELEASE_DIRECTORY)) {
+			int versionEnd = path.indexOf('/', MULTI_RELEASE_DIRECTORY.length());
+			if (versionEnd < 0 || !isSupportedVersion(path.substring(MULTI_RELEASE_DIRECTORY.length(), versionEnd))) {
+				return null;
+			}
+			begin = versionEnd + 1;
+		}
+		int end = path.length() - CLASS_FILE_EXTENSION.length();
+		if (!isValidBinaryName(path, begin, end)) {
+			return null;
+		}
+		String className = path.substring(begin, end).replace('/', '.');
+		return acceptsClass(className) ? className : null;
+	}
+
+	boolean acceptsClass(String className) {
+		int lastDotIndex = className.lastIndexOf('.');
+		String packageName = lastDotIndex < 0 ? "" : className.substring(0, lastDotIndex);
+		if (!packageName.equals(lastPackageName)) {
+			lastPackageName = packageName;
+			lastPackageInScope = isPackageInScope(packageName, settings);
+		}
+		return lastPackageInScope;
+	}
+
+	/**
+	 * Without parsing the class file, inner classes can only be recognized by the '$' in their names
+	 */
+	static boolean isInnerClass(String className) {
+		int simpleNameBegin = className.lastIndexOf('.') + 1;
+		return className.indexOf('$', simpleNameBegin + 1) > 0;
+	}
+
+	private boolean isSupportedVersion(String version) {
+		try {
+			return Integer.parseInt(version) <= javaFeatureVersion;
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	private static boolean isValidBinaryName(String path, int begin, int end) {
+		boolean segmentStart = true;
+		for (int i = begin; i < end; i++) {
+			char c = path.charAt(i);
+			if (c == '/') {
+				if (segmentStart) {
+					return false;
+				}
+				segmentStart = true;
+			} else if (segmentStart) {
+				if (!Character.isJavaIdentifierStart(c)) {
+					return false;
+				}
+				segmentStart = false;
+			} else if (!Character.isJavaIdentifierPart(c)) {
+				return false;
+			}
+		}
+		return !segmentStart;
+	}
+
+	private static boolean matchesAny(String jarFileName, List<Pattern> patterns) {
+		for (Pattern pattern : patterns) {
+			if (pattern.matcher(jarFileName).matches()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static List<Pattern> toPatterns(Set<String> jarFileNames) {
+		return jarFileNames.stream()
+			.map(jarFileName -> Pattern.compile(Pattern.quote(jarFileName).replace("*", "\\E.*\\Q")))
+			.collect(Collectors.toList());
+	}
+
+	private static int getJavaFeatureVersion() {
+		String specificationVersion = System.getProperty("java.specification.version", "1.8");
+		if (specificationVersion.startsWith("1.")) {
+			specificationVersion = specificationVersion.substring(2);
+		}
+		try {
+			return Integer.parseInt(specificationVersion);
+		} catch (NumberFormatException e) {
+			return 8;
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package dd.kms.zenodot.impl.classindex;
+
+import dd.kms.zenodot.api.settings.ClassIndexSettings;
+import dd.kms.zenodot.api.settings.ClassScanner;
+
+import java.nio.file.Path;
+import java.util.Set;
+
+/**
+ * Collects the names of the classes of a class source. Only the names and whether a class is an
+ * inner class are required for the class index.
+ */
+interface ClassNameScanner
+{
+	static ClassNameScanner get(ClassIndexSettings settings) {
+		return settings.getClassScanner() == ClassScanner.NIO
+			? NioClassNameScanner.INSTANCE
+			: ClassGraphClassNameScanner.INSTANCE;
+	}
+
+	/**
+	 * Scans the class path and, depending on the settings, the runtime image. The excluded class path
+	 * elements (absolute and normalized) are not scanned.
+	 */
+	ClassNameTable scanClassPath(ClassIndexSettings settings, Set<Path> excludedClassPathElements);
+
+	/**
+	 * Scans a single jar file or class directory. Only the package filters of the settings are applied.
+	 */
+	ClassNameTable scanClassPathElement(Path jarOrDirectory, ClassIndexSettings settings);
+
+	/**
+	 * Scans the class path of a single {@link ClassLoader} without its parents. Only the package filters
+	 * of the settings are applied.
+	 */
+	ClassNameTable scanClassLoader(ClassLoader classLoader, ClassIndexSettings settings);
+}
@@ -0,0 +1,118 @@
+package dd.kms.zenodot.impl.classindex;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Immutable table of fully qualified (normalized) class names. The names are stored in a single
+ * character buffer and are referenced by offsets. This allows backing the table either by heap
+ * buffers (after scanning the class path) or by a memory-mapped index file (see {@link ClassIndexFile})
+ * without having to decode all class names up front.<br>
+ * <br>
+ * A table is incomplete if some class sources could not be scanned. Such tables are not persisted.
+ */
+public class ClassNameTable
+{
+	static final byte	INNER_CLASS_FLAG	= 1;
+
+	private final CharBuffer	names;
+	private final IntBuffer		offsets;
+	private final ByteBuffer	flags;
+	private final boolean		complete;
+
+	ClassNameTable(CharBuffer names, IntBuffer offsets, ByteBuffer flags) {
+		this(names, offsets, flags, true);
+	}
+
+	private ClassNameTable(CharBuffer names, IntBuffer offsets, ByteBuffer flags, boolean complete) {
+		this.names = names;
+		this.offsets = offsets;
+		this.flags = flags;
+		this.complete = complete;
+	}
+
+	public int size() {
+		return flags.limit();
+	}
+
+	public String getName(int index) {
+		int begin = offsets.get(index);
+		int end = offsets.get(index + 1);
+		return names.subSequence(begin, end).toString();
+	}
+
+	/**
+	 * Compares the name at the specified index with the specified name like {@link String#compareTo(String)}
+	 * does, but without creating a string.
+	 */
+	public int compareName(int index, String name) {
+		int begin = offsets.get(index);
+		int length = offsets.get(index + 1) - begin;
+		int commonLength = Math.min(length, name.length());
+		for (int i = 0; i < commonLength; i++) {
+			char c = names.get(begin + i);
+			char d = name.charAt(i);
+			if (c != d) {
+				return c - d;
+			}
+		}
+		return length - name.length();
+	}
+
+	public boolean isInnerClass(int index) {
+		return (flags.get(index) & INNER_CLASS_FLAG) != 0;
+	}
+
+	public boolean isComplete() {
+		return complete;
+	}
+
+	CharBuffer getNames() {
+		return names.duplicate();
+	}
+
+	IntBuffer getOffsets() {
+		return offsets.duplicate();
+	}
+
+	ByteBuffer getFlags() {
+		return flags.duplicate();
+	}
+
+	public static class Builder
+	{
+		private final StringBuilder	names		= new StringBuilder();
+		private int[]				offsets		= new int[1024];
+		private byte[]				flags		= new byte[1024];
+		private int					numClasses;
+		private boolean				complete	= true;
+
+		public Builder add(String normalizedClassName, boolean innerClass) {
+			if (numClasses + 1 >= offsets.length) {
+				offsets = Arrays.copyOf(offsets, 2*offsets.length);
+				flags = Arrays.copyOf(flags, 2*flags.length);
+			}
+			names.append(normalizedClassName);
+			flags[numClasses] = innerClass ? INNER_CLASS_FLAG : 0;
+			offsets[++numClasses] = names.length();
+			return this;
+		}
+
+		/**
+		 * Marks the table as incomplete because some class sources could not be scanned
+		 */
+		public Builder incomplete() {
+			complete = false;
+			return this;
+		}
+
+		public ClassNameTable build() {
+			CharBuffer nameBuffer = CharBuffer.wrap(names.toString());
+			IntBuffer offsetBuffer = IntBuffer.wrap(Arrays.copyOf(offsets, numClasses + 1));
+			ByteBuffer flagBuffer = ByteBuffer.wrap(Arrays.copyOf(flags, numClasses));
+			return new ClassNameTable(nameBuffer, offsetBuffer, flagBuffer, complete);
+		}
+	}
+}
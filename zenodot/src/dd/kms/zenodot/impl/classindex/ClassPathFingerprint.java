@@ -0,0 +1,121 @@
+package dd.kms.zenodot.impl.classindex;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import dd.kms.zenodot.api.settings.ClassIndexSettings;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Describes the state of the class path and the runtime image. If one of the class path entries or the
+ * runtime image changes, then the fingerprint changes as well. This is used to decide whether a persisted
+ * class index can still be used or whether it has to be rebuilt.<br>
+ * <br>
+ * The fingerprint is based on file sizes and modification times only. It does not read the content
+ * of any file, so computing it is cheap compared to scanning the class path.
+ */
+class ClassPathFingerprint
+{
+	private static final String[]	RUNTIME_IMAGE_FILES	= { "lib/modules", "lib/rt.jar", "jre/lib/rt.jar" };
+
+	private final ClassIndexSettings	settings;
+	private final String				javaHome;
+	private final String				javaVersion;
+	private final List<String>			classPathEntries;
+
+	ClassPathFingerprint(ClassIndexSettings settings) {
+		this.settings = settings;
+		this.javaHome = System.getProperty("java.home", "");
+		this.javaVersion = System.getProperty("java.version", "");
+		String classPath = System.getProperty("java.class.path", "");
+		this.classPathEntries = Splitter.on(File.pathSeparatorChar).omitEmptyStrings().splitToList(classPath);
+	}
+
+	/**
+	 * Returns a hash that identifies the configuration, but not the state, of the class path. Class paths
+	 * with the same configuration and scanned with the same settings share the same index file. The index
+	 * file is rebuilt if the state of the class path differs from the state the index file has been built for.
+	 */
+	String getConfigurationId() {
+		Hasher hasher = Hashing.murmur3_128().newHasher();
+		hasher.putString(javaHome, StandardCharsets.UTF_8);
+		for (String classPathEntry : classPathEntries) {
+			hasher.putString(classPathEntry, StandardCharsets.UTF_8);
+		}
+		hasher.putBoolean(settings.isScanSystemJarsAndModules());
+		putStrings(hasher, settings.getAcceptedPackages());
+		putStrings(hasher, settings.getRejectedPackages());
+		putStrings(hasher, settings.getAcceptedModules());
+		putStrings(hasher, settings.getRejectedModules());
+		putStrings(hasher, settings.getAcceptedJars());
+		putStrings(hasher, settings.getRejectedJars());
+		hasher.putString(settings.getClassScanner().name(), StandardCharsets.UTF_8);
+		return hasher.hash().toString();
+	}
+
+	byte[] computeStateHash() {
+		Hasher hasher = Hashing.murmur3_128().newHasher();
+		hasher.putInt(ClassIndexFile.VERSION);
+		hasher.putString(javaHome, StandardCharsets.UTF_8);
+		hasher.putString(javaVersion, StandardCharsets.UTF_8);
+		Path javaHomePath = Paths.get(javaHome);
+		for (String runtimeImageFile : RUNTIME_IMAGE_FILES) {
+			putFileState(hasher, javaHomePath.resolve(runtimeImageFile));
+		}
+		for (String classPathEntry : classPathEntries) {
+			putFileState(hasher, Paths.get(classPathEntry));
+		}
+		return hasher.hash().asBytes();
+	}
+
+	private static void putStrings(Hasher hasher, Set<String> strings) {
+		// the order of the strings is irrelevant for the scan
+		Set<String> sortedStrings = ImmutableSortedSet.copyOf(strings);
+		hasher.putInt(sortedStrings.size());
+		for (String s : sortedStrings) {
+			hasher.putString(s, StandardCharsets.UTF_8);
+		}
+	}
+
+	private static void putFileState(Hasher hasher, Path path) {
+		hasher.putString(path.toString(), StandardCharsets.UTF_8);
+		if (Files.isDirectory(path)) {
+			/*
+			 * The modification time of a directory does not change when one of its nested files
+			 * changes. Hence, we have to consider all files. This is still cheap compared to
+			 * parsing all class files in that directory.
+			 */
+			try (Stream<Path> files = Files.walk(path)) {
+				files.sorted().forEach(file -> putRegularFileState(hasher, file));
+			} catch (IOException | UncheckedIOException e) {
+				hasher.putLong(-1);
+			}
+		} else {
+			putRegularFileState(hasher, path);
+		}
+	}
+
+	private static void putRegularFileState(Hasher hasher, Path file) {
+		try {
+			BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+			hasher.putString(file.toString(), StandardCharsets.UTF_8);
+			hasher.putLong(attributes.size());
+			hasher.putLong(attributes.lastModifiedTime().toMillis());
+		} catch (IOException e) {
+			// file does not exist (anymore)
+			hasher.putLong(-1);
+		}
+	}
+}
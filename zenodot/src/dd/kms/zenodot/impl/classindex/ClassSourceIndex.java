@@ -0,0 +1,228 @@
+package dd.kms.zenodot.impl.classindex;
+
+import com.google.common.collect.ImmutableSet;
+import dd.kms.zenodot.api.common.ClassInfo;
+import dd.kms.zenodot.framework.wrappers.InfoProvider;
+import dd.kms.zenodot.impl.utils.ClassUtils;
+
+import javax.annotation.Nullable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable index of the packages and classes of a single class source, e.g., the class path and
+ * the runtime image or a jar that has been registered later.<br>
+ * <br>
+ * The index does not hold any {@link ClassInfo}s. It references classes by their indices in the
+ * {@link ClassNameTable} and stores these indices in primitive arrays:
+ * <ul>
+ *     <li>The top level classes are sorted by their package names. Every package references the
+ *         range of its classes in this array.</li>
+ *     <li>All classes are sorted by their normalized names to check for the existence of a class.</li>
+ *     <li>All classes are additionally indexed by their unqualified names in a {@link PackedNameTrie} and in a
+ *         case-insensitive {@code PackedNameTrie} that supports lower case humps.</li>
+ * </ul>
+ * {@code ClassInfo}s are only created for the classes that are returned. If the source is the class
+ * path of a class loader that is not covered by the shared index, then the {@code ClassInfo}s load
+ * their classes via this class loader (see {@link ClassUtils#getClassLoaderScope(ClassLoader)}).<br>
+ * <br>
+ * The index of the class path and the runtime image is persisted including its arrays and tries (see {@link ClassIndexFile}).
+ */
+class ClassSourceIndex
+{
+	static final ClassSourceIndex	EMPTY	= create(new ClassNameTable.Builder().build());
+
+	static ClassSourceIndex create(ClassNameTable classNames) {
+		return create(classNames, null);
+	}
+
+	static ClassSourceIndex create(ClassNameTable classNames, @Nullable ClassLoader classLoaderScope) {
+		int numClasses = classNames.size();
+		String[] qualifiedNames = new String[numClasses];
+		String[] packageNamesOfClasses = new String[numClasses];
+		for (int i = 0; i < numClasses; i++) {
+			qualifiedNames[i] = classNames.getName(i);
+			packageNamesOfClasses[i] = classNames.isInnerClass(i) ? null : ClassUtils.getParentPath(qualifiedNames[i]);
+		}
+
+		// classes in the default package cannot be referenced by a qualified name
+		int[] topLevelClasses = IntStream.range(0, numClasses)
+			.filter(i -> packageNamesOfClasses[i] != null)
+			.boxed()
+			.sorted(Comparator.<Integer, String>comparing(i -> packageNamesOfClasses[i]).thenComparing(i -> qualifiedNames[i]))
+			.mapToInt(Integer::intValue)
+			.toArray();
+		int numPackages = (int) Arrays.stream(topLevelClasses).mapToObj(i -> packageNamesOfClasses[i]).distinct().count();
+		String[] packageNames = new String[numPackages];
+		int[] firstClassesOfPackages = new int[numPackages + 1];
+		int packageIndex = -1;
+		for (int i = 0; i < topLevelClasses.length; i++) {
+			String packageName = packageNamesOfClasses[topLevelClasses[i]];
+			if (packageIndex < 0 || !packageNames[packageIndex].equals(packageName)) {
+				packageNames[++packageIndex] = packageName;
+				firstClassesOfPackages[packageIndex] = i;
+			}
+		}
+		firstClassesOfPackages[numPackages] = topLevelClasses.length;
+
+		int[] classesSortedByName = IntStream.range(0, numClasses)
+			.boxed()
+			.sorted(Comparator.comparing(i -> qualifiedNames[i]))
+			.mapToInt(Integer::intValue)
+			.toArray();
+
+		String[] unqualifiedNames = new String[numClasses];
+		for (int i = 0; i < numClasses; i++) {
+			unqualifiedNames[i] = ClassUtils.getLeafOfPath(qualifiedNames[i]);
+		}
+		int[] classesSortedByUnqualifiedNames = IntStream.range(0, numClasses)
+			.boxed()
+			.sorted(Comparator.comparing(i -> unqualifiedNames[i]))
+			.mapToInt(Integer::intValue)
+			.toArray();
+		String[] sortedUnqualifiedNames = Arrays.stream(classesSortedByUnqualifiedNames).mapToObj(i -> unqualifiedNames[i]).toArray(String[]::new);
+		PackedNameTrie classesByUnqualifiedNames = PackedNameTrie.create(sortedUnqualifiedNames, classesSortedByUnqualifiedNames);
+		PackedNameTrie classesByUnqualifiedNamesIgnoringCase = PackedNameTrie.createIgnoringCase(sortedUnqualifiedNames, classesSortedByUnqualifiedNames);
+
+		return new ClassSourceIndex(classNames, classesSortedByName, packageNames, firstClassesOfPackages, topLevelClasses, classesByUnqualifiedNames, classesByUnqualifiedNamesIgnoringCase, classLoaderScope);
+	}
+
+	/**
+	 * Restores an index written by {@link #write(DataOutputStream)} for the specified class names. In contrast to
+	 * {@link #create(ClassNameTable, ClassLoader)}, the classes are neither sorted nor are the tries built again.
+	 * Only the names of the packages are decoded.
+	 */
+	static ClassSourceIndex read(ClassNameTable classNames, ByteBuffer buffer) {
+		int[] classesSortedByName = ClassIndexFile.readInts(buffer, classNames.size());
+		int[] topLevelClasses = ClassIndexFile.readInts(buffer, buffer.getInt());
+		int numPackages = buffer.getInt();
+		int[] firstClassesOfPackages = ClassIndexFile.readInts(buffer, numPackages + 1);
+		String[] packageNames = new String[numPackages];
+		for (int i = 0; i < numPackages; i++) {
+			packageNames[i] = ClassUtils.getParentPath(classNames.getName(topLevelClasses[firstClassesOfPackages[i]]));
+		}
+		PackedNameTrie classesByUnqualifiedNames = PackedNameTrie.read(buffer);
+		PackedNameTrie classesByUnqualifiedNamesIgnoringCase = PackedNameTrie.read(buffer);
+		return new ClassSourceIndex(classNames, classesSortedByName, packageNames, firstClassesOfPackages, topLevelClasses, classesByUnqualifiedNames, classesByUnqualifiedNamesIgnoringCase, null);
+	}
+
+	private final ClassNameTable						classNames;
+	private final int[]									classesSortedByName;
+	private final String[]								packageNames;
+	private final int[]									firstClassesOfPackages;
+	private final int[]									topLevelClasses;
+	private final PackedNameTrie						classesByUnqualifiedNames;
+	private final PackedNameTrie						classesByUnqualifiedNamesIgnoringCase;
+	private final @Nullable WeakReference<ClassLoader>	classLoaderScope;
+
+	private ClassSourceIndex(ClassNameTable classNames, int[] classesSortedByName, String[] packageNames, int[] firstClassesOfPackages, int[] topLevelClasses, PackedNameTrie classesByUnqualifiedNames, PackedNameTrie classesByUnqualifiedNamesIgnoringCase, @Nullable ClassLoader classLoaderScope) {
+		this.classNames = classNames;
+		this.classesSortedByName = classesSortedByName;
+		this.packageNames = packageNames;
+		this.firstClassesOfPackages = firstClassesOfPackages;
+		this.topLevelClasses = topLevelClasses;
+		this.classesByUnqualifiedNames = classesByUnqualifiedNames;
+		this.classesByUnqualifiedNamesIgnoringCase = classesByUnqualifiedNamesIgnoringCase;
+		this.classLoaderScope = classLoaderScope == null ? null : new WeakReference<>(classLoaderScope);
+	}
+
+	ClassNameTable getClassNames() {
+		return classNames;
+	}
+
+	/**
+	 * Writes the sorted class indices and the tries, but not the class names (see {@link ClassIndexFile})
+	 */
+	void write(DataOutputStream out) throws IOException {
+		ClassIndexFile.writeInts(out, classesSortedByName);
+		out.writeInt(topLevelClasses.length);
+		ClassIndexFile.writeInts(out, topLevelClasses);
+		out.writeInt(packageNames.length);
+		ClassIndexFile.writeInts(out, firstClassesOfPackages);
+		classesByUnqualifiedNames.write(out);
+		classesByUnqualifiedNamesIgnoringCase.write(out);
+	}
+
+	/**
+	 * Returns the names of all packages that contain top level classes. Their parent packages are not included.
+	 */
+	List<String> getPackageNames() {
+		return Arrays.asList(packageNames);
+	}
+
+	boolean containsClass(String normalizedClassName) {
+		int low = 0;
+		int high = classesSortedByName.length - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int comparison = classNames.compareName(classesSortedByName[mid], normalizedClassName);
+			if (comparison < 0) {
+				low = mid + 1;
+			} else if (comparison > 0) {
+				high = mid - 1;
+			} else {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	Set<ClassInfo> getTopLevelClasses(String packageName) {
+		int packageIndex = Arrays.binarySearch(packageNames, packageName);
+		if (packageIndex < 0) {
+			return ImmutableSet.of();
+		}
+		ImmutableSet.Builder<ClassInfo> classesBuilder = ImmutableSet.builder();
+		for (int i = firstClassesOfPackages[packageIndex]; i < firstClassesOfPackages[packageIndex + 1]; i++) {
+			classesBuilder.add(createClassInfo(topLevelClasses[i]));
+		}
+		return classesBuilder.build();
+	}
+
+	/**
+	 * Returns the best matching classes mapped to their ranks, best matches first (see {@link PackedNameTrie#searchBest(String, int, PackedNameTrie.RankedValueConsumer)})
+	 */
+	Map<ClassInfo, Integer> searchClassesByUnqualifiedName(String unqualifiedNamePattern, int maxNumberOfResults) {
+		Map<ClassInfo, Integer> rankedClasses = new LinkedHashMap<>();
+		classesByUnqualifiedNames.searchBest(unqualifiedNamePattern, maxNumberOfResults, (classIndex, rank) -> rankedClasses.putIfAbsent(createClassInfo(classIndex), rank) == null);
+		return rankedClasses;
+	}
+
+	/**
+	 * Like {@link #searchClassesByUnqualifiedName(String, int)}, but ignores case and allows every character of the pattern
+	 * to match a hump (see {@link PackedNameTrie#createIgnoringCase(String[], int[])})
+	 */
+	Map<ClassInfo, Integer> searchClassesByUnqualifiedNameIgnoringCase(String unqualifiedNamePattern, int maxNumberOfResults) {
+		Map<ClassInfo, Integer> rankedClasses = new LinkedHashMap<>();
+		classesByUnqualifiedNamesIgnoringCase.searchBest(unqualifiedNamePattern, maxNumberOfResults, (classIndex, rank) -> rankedClasses.putIfAbsent(createClassInfo(classIndex), rank) == null);
+		return rankedClasses;
+	}
+
+	/**
+	 * Returns the classes whose unqualified names start with the pattern when allowing typos, mapped to their numbers of
+	 * typos (see {@link PackedNameTrie#searchWithTypos(String, int, int, PackedNameTrie.RankedValueConsumer)})
+	 */
+	Map<ClassInfo, Integer> searchClassesByUnqualifiedNameWithTypos(String unqualifiedName, int maxTypos, int maxNumberOfResults) {
+		Map<ClassInfo, Integer> rankedClasses = new LinkedHashMap<>();
+		classesByUnqualifiedNamesIgnoringCase.searchWithTypos(unqualifiedName, maxTypos, maxNumberOfResults, (classIndex, rank) -> rankedClasses.putIfAbsent(createClassInfo(classIndex), rank) == null);
+		return rankedClasses;
+	}
+
+	private ClassInfo createClassInfo(int classIndex) {
+		String className = classNames.getName(classIndex);
+		if (classLoaderScope == null) {
+			return InfoProvider.createClassInfoUnchecked(className);
+		}
+		// the class loader cannot have been garbage collected while its index is in use
+		return InfoProvider.createClassInfoUnchecked(className, classLoaderScope.get());
+	}
+}
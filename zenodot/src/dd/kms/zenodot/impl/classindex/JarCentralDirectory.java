@@ -0,0 +1,221 @@
+package dd.kms.zenodot.impl.classindex;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Reads the entry names of a jar file from its central directory. The jar file is memory-mapped, so only
+ * the pages of the central directory are actually read. The entries themselves are not decompressed, except
+ * for single entries like the manifest that are requested explicitly.<br>
+ * <br>
+ * See the <a href="https://pkware.cachefly.net/webdocs/casestudies/APPNOTE.TXT">ZIP file format specification</a>
+ * for the meaning of the signatures and offsets.
+ */
+class JarCentralDirectory
+{
+	private static final int	END_OF_CENTRAL_DIRECTORY_SIGNATURE					= 0x06054b50;
+	private static final int	END_OF_CENTRAL_DIRECTORY_SIZE						= 22;
+	private static final int	ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIGNATURE	= 0x07064b50;
+	private static final int	ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIZE			= 20;
+	private static final int	ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE			= 0x06064b50;
+	private static final int	CENTRAL_DIRECTORY_ENTRY_SIGNATURE					= 0x02014b50;
+	private static final int	CENTRAL_DIRECTORY_ENTRY_SIZE						= 46;
+	private static final int	LOCAL_FILE_HEADER_SIGNATURE							= 0x04034b50;
+	private static final int	LOCAL_FILE_HEADER_SIZE								= 30;
+	private static final int	MAX_COMMENT_LENGTH									= 0xFFFF;
+
+	private static final int	METHOD_STORED										= 0;
+	private static final int	METHOD_DEFLATED										= 8;
+
+	static JarCentralDirectory open(Path jarFile) throws IOException {
+		try (FileChannel channel = FileChannel.open(jarFile, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new ZipException("Jar files larger than 2 GB are not supported: " + jarFile);
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			return new JarCentralDirectory(jarFile, buffer);
+		}
+	}
+
+	private final Path			jarFile;
+	private final ByteBuffer	buffer;
+	private final int			centralDirectoryOffset;
+	private final int			numEntries;
+
+	private JarCentralDirectory(Path jarFile, ByteBuffer buffer) throws ZipException {
+		this.jarFile = jarFile;
+		this.buffer = buffer;
+
+		int endOfCentralDirectory = findEndOfCentralDirectory();
+		long centralDirectoryOffset = getUnsignedInt(endOfCentralDirectory + 16);
+		long numEntries = getUnsignedShort(endOfCentralDirectory + 10);
+		if (centralDirectoryOffset == 0xFFFFFFFFL || numEntries == 0xFFFF) {
+			int locator = endOfCentralDirectory - ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIZE;
+			if (locator >= 0 && buffer.getInt(locator) == ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIGNATURE) {
+				int zip64EndOfCentralDirectory = toOffset(buffer.getLong(locator + 8));
+				checkSignature(zip64EndOfCentralDirectory, ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE);
+				numEntries = buffer.getLong(zip64EndOfCentralDirectory + 32);
+				centralDirectoryOffset = buffer.getLong(zip64EndOfCentralDirectory + 48);
+			}
+		}
+		this.centralDirectoryOffset = toOffset(centralDirectoryOffset);
+		this.numEntries = toOffset(numEntries);
+	}
+
+	/**
+	 * Passes the names of all entries to the consumer. Only the names of entries whose name ends with
+	 * {@code suffix} are decoded.
+	 */
+	void forEachEntryName(String suffix, Consumer<String> consumer) throws ZipException {
+		byte[] suffixBytes = suffix.getBytes(StandardCharsets.UTF_8);
+		byte[] nameBytes = new byte[256];
+		int position = centralDirectoryOffset;
+		for (int i = 0; i < numEntries; i++) {
+			checkSignature(position, CENTRAL_DIRECTORY_ENTRY_SIGNATURE);
+			int nameLength = getUnsignedShort(position + 28);
+			int extraFieldLength = getUnsignedShort(position + 30);
+			int commentLength = getUnsignedShort(position + 32);
+			int nameOffset = position + CENTRAL_DIRECTORY_ENTRY_SIZE;
+			if (endsWith(nameOffset, nameLength, suffixBytes)) {
+				if (nameBytes.length < nameLength) {
+					nameBytes = new byte[2*nameLength];
+				}
+				getBytes(nameOffset, nameBytes, nameLength);
+				consumer.accept(new String(nameBytes, 0, nameLength, StandardCharsets.UTF_8));
+			}
+			position = nameOffset + nameLength + extraFieldLength + commentLength;
+		}
+	}
+
+	/**
+	 * Returns the uncompressed content of the entry with the specified name or {@code null} if there is no such entry
+	 */
+	@Nullable
+	byte[] readEntry(String entryName) throws ZipException {
+		byte[] entryNameBytes = entryName.getBytes(StandardCharsets.UTF_8);
+		int position = centralDirectoryOffset;
+		for (int i = 0; i < numEntries; i++) {
+			checkSignature(position, CENTRAL_DIRECTORY_ENTRY_SIGNATURE);
+			int nameLength = getUnsignedShort(position + 28);
+			int extraFieldLength = getUnsignedShort(position + 30);
+			int commentLength = getUnsignedShort(position + 32);
+			int nameOffset = position + CENTRAL_DIRECTORY_ENTRY_SIZE;
+			if (nameLength == entryNameBytes.length && endsWith(nameOffset, nameLength, entryNameBytes)) {
+				int method = getUnsignedShort(position + 10);
+				int compressedSize = toOffset(getUnsignedInt(position + 20));
+				int uncompressedSize = toSize(getUnsignedInt(position + 24));
+				int localHeader = toOffset(getUnsignedInt(position + 42));
+				return readData(localHeader, method, compressedSize, uncompressedSize);
+			}
+			position = nameOffset + nameLength + extraFieldLength + commentLength;
+		}
+		return null;
+	}
+
+	private byte[] readData(int localHeader, int method, int compressedSize, int uncompressedSize) throws ZipException {
+		checkSignature(localHeader, LOCAL_FILE_HEADER_SIGNATURE);
+		int dataOffset = localHeader + LOCAL_FILE_HEADER_SIZE + getUnsignedShort(localHeader + 26) + getUnsignedShort(localHeader + 28);
+		byte[] compressedData = new byte[compressedSize];
+		getBytes(dataOffset, compressedData, compressedSize);
+		if (method == METHOD_STORED) {
+			return compressedData;
+		}
+		if (method != METHOD_DEFLATED) {
+			throw new ZipException("Unsupported compression method " + method + " in " + jarFile);
+		}
+		Inflater inflater = new Inflater(true);
+		try {
+			inflater.setInput(compressedData);
+			byte[] data = new byte[uncompressedSize];
+			int numInflatedBytes = 0;
+			while (numInflatedBytes < uncompressedSize && !inflater.finished()) {
+				int n = inflater.inflate(data, numInflatedBytes, uncompressedSize - numInflatedBytes);
+				if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					break;
+				}
+				numInflatedBytes += n;
+			}
+			if (numInflatedBytes != uncompressedSize) {
+				throw new ZipException("Corrupt entry in " + jarFile);
+			}
+			return data;
+		} catch (DataFormatException e) {
+			throw new ZipException("Corrupt entry in " + jarFile + ": " + e.getMessage());
+		} finally {
+			inflater.end();
+		}
+	}
+
+	private int findEndOfCentralDirectory() throws ZipException {
+		int last = buffer.limit() - END_OF_CENTRAL_DIRECTORY_SIZE;
+		int first = Math.max(0, last - MAX_COMMENT_LENGTH);
+		for (int position = last; position >= first; position--) {
+			if (buffer.getInt(position) == END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+				return position;
+			}
+		}
+		throw new ZipException("No central directory found in " + jarFile);
+	}
+
+	private boolean endsWith(int offset, int length, byte[] suffix) {
+		if (length < suffix.length) {
+			return false;
+		}
+		int begin = offset + length - suffix.length;
+		for (int i = 0; i < suffix.length; i++) {
+			if (buffer.get(begin + i) != suffix[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void getBytes(int offset, byte[] bytes, int length) {
+		ByteBuffer view = buffer.duplicate();
+		// cast required for Java 8 compatibility
+		((Buffer) view).position(offset);
+		view.get(bytes, 0, length);
+	}
+
+	private void checkSignature(int offset, int signature) throws ZipException {
+		if (offset < 0 || offset + 4 > buffer.limit() || buffer.getInt(offset) != signature) {
+			throw new ZipException("Invalid zip structure in " + jarFile);
+		}
+	}
+
+	private int getUnsignedShort(int offset) {
+		return buffer.getShort(offset) & 0xFFFF;
+	}
+
+	private long getUnsignedInt(int offset) {
+		return buffer.getInt(offset) & 0xFFFFFFFFL;
+	}
+
+	private int toSize(long value) throws ZipException {
+		if (value > Integer.MAX_VALUE - 8) {
+			throw new ZipException("Entry too large in " + jarFile);
+		}
+		return (int) value;
+	}
+
+	private int toOffset(long value) throws ZipException {
+		if (value < 0 || value > buffer.limit()) {
+			throw new ZipException("Invalid zip structure in " + jarFile);
+		}
+		return (int) value;
+	}
+}
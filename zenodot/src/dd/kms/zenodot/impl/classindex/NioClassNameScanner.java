@@ -0,0 +1,318 @@
+package dd.kms.zenodot.impl.classindex;
+
+import com.google.common.base.Splitter;
+import dd.kms.zenodot.api.settings.ClassIndexSettings;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.jar.Attributes;
+import java.util.jar.Manifest;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Collects class names by listing files instead of parsing class files:
+ * <ul>
+ *     <li>The modules of the runtime image are listed via the {@code jrt:/} file system (Java 9+). For
+ *         Java 8, the jars of the boot class path and the extension directories are scanned instead.</li>
+ *     <li>The entry names of jar files are read from their central directories (see {@link JarCentralDirectory}).
+ *         The {@code Class-Path} attribute of their manifests is considered.</li>
+ *     <li>Class directories are traversed.</li>
+ * </ul>
+ * Inner classes are recognized by the '$' in their names.<br>
+ * <br>
+ * Class sources that cannot be read are skipped. They are logged and the resulting table is marked as
+ * incomplete such that it is not persisted.
+ */
+class NioClassNameScanner implements ClassNameScanner
+{
+	static final ClassNameScanner	INSTANCE			= new NioClassNameScanner();
+
+	private static final Logger		LOGGER				= Logger.getLogger(NioClassNameScanner.class.getName());
+
+	private static final String		JRT_MODULES_PATH	= "/modules";
+	private static final String		MANIFEST_ENTRY		= "META-INF/MANIFEST.MF";
+
+	@Override
+	public ClassNameTable scanClassPath(ClassIndexSettings settings, Set<Path> excludedClassPathElements) {
+		ClassNameFilter filter = new ClassNameFilter(settings);
+		List<Callable<List<String>>> scanTasks = new ArrayList<>();
+		if (settings.isScanSystemJarsAndModules()) {
+			addRuntimeImageScanTasks(filter, scanTasks);
+		}
+		Set<Path> visitedClassPathElements = new HashSet<>(excludedClassPathElements);
+		for (Path classPathElement : getPaths(System.getProperty("java.class.path", ""))) {
+			addClassPathElementScanTasks(classPathElement, filter, true, visitedClassPathElements, scanTasks);
+		}
+		return scan(scanTasks, settings.getScanThreadCount());
+	}
+
+	@Override
+	public ClassNameTable scanClassPathElement(Path jarOrDirectory, ClassIndexSettings settings) {
+		List<Callable<List<String>>> scanTasks = new ArrayList<>();
+		addClassPathElementScanTasks(jarOrDirectory, new ClassNameFilter(settings), false, new HashSet<>(), scanTasks);
+		return scan(scanTasks, settings.getScanThreadCount());
+	}
+
+	@Override
+	public ClassNameTable scanClassLoader(ClassLoader classLoader, ClassIndexSettings settings) {
+		if (!(classLoader instanceof URLClassLoader)) {
+			return ClassGraphClassNameScanner.INSTANCE.scanClassLoader(classLoader, settings);
+		}
+		ClassNameFilter filter = new ClassNameFilter(settings);
+		List<Callable<List<String>>> scanTasks = new ArrayList<>();
+		Set<Path> visitedClassPathElements = new HashSet<>();
+		for (URL url : ((URLClassLoader) classLoader).getURLs()) {
+			Path path = toPath(url);
+			if (path != null) {
+				addClassPathElementScanTasks(path, filter, false, visitedClassPathElements, scanTasks);
+			}
+		}
+		return scan(scanTasks, settings.getScanThreadCount());
+	}
+
+	private static void addRuntimeImageScanTasks(ClassNameFilter filter, List<Callable<List<String>>> scanTasks) {
+		FileSystem jrtFileSystem = getJrtFileSystem();
+		if (jrtFileSystem == null) {
+			// Java 8: scan rt.jar and friends
+			Set<Path> visitedClassPathElements = new HashSet<>();
+			for (Path jar : getPaths(System.getProperty("sun.boot.class.path", ""))) {
+				addClassPathElementScanTasks(jar, filter, true, visitedClassPathElements, scanTasks);
+			}
+			for (Path extensionDirectory : getPaths(System.getProperty("java.ext.dirs", ""))) {
+				for (Path jar : listJars(extensionDirectory)) {
+					addClassPathElementScanTasks(jar, filter, true, visitedClassPathElements, scanTasks);
+				}
+			}
+			return;
+		}
+		// the runtime image may contain modules that are not resolved and whose classes cannot be loaded
+		Set<String> bootLayerModuleNames = getBootLayerModuleNames();
+		try (DirectoryStream<Path> modules = Files.newDirectoryStream(jrtFileSystem.getPath(JRT_MODULES_PATH))) {
+			for (Path module : modules) {
+				String moduleName = module.getFileName().toString();
+				if (bootLayerModuleNames.contains(moduleName) && filter.acceptsModule(moduleName)) {
+					ClassNameFilter taskFilter = filter.copy();
+					scanTasks.add(createScanTask(module, () -> scanDirectory(module, taskFilter)));
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void addClassPathElementScanTasks(Path classPathElement, ClassNameFilter filter, boolean applyJarFilter, Set<Path> visitedClassPathElements, List<Callable<List<String>>> scanTasks) {
+		Path normalizedClassPathElement = classPathElement.toAbsolutePath().normalize();
+		if (!visitedClassPathElements.add(normalizedClassPathElement)) {
+			return;
+		}
+		if (Files.isDirectory(normalizedClassPathElement)) {
+			ClassNameFilter taskFilter = filter.copy();
+			scanTasks.add(createScanTask(normalizedClassPathElement, () -> scanDirectory(normalizedClassPathElement, taskFilter)));
+			return;
+		}
+		Path jar = normalizedClassPathElement;
+		if (!Files.isRegularFile(jar)) {
+			return;
+		}
+		JarCentralDirectory centralDirectory;
+		try {
+			centralDirectory = JarCentralDirectory.open(jar);
+		} catch (IOException e) {
+			// like the JVM, we skip class path elements that cannot be read, but we report them as failed scans
+			scanTasks.add(createScanTask(jar, () -> { throw e; }));
+			return;
+		}
+		if (!applyJarFilter || filter.acceptsJar(jar.getFileName().toString())) {
+			ClassNameFilter taskFilter = filter.copy();
+			scanTasks.add(createScanTask(jar, () -> scanJar(centralDirectory, taskFilter)));
+		}
+		for (Path referencedJar : getManifestClassPath(jar, centralDirectory)) {
+			addClassPathElementScanTasks(referencedJar, filter, applyJarFilter, visitedClassPathElements, scanTasks);
+		}
+	}
+
+	/**
+	 * Wraps a scan task such that failures mention the scanned class source
+	 */
+	private static Callable<List<String>> createScanTask(Path classSource, Callable<List<String>> scanTask) {
+		return () -> {
+			try {
+				return scanTask.call();
+			} catch (IOException | UncheckedIOException e) {
+				throw new IOException("Cannot scan class source '" + classSource + "'", e);
+			}
+		};
+	}
+
+	private static List<String> scanJar(JarCentralDirectory centralDirectory, ClassNameFilter filter) throws IOException {
+		List<String> classNames = new ArrayList<>();
+		centralDirectory.forEachEntryName(".class", entryName -> {
+			String className = filter.toClassName(entryName);
+			if (className != null) {
+				classNames.add(className);
+			}
+		});
+		return classNames;
+	}
+
+	private static List<String> scanDirectory(Path directory, ClassNameFilter filter) throws IOException {
+		List<String> classNames = new ArrayList<>();
+		String separator = directory.getFileSystem().getSeparator();
+		try (Stream<Path> files = Files.walk(directory)) {
+			files.forEach(file -> {
+				String relativePath = directory.relativize(file).toString();
+				if (!"/".equals(separator)) {
+					relativePath = relativePath.replace(separator, "/");
+				}
+				String className = filter.toClassName(relativePath);
+				if (className != null) {
+					classNames.add(className);
+				}
+			});
+		}
+		return classNames;
+	}
+
+	private static ClassNameTable scan(List<Callable<List<String>>> scanTasks, int parallelism) {
+		List<String> classNames = new ArrayList<>();
+		boolean complete = true;
+		ExecutorService executorService = Executors.newFixedThreadPool(parallelism);
+		try {
+			for (Future<List<String>> future : executorService.invokeAll(scanTasks)) {
+				try {
+					classNames.addAll(future.get());
+				} catch (ExecutionException e) {
+					// skip class sources that cannot be read, but do not hide that the result is incomplete
+					LOGGER.log(Level.WARNING, e.getCause().getMessage(), e.getCause());
+					complete = false;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while scanning the class path", e);
+		} finally {
+			executorService.shutdown();
+		}
+
+		// classes may occur multiple times in the class path
+		Collections.sort(classNames);
+		ClassNameTable.Builder builder = new ClassNameTable.Builder();
+		if (!complete) {
+			builder.incomplete();
+		}
+		String lastClassName = null;
+		for (String className : classNames) {
+			if (!className.equals(lastClassName)) {
+				builder.add(className, ClassNameFilter.isInnerClass(className));
+				lastClassName = className;
+			}
+		}
+		return builder.build();
+	}
+
+	private static List<Path> getManifestClassPath(Path jar, JarCentralDirectory centralDirectory) {
+		String classPath;
+		try {
+			byte[] manifestContent = centralDirectory.readEntry(MANIFEST_ENTRY);
+			if (manifestContent == null) {
+				return Collections.emptyList();
+			}
+			Manifest manifest = new Manifest(new ByteArrayInputStream(manifestContent));
+			classPath = manifest.getMainAttributes().getValue(Attributes.Name.CLASS_PATH);
+		} catch (IOException e) {
+			return Collections.emptyList();
+		}
+		if (classPath == null) {
+			return Collections.emptyList();
+		}
+		Path parent = jar.getParent();
+		URI baseUri = parent != null ? parent.toUri() : jar.toUri();
+		List<Path> paths = new ArrayList<>();
+		for (String entry : Splitter.on(' ').omitEmptyStrings().split(classPath)) {
+			try {
+				Path path = toPath(baseUri.resolve(entry).toURL());
+				if (path != null) {
+					paths.add(path);
+				}
+			} catch (IOException | IllegalArgumentException e) {
+				/* ignore invalid entries */
+			}
+		}
+		return paths;
+	}
+
+	@Nullable
+	private static Path toPath(URL url) {
+		if (!"file".equals(url.getProtocol())) {
+			return null;
+		}
+		try {
+			return Paths.get(url.toURI());
+		} catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException e) {
+			return null;
+		}
+	}
+
+	private static List<Path> getPaths(String pathList) {
+		List<Path> paths = new ArrayList<>();
+		for (String path : Splitter.on(File.pathSeparatorChar).omitEmptyStrings().split(pathList)) {
+			try {
+				paths.add(Paths.get(path));
+			} catch (InvalidPathException e) {
+				/* ignore invalid entries */
+			}
+		}
+		return paths;
+	}
+
+	private static List<Path> listJars(Path directory) {
+		List<Path> jars = new ArrayList<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.jar")) {
+			files.forEach(jars::add);
+		} catch (IOException e) {
+			/* ignore directories that cannot be read */
+		}
+		return jars;
+	}
+
+	/**
+	 * Returns the names of the modules of the boot layer. Uses reflection because Zenodot is compiled for Java 8.
+	 */
+	private static Set<String> getBootLayerModuleNames() {
+		try {
+			Class<?> moduleLayerClass = Class.forName("java.lang.ModuleLayer");
+			Object bootLayer = moduleLayerClass.getMethod("boot").invoke(null);
+			Set<?> modules = (Set<?>) moduleLayerClass.getMethod("modules").invoke(bootLayer);
+			Method getNameMethod = Class.forName("java.lang.Module").getMethod("getName");
+			Set<String> moduleNames = new HashSet<>();
+			for (Object module : modules) {
+				moduleNames.add((String) getNameMethod.invoke(module));
+			}
+			return moduleNames;
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Cannot determine the modules of the boot layer", e);
+		}
+	}
+
+	@Nullable
+	private static FileSystem getJrtFileSystem() {
+		try {
+			return FileSystems.getFileSystem(URI.create("jrt:/"));
+		} catch (ProviderNotFoundException | FileSystemNotFoundException e) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,125 @@
+package dd.kms.zenodot.impl.classindex;
+
+import com.google.common.collect.ImmutableList;
+
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * Immutable hierarchy of packages. Every node represents a package and references its direct
+ * subpackages sorted by their simple names. Hence, checking whether a package exists requires
+ * one lookup per package name segment and listing the subpackages of a package requires a single
+ * node lookup, independent of the total number of packages.
+ */
+public class PackageTrie
+{
+	public static final PackageTrie	EMPTY	= create(ImmutableList.of());
+
+	/**
+	 * Creates a trie that contains the specified packages and all of their parent packages
+	 */
+	public static PackageTrie create(Collection<String> packageNames) {
+		MutableNode root = new MutableNode(null);
+		for (String packageName : packageNames) {
+			MutableNode node = root;
+			int segmentBegin = 0;
+			while (segmentBegin <= packageName.length()) {
+				int segmentEnd = packageName.indexOf('.', segmentBegin);
+				if (segmentEnd < 0) {
+					segmentEnd = packageName.length();
+				}
+				String segment = packageName.substring(segmentBegin, segmentEnd);
+				String subpackageName = packageName.substring(0, segmentEnd);
+				node = node.children.computeIfAbsent(segment, s -> new MutableNode(subpackageName));
+				segmentBegin = segmentEnd + 1;
+			}
+		}
+		return new PackageTrie(root.freeze());
+	}
+
+	private final Node	root;
+
+	private PackageTrie(Node root) {
+		this.root = root;
+	}
+
+	public boolean packageExists(String packageName) {
+		return getNode(packageName) != null;
+	}
+
+	/**
+	 * Returns the fully qualified names of the direct subpackages of the specified package. If
+	 * {@code parentPackageName} is {@code null}, then the top level packages are returned.
+	 */
+	public List<String> getSubpackages(@Nullable String parentPackageName) {
+		Node node = parentPackageName == null ? root : getNode(parentPackageName);
+		if (node == null) {
+			return ImmutableList.of();
+		}
+		List<String> subpackageNames = new ArrayList<>(node.children.length);
+		for (Node child : node.children) {
+			subpackageNames.add(child.packageName);
+		}
+		return subpackageNames;
+	}
+
+	@Nullable
+	private Node getNode(String packageName) {
+		Node node = root;
+		int segmentBegin = 0;
+		while (node != null && segmentBegin <= packageName.length()) {
+			int segmentEnd = packageName.indexOf('.', segmentBegin);
+			if (segmentEnd < 0) {
+				segmentEnd = packageName.length();
+			}
+			node = node.getChild(packageName.substring(segmentBegin, segmentEnd));
+			segmentBegin = segmentEnd + 1;
+		}
+		return node;
+	}
+
+	private static class Node
+	{
+		private static final Node[]	NO_CHILDREN	= new Node[0];
+
+		private final String	packageName;
+		private final String[]	childSegments;
+		private final Node[]	children;
+
+		Node(String packageName, String[] childSegments, Node[] children) {
+			this.packageName = packageName;
+			this.childSegments = childSegments;
+			this.children = children;
+		}
+
+		@Nullable
+		Node getChild(String segment) {
+			int index = Arrays.binarySearch(childSegments, segment);
+			return index >= 0 ? children[index] : null;
+		}
+	}
+
+	private static class MutableNode
+	{
+		private static final String[]	NO_CHILD_SEGMENTS	= new String[0];
+
+		private final String					packageName;
+		private final Map<String, MutableNode>	children	= new TreeMap<>();
+
+		MutableNode(String packageName) {
+			this.packageName = packageName;
+		}
+
+		Node freeze() {
+			if (children.isEmpty()) {
+				return new Node(packageName, NO_CHILD_SEGMENTS, Node.NO_CHILDREN);
+			}
+			String[] childSegments = children.keySet().toArray(new String[0]);
+			Node[] frozenChildren = new Node[childSegments.length];
+			for (int i = 0; i < childSegments.length; i++) {
+				frozenChildren[i] = children.get(childSegments[i]).freeze();
+			}
+			return new Node(packageName, childSegments, frozenChildren);
+		}
+	}
+}
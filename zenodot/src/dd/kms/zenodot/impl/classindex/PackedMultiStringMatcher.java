@@ -0,0 +1,82 @@
+package dd.kms.zenodot.impl.classindex;
+
+import dd.kms.zenodot.api.common.multistringmatching.MultiStringMatcher;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable {@link MultiStringMatcher} created by {@link MultiStringMatcher#makeImmutable()}. Instead of node
+ * objects with hash maps of boxed characters, the keys are stored in a {@link PackedNameTrie}, which consists
+ * of a few primitive arrays and finds children and shortcuts via binary search over sorted characters. The
+ * trie references the values by their indices in an array.
+ */
+public class PackedMultiStringMatcher<T> extends MultiStringMatcher<T>
+{
+	public static <T> MultiStringMatcher<T> create(List<String> keys, List<T> values) {
+		int[] sortedIndices = IntStream.range(0, keys.size())
+			.boxed()
+			.sorted(Comparator.comparing(keys::get))
+			.mapToInt(Integer::intValue)
+			.toArray();
+		String[] sortedKeys = new String[sortedIndices.length];
+		Object[] sortedValues = new Object[sortedIndices.length];
+		for (int i = 0; i < sortedIndices.length; i++) {
+			sortedKeys[i] = keys.get(sortedIndices[i]);
+			sortedValues[i] = values.get(sortedIndices[i]);
+		}
+		int[] valueIndices = IntStream.range(0, sortedIndices.length).toArray();
+		return new PackedMultiStringMatcher<>(PackedNameTrie.create(sortedKeys, valueIndices), sortedValues);
+	}
+
+	private final PackedNameTrie	trie;
+	private final Object[]			values;
+
+	private PackedMultiStringMatcher(PackedNameTrie trie, Object[] values) {
+		this.trie = trie;
+		this.values = values;
+	}
+
+	@Override
+	public void put(String key, T value) {
+		throw new UnsupportedOperationException("Trying to modify immutable " + MultiStringMatcher.class.getSimpleName());
+	}
+
+	@Override
+	public void makeImmutable() {
+		/* nothing to do */
+	}
+
+	@Override
+	public Set<T> search(String keyPattern, int maxNumberOfResults) {
+		Set<T> results = new HashSet<>();
+		trie.search(keyPattern, maxNumberOfResults, valueIndex -> results.add(getValue(valueIndex)));
+		return results;
+	}
+
+	@Override
+	public void search(String keyPattern, Predicate<? super T> consumer) {
+		// the trie stops after the first accepted value, so the consumer's request to stop is reported as acceptance
+		trie.search(keyPattern, 1, valueIndex -> !consumer.test(getValue(valueIndex)));
+	}
+
+	@Override
+	public List<T> searchBest(String keyPattern, int maxNumberOfResults) {
+		Set<T> results = new LinkedHashSet<>();
+		trie.searchBest(keyPattern, maxNumberOfResults, (valueIndex, rank) -> results.add(getValue(valueIndex)));
+		return new ArrayList<>(results);
+	}
+
+	@Override
+	public List<T> searchWithTypos(String key, int maxTypos, int maxNumberOfResults) {
+		Set<T> results = new LinkedHashSet<>();
+		trie.searchWithTypos(key, maxTypos, maxNumberOfResults, (valueIndex, rank) -> results.add(getValue(valueIndex)));
+		return new ArrayList<>(results);
+	}
+
+	@SuppressWarnings("unchecked")
+	private T getValue(int valueIndex) {
+		return (T) values[valueIndex];
+	}
+}
@@ -0,0 +1,729 @@
+package dd.kms.zenodot.impl.classindex;
+
+import javax.annotation.Nullable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable trie over a sorted list of names that supports the same search patterns as
+ * {@link dd.kms.zenodot.api.common.multistringmatching.MultiStringMatcher}: exact characters,
+ * shortcuts to the next capital letter, and the wildcard '*'.<br>
+ * <br>
+ * In contrast to a mutable {@code MultiStringMatcher}, the trie does not consist of node objects,
+ * but is stored in a few primitive arrays:
+ * <ul>
+ *     <li>Nodes are numbered in breadth-first order. Hence, the children of a node are consecutive
+ *         and sorted by their characters, so a child can be found via binary search.</li>
+ *     <li>Since the names are sorted, every node covers a consecutive range of names: the names that
+ *         start with the path to that node. Hence, all values of a subtree can be collected without
+ *         traversing it.</li>
+ *     <li>Shortcuts are stored like children, sorted by their characters.</li>
+ * </ul>
+ * The values associated with the names are ints, e.g., indices in a {@link ClassNameTable}.
+ */
+class PackedNameTrie
+{
+	private static final int	ROOT				= 0;
+	private static final int	MAX_NUM_NODES		= 1 << 23;
+	private static final int	MAX_PATTERN_LENGTH	= 0xFFFF;
+
+	/*
+	 * Categories of matches for ranked searches. The lower the category, the better the match.
+	 */
+	private static final int	FULL_MATCH			= 0;
+	private static final int	PREFIX_MATCH		= 1;
+	private static final int	WILDCARD_MATCH		= 2;
+	private static final int	RANK_LENGTH_BITS	= 24;
+
+	/**
+	 * Creates a trie for the specified names. The names must be sorted.
+	 */
+	static PackedNameTrie create(String[] sortedNames, int[] values) {
+		return new Builder(sortedNames, sortedNames, values, false).build();
+	}
+
+	/**
+	 * Creates a trie for the specified names that ignores case: The paths consist of the case-folded names and
+	 * every character of a pattern, not only a capital letter, may jump to the next capital letter (hump) of the
+	 * original name. This way, the patterns "hashm" and "hm" find "HashMap". Patterns are case-folded as well.<br>
+	 * <br>
+	 * Names that only differ in case share their paths and, hence, their humps. Callers that require exact
+	 * hump matches have to filter the results.
+	 */
+	static PackedNameTrie createIgnoringCase(String[] names, int[] values) {
+		String[] foldedNames = Arrays.stream(names).map(PackedNameTrie::foldCase).toArray(String[]::new);
+		int[] sortedIndices = IntStream.range(0, names.length)
+			.boxed()
+			.sorted(Comparator.comparing(i -> foldedNames[i]))
+			.mapToInt(Integer::intValue)
+			.toArray();
+		String[] sortedFoldedNames = new String[names.length];
+		String[] sortedNames = new String[names.length];
+		int[] sortedValues = new int[names.length];
+		for (int i = 0; i < sortedIndices.length; i++) {
+			sortedFoldedNames[i] = foldedNames[sortedIndices[i]];
+			sortedNames[i] = names[sortedIndices[i]];
+			sortedValues[i] = values[sortedIndices[i]];
+		}
+		return new Builder(sortedFoldedNames, sortedNames, sortedValues, true).build();
+	}
+
+	/**
+	 * Converts every character to lower case. In contrast to {@link String#toLowerCase()}, the length is preserved.
+	 */
+	private static String foldCase(String s) {
+		char[] characters = s.toCharArray();
+		for (int i = 0; i < characters.length; i++) {
+			characters[i] = Character.toLowerCase(characters[i]);
+		}
+		return new String(characters);
+	}
+
+	private final char[]	nodeCharacters;		// character of the edge that leads to the node
+	private final int[]		firstChildren;		// children of node i: [firstChildren[i], firstChildren[i+1])
+	private final int[]		rangeBegins;		// names that start with the path to node i: [rangeBegins[i], rangeEnds[i])
+	private final int[]		rangeEnds;
+	private final int[]		depths;				// length of the path to node i
+	private final int[]		firstShortcuts;		// shortcuts of node i: [firstShortcuts[i], firstShortcuts[i+1])
+	private final char[]	shortcutCharacters;
+	private final int[]		shortcutTargets;
+	private final int[]		values;
+	private final boolean	ignoreCase;
+
+	private PackedNameTrie(char[] nodeCharacters, int[] firstChildren, int[] rangeBegins, int[] rangeEnds, int[] depths, int[] firstShortcuts, char[] shortcutCharacters, int[] shortcutTargets, int[] values, boolean ignoreCase) {
+		this.nodeCharacters = nodeCharacters;
+		this.firstChildren = firstChildren;
+		this.rangeBegins = rangeBegins;
+		this.rangeEnds = rangeEnds;
+		this.depths = depths;
+		this.firstShortcuts = firstShortcuts;
+		this.shortcutCharacters = shortcutCharacters;
+		this.shortcutTargets = shortcutTargets;
+		this.values = values;
+		this.ignoreCase = ignoreCase;
+	}
+
+	int getNumberOfNodes() {
+		return nodeCharacters.length;
+	}
+
+	/**
+	 * Writes the arrays of the trie such that {@link #read(ByteBuffer)} can restore it without building it again
+	 */
+	void write(DataOutputStream out) throws IOException {
+		out.writeBoolean(ignoreCase);
+		out.writeInt(nodeCharacters.length);
+		out.writeInt(shortcutCharacters.length);
+		out.writeInt(values.length);
+		ClassIndexFile.writeChars(out, nodeCharacters);
+		ClassIndexFile.writeInts(out, firstChildren);
+		ClassIndexFile.writeInts(out, rangeBegins);
+		ClassIndexFile.writeInts(out, rangeEnds);
+		ClassIndexFile.writeInts(out, depths);
+		ClassIndexFile.writeInts(out, firstShortcuts);
+		ClassIndexFile.writeChars(out, shortcutCharacters);
+		ClassIndexFile.writeInts(out, shortcutTargets);
+		ClassIndexFile.writeInts(out, values);
+	}
+
+	static PackedNameTrie read(ByteBuffer buffer) {
+		boolean ignoreCase = buffer.get() != 0;
+		int numNodes = buffer.getInt();
+		int numShortcuts = buffer.getInt();
+		int numValues = buffer.getInt();
+		char[] nodeCharacters = ClassIndexFile.readChars(buffer, numNodes);
+		int[] firstChildren = ClassIndexFile.readInts(buffer, numNodes + 1);
+		int[] rangeBegins = ClassIndexFile.readInts(buffer, numNodes);
+		int[] rangeEnds = ClassIndexFile.readInts(buffer, numNodes);
+		int[] depths = ClassIndexFile.readInts(buffer, numNodes);
+		int[] firstShortcuts = ClassIndexFile.readInts(buffer, numNodes + 1);
+		char[] shortcutCharacters = ClassIndexFile.readChars(buffer, numShortcuts);
+		int[] shortcutTargets = ClassIndexFile.readInts(buffer, numShortcuts);
+		int[] values = ClassIndexFile.readInts(buffer, numValues);
+		return new PackedNameTrie(nodeCharacters, firstChildren, rangeBegins, rangeEnds, depths, firstShortcuts, shortcutCharacters, shortcutTargets, values, ignoreCase);
+	}
+
+	/**
+	 * Passes the values of all names that match the pattern to the {@code consumer}. Values may be reported
+	 * multiple times. The consumer returns whether it accepts a value as new result. The search stops once
+	 * {@code maxNumberOfResults} values have been accepted.
+	 */
+	void search(String keyPattern, int maxNumberOfResults, IntPredicate consumer) {
+		new Search(normalizePattern(keyPattern), maxNumberOfResults, consumer).search();
+	}
+
+	/**
+	 * Like {@link #search(String, int, IntPredicate)}, but passes the values of the best matches to the {@code consumer},
+	 * best matches first:
+	 * <ol>
+	 *     <li>names that equal the pattern,</li>
+	 *     <li>names that start with the pattern, and</li>
+	 *     <li>names that only match the pattern via shortcuts or wildcards.</li>
+	 * </ol>
+	 * Within each category, shorter names are better. The rank passed to the consumer reflects this order: the lower,
+	 * the better. Since the trie is traversed in this order, the search stops as soon as {@code maxNumberOfResults}
+	 * values have been accepted without visiting the remaining matches.
+	 */
+	void searchBest(String keyPattern, int maxNumberOfResults, RankedValueConsumer consumer) {
+		if (keyPattern.length() > MAX_PATTERN_LENGTH) {
+			search(keyPattern, maxNumberOfResults, value -> consumer.accept(value, Integer.MAX_VALUE));
+			return;
+		}
+		new RankedSearch(normalizePattern(keyPattern), maxNumberOfResults, consumer).search();
+	}
+
+	/**
+	 * Passes the values of names to the {@code consumer} that start with the pattern when allowing at most {@code maxTypos}
+	 * typos (insertions, deletions, or substitutions of characters), ignoring case. The rank passed to the consumer is the
+	 * number of typos. Names with fewer typos are reported first. Shortcuts and wildcards are not supported.<br>
+	 * <br>
+	 * The trie is traversed once per number of typos while maintaining the rows of the Levenshtein matrix along the
+	 * current path. Subtrees whose rows exceed the number of typos are skipped, so the effort depends on the number of
+	 * similar names, not on the total number of names.
+	 */
+	void searchWithTypos(String keyPattern, int maxTypos, int maxNumberOfResults, RankedValueConsumer consumer) {
+		new FuzzySearch(keyPattern, maxNumberOfResults, consumer).search(maxTypos);
+	}
+
+	private String normalizePattern(String keyPattern) {
+		return ignoreCase ? foldCase(keyPattern) : keyPattern;
+	}
+
+	/**
+	 * Returns whether the character of a pattern may jump to a hump. If the trie ignores case, then every
+	 * character may do so. Otherwise, only capital letters may.
+	 */
+	private boolean isShortcutCharacter(char c) {
+		return ignoreCase || Character.isUpperCase(c);
+	}
+
+	private int getEndOfNamesEndingAt(int node) {
+		// names that end at a node precede the names of its children
+		return firstChildren[node] < firstChildren[node + 1] ? rangeBegins[firstChildren[node]] : rangeEnds[node];
+	}
+
+	private int getChild(int node, char c) {
+		int begin = firstChildren[node];
+		int end = firstChildren[node + 1];
+		int index = Arrays.binarySearch(nodeCharacters, begin, end, c);
+		return index >= 0 ? index : -1;
+	}
+
+	/**
+	 * Iterative search over states (pattern index, node), encoded as longs, with an explicit stack.<br>
+	 * <br>
+	 * A wildcard is matched by continuing the search with the next pattern index at every node of the current subtree.
+	 * For patterns like "*a*b*c*", the subtrees of nested matches overlap, so a naive search visits them over and over
+	 * again. Hence, the nodes at which a wildcard has already been processed are remembered per pattern index. This is
+	 * not necessary for the first wildcard: Without preceding wildcards, every state can be reached in one way only.
+	 */
+	private class Search
+	{
+		private final String				keyPattern;
+		private final IntPredicate			consumer;
+		private final int					firstWildcardIndex;
+		private final @Nullable BitSet[]	visitedNodesByWildcardIndex;
+		private int							numRemainingResults;
+
+		private long[]						stack		= new long[16];
+		private int							stackSize;
+
+		Search(String keyPattern, int maxNumberOfResults, IntPredicate consumer) {
+			this.keyPattern = keyPattern;
+			this.consumer = consumer;
+			this.firstWildcardIndex = keyPattern.indexOf('*');
+			this.visitedNodesByWildcardIndex = keyPattern.indexOf('*', firstWildcardIndex + 1) >= 0 ? new BitSet[keyPattern.length()] : null;
+			this.numRemainingResults = maxNumberOfResults;
+		}
+
+		void search() {
+			push(0, ROOT);
+			while (stackSize > 0 && numRemainingResults > 0) {
+				long state = stack[--stackSize];
+				process((int) (state >>> 24), (int) (state & 0xFFFFFF));
+			}
+		}
+
+		private void process(int patternIndex, int node) {
+			if (patternIndex == keyPattern.length()) {
+				collectResultsOfWholeTree(node);
+				return;
+			}
+			char c = keyPattern.charAt(patternIndex);
+			if (c == '*') {
+				// '*' matches the empty string or an arbitrary character followed by '*'
+				push(patternIndex + 1, node);
+				if (patternIndex + 1 < keyPattern.length()) {
+					int end = firstChildren[node + 1];
+					for (int child = firstChildren[node]; child < end; child++) {
+						push(patternIndex, child);
+					}
+				}
+				return;
+			}
+			int child = getChild(node, c);
+			if (child >= 0) {
+				push(patternIndex + 1, child);
+			}
+			if (isShortcutCharacter(c)) {
+				int begin = firstShortcuts[node];
+				int end = firstShortcuts[node + 1];
+				int index = Arrays.binarySearch(shortcutCharacters, begin, end, c);
+				if (index >= 0) {
+					// there may be multiple shortcuts for the same character
+					while (index > begin && shortcutCharacters[index - 1] == c) {
+						index--;
+					}
+					for (; index < end && shortcutCharacters[index] == c; index++) {
+						push(patternIndex + 1, shortcutTargets[index]);
+					}
+				}
+			}
+		}
+
+		private void push(int patternIndex, int node) {
+			if (isRepeatedWildcard(patternIndex, node)) {
+				return;
+			}
+			if (stackSize == stack.length) {
+				stack = Arrays.copyOf(stack, 2*stackSize);
+			}
+			stack[stackSize++] = ((long) patternIndex << 24) | node;
+		}
+
+		/**
+		 * Returns whether a wildcard at the pattern index has already been processed at the node and marks it as processed
+		 */
+		private boolean isRepeatedWildcard(int patternIndex, int node) {
+			if (visitedNodesByWildcardIndex == null || patternIndex <= firstWildcardIndex || patternIndex == keyPattern.length() || keyPattern.charAt(patternIndex) != '*') {
+				return false;
+			}
+			BitSet visitedNodes = visitedNodesByWildcardIndex[patternIndex];
+			if (visitedNodes == null) {
+				visitedNodes = visitedNodesByWildcardIndex[patternIndex] = new BitSet(getNumberOfNodes());
+			} else if (visitedNodes.get(node)) {
+				return true;
+			}
+			visitedNodes.set(node);
+			return false;
+		}
+
+		private void collectResultsOfWholeTree(int node) {
+			int end = rangeEnds[node];
+			for (int i = rangeBegins[node]; i < end && numRemainingResults > 0; i++) {
+				if (consumer.test(values[i])) {
+					numRemainingResults--;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Traverses the trie in two phases:
+	 * <ol>
+	 *     <li>The path of the pattern is followed directly. The subtree of its end node, which contains all names with
+	 *         the pattern as prefix, is traversed level by level. Since nodes are numbered in breadth-first order, every
+	 *         level of the subtree is a consecutive range of nodes.</li>
+	 *     <li>If this does not yield enough results, then a best-first search over states (node, pattern index) is
+	 *         performed, ordered by the depth of the nodes. Since no transition decreases the depth, matching names are
+	 *         found ordered by their lengths. The states are kept in a binary heap of longs that encode (depth, pattern
+	 *         index, node), so equal states are polled consecutively and are processed only once.</li>
+	 * </ol>
+	 */
+	private class RankedSearch
+	{
+		private final String				keyPattern;
+		private final RankedValueConsumer	consumer;
+		private int							numRemainingResults;
+
+		private long[]						heap		= new long[64];
+		private int							heapSize;
+
+		RankedSearch(String keyPattern, int maxNumberOfResults, RankedValueConsumer consumer) {
+			this.keyPattern = keyPattern;
+			this.consumer = consumer;
+			this.numRemainingResults = maxNumberOfResults;
+		}
+
+		void search() {
+			searchPrefixMatches();
+			if (numRemainingResults > 0) {
+				searchWildcardMatches();
+			}
+		}
+
+		private void searchPrefixMatches() {
+			int node = ROOT;
+			int patternLength = keyPattern.length();
+			for (int i = 0; i < patternLength && node >= 0; i++) {
+				node = getChild(node, keyPattern.charAt(i));
+			}
+			if (node < 0) {
+				return;
+			}
+			int levelBegin = node;
+			int levelEnd = node + 1;
+			while (levelBegin < levelEnd && numRemainingResults > 0) {
+				for (int levelNode = levelBegin; levelNode < levelEnd && numRemainingResults > 0; levelNode++) {
+					int depth = depths[levelNode];
+					reportNamesEndingAt(levelNode, depth == patternLength ? FULL_MATCH : PREFIX_MATCH);
+				}
+				levelBegin = firstChildren[levelBegin];
+				levelEnd = firstChildren[levelEnd];
+			}
+		}
+
+		private void searchWildcardMatches() {
+			int patternLength = keyPattern.length();
+			push(ROOT, 0);
+			long lastState = -1;
+			while (heapSize > 0 && numRemainingResults > 0) {
+				long state = poll();
+				if (state == lastState) {
+					continue;
+				}
+				lastState = state;
+				int node = (int) (state & 0xFFFFFF);
+				int patternIndex = (int) ((state >>> 24) & 0xFFFF);
+				if (patternIndex == patternLength) {
+					// all names of the subtree match
+					reportNamesEndingAt(node, WILDCARD_MATCH);
+					pushChildren(node, patternIndex);
+					continue;
+				}
+				char c = keyPattern.charAt(patternIndex);
+				int child = getChild(node, c);
+				if (child >= 0) {
+					push(child, patternIndex + 1);
+				}
+				if (isShortcutCharacter(c)) {
+					int begin = firstShortcuts[node];
+					int end = firstShortcuts[node + 1];
+					int index = Arrays.binarySearch(shortcutCharacters, begin, end, c);
+					if (index >= 0) {
+						while (index > begin && shortcutCharacters[index - 1] == c) {
+							index--;
+						}
+						for (; index < end && shortcutCharacters[index] == c; index++) {
+							push(shortcutTargets[index], patternIndex + 1);
+						}
+					}
+				}
+				if (c == '*') {
+					// '*' matches the empty string or the character of any child
+					push(node, patternIndex + 1);
+					pushChildren(node, patternIndex);
+				}
+			}
+		}
+
+		private void reportNamesEndingAt(int node, int category) {
+			int end = getEndOfNamesEndingAt(node);
+			int rank = (category << RANK_LENGTH_BITS) | Math.min(depths[node], (1 << RANK_LENGTH_BITS) - 1);
+			for (int i = rangeBegins[node]; i < end && numRemainingResults > 0; i++) {
+				if (consumer.accept(values[i], rank)) {
+					numRemainingResults--;
+				}
+			}
+		}
+
+		private void pushChildren(int node, int patternIndex) {
+			int end = firstChildren[node + 1];
+			for (int child = firstChildren[node]; child < end; child++) {
+				push(child, patternIndex);
+			}
+		}
+
+		private void push(int node, int patternIndex) {
+			long state = ((long) depths[node] << 40) | ((long) patternIndex << 24) | node;
+			if (heapSize == heap.length) {
+				heap = Arrays.copyOf(heap, 2*heap.length);
+			}
+			int index = heapSize++;
+			while (index > 0) {
+				int parent = (index - 1) >>> 1;
+				if (heap[parent] <= state) {
+					break;
+				}
+				heap[index] = heap[parent];
+				index = parent;
+			}
+			heap[index] = state;
+		}
+
+		private long poll() {
+			long result = heap[0];
+			long last = heap[--heapSize];
+			int index = 0;
+			while (true) {
+				int child = 2*index + 1;
+				if (child >= heapSize) {
+					break;
+				}
+				if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+					child++;
+				}
+				if (last <= heap[child]) {
+					break;
+				}
+				heap[index] = heap[child];
+				index = child;
+			}
+			heap[index] = last;
+			return result;
+		}
+	}
+
+	private class FuzzySearch
+	{
+		private final char[]				keyPattern;
+		private final RankedValueConsumer	consumer;
+		private int							numRemainingResults;
+
+		/*
+		 * rows[d][j] is the edit distance between the first j pattern characters and the path to the
+		 * current node of depth d
+		 */
+		private int[][]						rows		= new int[16][];
+		private int							numTypos;
+
+		FuzzySearch(String keyPattern, int maxNumberOfResults, RankedValueConsumer consumer) {
+			this.keyPattern = keyPattern.toLowerCase().toCharArray();
+			this.consumer = consumer;
+			this.numRemainingResults = maxNumberOfResults;
+		}
+
+		void search(int maxTypos) {
+			int patternLength = keyPattern.length;
+			int[] firstRow = new int[patternLength + 1];
+			for (int j = 0; j <= patternLength; j++) {
+				firstRow[j] = j;
+			}
+			rows[0] = firstRow;
+			for (numTypos = 0; numTypos <= maxTypos && numRemainingResults > 0; numTypos++) {
+				search(ROOT, 0, patternLength);
+			}
+		}
+
+		/**
+		 * {@code minDistance} is the minimum edit distance between the pattern and a prefix of the path to the node.
+		 * The names of the subtree match with at most that many typos.
+		 */
+		private void search(int node, int depth, int minDistance) {
+			if (minDistance < numTypos) {
+				// all names of this subtree have already been reported with fewer typos
+				return;
+			}
+			if (minDistance == numTypos) {
+				int end = getEndOfNamesEndingAt(node);
+				for (int i = rangeBegins[node]; i < end && numRemainingResults > 0; i++) {
+					if (consumer.accept(values[i], numTypos)) {
+						numRemainingResults--;
+					}
+				}
+			}
+			int[] row = rows[depth];
+			if (minDistance > numTypos && getMinimum(row) > numTypos) {
+				// extending the path cannot decrease the distance below the minimum of the row
+				return;
+			}
+			if (depth + 1 == rows.length) {
+				rows = Arrays.copyOf(rows, 2*rows.length);
+			}
+			int patternLength = keyPattern.length;
+			int[] childRow = rows[depth + 1];
+			if (childRow == null) {
+				childRow = rows[depth + 1] = new int[patternLength + 1];
+			}
+			int end = firstChildren[node + 1];
+			for (int child = firstChildren[node]; child < end && numRemainingResults > 0; child++) {
+				char c = Character.toLowerCase(nodeCharacters[child]);
+				childRow[0] = row[0] + 1;
+				for (int j = 1; j <= patternLength; j++) {
+					int substitutionCost = keyPattern[j - 1] == c ? 0 : 1;
+					childRow[j] = Math.min(Math.min(row[j] + 1, childRow[j - 1] + 1), row[j - 1] + substitutionCost);
+				}
+				search(child, depth + 1, Math.min(minDistance, childRow[patternLength]));
+			}
+		}
+
+		private int getMinimum(int[] row) {
+			int minimum = Integer.MAX_VALUE;
+			for (int value : row) {
+				minimum = Math.min(minimum, value);
+			}
+			return minimum;
+		}
+	}
+
+	@FunctionalInterface
+	interface RankedValueConsumer
+	{
+		/**
+		 * Returns whether the value is accepted as new result. The lower the rank, the better the match.
+		 */
+		boolean accept(int value, int rank);
+	}
+
+	private static class Builder
+	{
+		private final String[]	names;
+		private final String[]	humpNames;	// names whose capital letters determine the shortcuts
+		private final int[]		values;
+		private final boolean	ignoreCase;
+
+		private char[]			nodeCharacters	= new char[1024];
+		private int[]			firstChildren	= new int[1024];
+		private int[]			rangeBegins		= new int[1024];
+		private int[]			rangeEnds		= new int[1024];
+		private int[]			depths			= new int[1024];
+		private int				numNodes;
+
+		Builder(String[] sortedNames, String[] humpNames, int[] values, boolean ignoreCase) {
+			if (sortedNames.length != values.length) {
+				throw new IllegalArgumentException("The number of names and values differ");
+			}
+			this.names = sortedNames;
+			this.humpNames = humpNames;
+			this.values = values;
+			this.ignoreCase = ignoreCase;
+		}
+
+		PackedNameTrie build() {
+			addNode((char) 0, 0, names.length, 0);
+			// nodes are appended in breadth-first order while processing them
+			for (int node = 0; node < numNodes; node++) {
+				firstChildren[node] = numNodes;
+				addChildren(node);
+			}
+			firstChildren[numNodes] = numNodes;
+
+			long[] shortcuts = collectShortcuts();
+			int[] firstShortcuts = new int[numNodes + 1];
+			char[] shortcutCharacters = new char[shortcuts.length];
+			int[] shortcutTargets = new int[shortcuts.length];
+			for (int i = 0; i < shortcuts.length; i++) {
+				long shortcut = shortcuts[i];
+				int source = (int) (shortcut >>> 40);
+				shortcutCharacters[i] = (char) (shortcut >>> 24);
+				shortcutTargets[i] = (int) (shortcut & 0xFFFFFF);
+				firstShortcuts[source + 1]++;
+			}
+			for (int node = 0; node < numNodes; node++) {
+				firstShortcuts[node + 1] += firstShortcuts[node];
+			}
+			return new PackedNameTrie(
+				Arrays.copyOf(nodeCharacters, numNodes),
+				Arrays.copyOf(firstChildren, numNodes + 1),
+				Arrays.copyOf(rangeBegins, numNodes),
+				Arrays.copyOf(rangeEnds, numNodes),
+				Arrays.copyOf(depths, numNodes),
+				firstShortcuts,
+				shortcutCharacters,
+				shortcutTargets,
+				values,
+				ignoreCase
+			);
+		}
+
+		private void addChildren(int node) {
+			int depth = depths[node];
+			int end = rangeEnds[node];
+			int i = rangeBegins[node];
+			// names that end at this node come first because they are prefixes of the others
+			while (i < end && names[i].length() == depth) {
+				i++;
+			}
+			while (i < end) {
+				char c = names[i].charAt(depth);
+				int childBegin = i;
+				while (i < end && names[i].charAt(depth) == c) {
+					i++;
+				}
+				addNode(c, childBegin, i, depth + 1);
+			}
+		}
+
+		private void addNode(char c, int rangeBegin, int rangeEnd, int depth) {
+			if (numNodes + 1 >= nodeCharacters.length) {
+				if (nodeCharacters.length >= MAX_NUM_NODES) {
+					throw new IllegalStateException("Too many names for a packed name trie");
+				}
+				int newLength = 2*nodeCharacters.length;
+				nodeCharacters = Arrays.copyOf(nodeCharacters, newLength);
+				firstChildren = Arrays.copyOf(firstChildren, newLength);
+				rangeBegins = Arrays.copyOf(rangeBegins, newLength);
+				rangeEnds = Arrays.copyOf(rangeEnds, newLength);
+				depths = Arrays.copyOf(depths, newLength);
+			}
+			nodeCharacters[numNodes] = c;
+			rangeBegins[numNodes] = rangeBegin;
+			rangeEnds[numNodes] = rangeEnd;
+			depths[numNodes] = depth;
+			numNodes++;
+		}
+
+		/**
+		 * Creates shortcuts as described in {@link dd.kms.zenodot.api.common.multistringmatching.MultiStringMatcher#put(String, Object)}:
+		 * For every name, there is a shortcut from every node on its path to the node of the next capital letter unless
+		 * this is a direct child. The shortcuts are encoded as longs (source node, character, target node), sorted,
+		 * and deduplicated.
+		 */
+		private long[] collectShortcuts() {
+			long[] shortcuts = new long[1024];
+			int numShortcuts = 0;
+			int[] path = new int[16];
+			for (int nameIndex = 0; nameIndex < names.length; nameIndex++) {
+				String name = names[nameIndex];
+				String humpName = humpNames[nameIndex];
+				if (nameIndex > 0 && humpName.equals(humpNames[nameIndex - 1])) {
+					continue;
+				}
+				int length = name.length();
+				if (path.length < length) {
+					path = new int[2*length];
+				}
+				int node = ROOT;
+				for (int i = 0; i < length; i++) {
+					node = getChild(node, name.charAt(i));
+					path[i] = node;
+				}
+				int nextCapitalLetterIndex = -1;
+				for (int i = length - 1; i >= 0; i--) {
+					if (nextCapitalLetterIndex > i + 1) {
+						if (numShortcuts == shortcuts.length) {
+							shortcuts = Arrays.copyOf(shortcuts, 2*shortcuts.length);
+						}
+						char c = name.charAt(nextCapitalLetterIndex);	// the case-folded capital letter if the trie ignores case
+						shortcuts[numShortcuts++] = ((long) path[i] << 40) | ((long) c << 24) | path[nextCapitalLetterIndex];
+					}
+					if (Character.isUpperCase(humpName.charAt(i))) {
+						nextCapitalLetterIndex = i;
+					}
+				}
+			}
+			Arrays.sort(shortcuts, 0, numShortcuts);
+			int numDistinctShortcuts = 0;
+			for (int i = 0; i < numShortcuts; i++) {
+				if (numDistinctShortcuts == 0 || shortcuts[numDistinctShortcuts - 1] != shortcuts[i]) {
+					shortcuts[numDistinctShortcuts++] = shortcuts[i];
+				}
+			}
+			return Arrays.copyOf(shortcuts, numDistinctShortcuts);
+		}
+
+		private int getChild(int node, char c) {
+			int index = Arrays.binarySearch(nodeCharacters, firstChildren[node], firstChildren[node + 1], c);
+			if (index < 0) {
+				throw new IllegalStateException("Internal error: missing trie node");
+			}
+			return index;
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package dd.kms.zenodot.impl.classindex;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Holds the class loaders of the class sources registered at the {@link ClassIndexManager}. They are
+ * kept separately such that loading classes does not trigger building the class index.<br>
+ * <br>
+ * Every change of the registered class loaders increments a generation counter. Caches that depend on
+ * the registered class loaders should compare generations instead of retaining the class loaders, and
+ * they can register listeners to release classes of deregistered class loaders eagerly.
+ */
+public class RegisteredClassLoaders
+{
+	private static final List<Runnable>	CHANGE_LISTENERS	= new CopyOnWriteArrayList<>();
+
+	private static volatile State		currentState		= new State(ImmutableList.of(), 0);
+
+	public static List<ClassLoader> get() {
+		return currentState.classLoaders;
+	}
+
+	public static long getGeneration() {
+		return currentState.generation;
+	}
+
+	/**
+	 * Registers a listener that is called after the registered class loaders have changed
+	 */
+	public static void addChangeListener(Runnable listener) {
+		CHANGE_LISTENERS.add(listener);
+	}
+
+	/**
+	 * Must only be called by the {@link ClassIndexManager} while holding its lock
+	 */
+	static void set(List<ClassLoader> classLoaders) {
+		State state = currentState;
+		if (state.classLoaders.equals(classLoaders)) {
+			return;
+		}
+		currentState = new State(ImmutableList.copyOf(classLoaders), state.generation + 1);
+		for (Runnable listener : CHANGE_LISTENERS) {
+			listener.run();
+		}
+	}
+
+	private static class State
+	{
+		private final List<ClassLoader>	classLoaders;
+		private final long				generation;
+
+		State(List<ClassLoader> classLoaders, long generation) {
+			this.classLoaders = classLoaders;
+			this.generation = generation;
+		}
+	}
+}
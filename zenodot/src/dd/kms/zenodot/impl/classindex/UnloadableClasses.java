@@ -0,0 +1,45 @@
+package dd.kms.zenodot.impl.classindex;
+
+import com.google.common.collect.ImmutableSet;
+import dd.kms.zenodot.api.common.ClassInfo;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The scan of the class path may find classes that cannot be loaded for whatever reason. Such classes
+ * are registered here, either when a {@link ClassInfo} fails to load its class (this is not detected
+ * immediately after instantiating a {@code ClassInfo} because this class is meant for referencing classes
+ * without having to load them) or by the {@link ClassLoadabilityVerifier}. Afterward, these classes
+ * will not be suggested anymore.<br>
+ * <br>
+ * Classes may be reported and filtered by arbitrary threads concurrently.
+ */
+public class UnloadableClasses
+{
+	private static final Set<String>	NORMALIZED_CLASS_NAMES	= ConcurrentHashMap.newKeySet();
+
+	public static void report(String normalizedClassName) {
+		NORMALIZED_CLASS_NAMES.add(normalizedClassName);
+	}
+
+	public static boolean contains(String normalizedClassName) {
+		return NORMALIZED_CLASS_NAMES.contains(normalizedClassName);
+	}
+
+	/**
+	 * Returns a snapshot of the specified classes without the classes that are known to be unloadable
+	 */
+	public static Set<ClassInfo> filter(Set<ClassInfo> classInfos) {
+		if (NORMALIZED_CLASS_NAMES.isEmpty()) {
+			return classInfos;
+		}
+		ImmutableSet.Builder<ClassInfo> builder = ImmutableSet.builder();
+		for (ClassInfo classInfo : classInfos) {
+			if (!contains(classInfo.getNormalizedName())) {
+				builder.add(classInfo);
+			}
+		}
+		return builder.build();
+	}
+}
@@ -49,9 +49,9 @@ abstract class AbstractPackageParser<C, T extends ParseResult, S extends ParseRe
 
 		List<AbstractParser<String, T, S>> parsers = new ArrayList<>();
 		if (!(expectation instanceof PackageParseResultExpectation)) {
-			parsers.add(parserToolbox.createParser(QualifiedClassParser.class));
+			parsers.add(parserToolbox.createParser(QualifiedClassParser::new));
 		}
-		parsers.add(parserToolbox.createParser(SubpackageParser.class));
+		parsers.add(parserToolbox.createParser(SubpackageParser::new));
 		// possible ambiguities: class name identical to subpackage in same package => class name wins
 		return ParseUtils.parse(tokenStream, packageName, expectation, parsers);
 	}
@@ -59,7 +59,9 @@ abstract class AbstractPackageParser<C, T extends ParseResult, S extends ParseRe
 	private PackageParseResult readPackage(TokenStream tokenStream, C context) throws SyntaxException, CodeCompletionException {
 		String packagePrefix = getPackagePrefix(context);
 		String packageName = packagePrefix + tokenStream.readPackage(info -> suggestPackages(info, context));
-		if (!ClassDataProvider.packageExists(packageName)) {
+		ClassDataProvider classDataProvider = parserToolbox.inject(ClassDataProvider.class);
+		// only wait for the class index when evaluating; code completion must not block
+		if (!classDataProvider.packageExists(packageName, !tokenStream.isCodeCompletionRequested())) {
 			throw new SyntaxException("Unknown package '" + packageName + "'");
 		}
 		return ParseResults.createPackageParseResult(packageName);
@@ -72,6 +74,7 @@ abstract class AbstractPackageParser<C, T extends ParseResult, S extends ParseRe
 
 		log(LogLevel.SUCCESS, "suggesting packages matching '" + nameToComplete + "'");
 
-		return ClassDataProvider.completePackage(insertionBegin, insertionEnd, nameToComplete);
+		ClassDataProvider classDataProvider = parserToolbox.inject(ClassDataProvider.class);
+		return classDataProvider.completePackage(insertionBegin, insertionEnd, nameToComplete);
 	}
 }
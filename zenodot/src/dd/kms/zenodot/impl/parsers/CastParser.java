@@ -48,7 +48,7 @@ public class CastParser extends AbstractParser<ObjectInfo, ObjectParseResult, Ob
 	private ObjectParseResult parseAndCast(TokenStream tokenStream, Class<?> targetType) throws CodeCompletionException, SyntaxException, EvaluationException, InternalErrorException {
 		log(LogLevel.INFO, "parsing object to cast at " + tokenStream);
 		ObjectParseResultExpectation expectation = new ObjectParseResultExpectation(ImmutableList.of(targetType), false);
-		ObjectParseResult parseResult = parserToolbox.createParser(SimpleExpressionParser.class).parse(tokenStream, parserToolbox.getThisInfo(), expectation);
+		ObjectParseResult parseResult = parserToolbox.createParser(SimpleExpressionParser::new).parse(tokenStream, parserToolbox.getThisInfo(), expectation);
 		ObjectInfo objectInfo = parseResult.getObjectInfo();
 
 		try {
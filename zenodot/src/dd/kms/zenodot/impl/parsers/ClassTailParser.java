@@ -38,14 +38,14 @@ public class ClassTailParser<T extends ParseResult, S extends ParseResultExpecta
 	@Override
 	ParseResult parseDot(TokenStream tokenStream, Class<?> classType, S expectation) throws CodeCompletionException, SyntaxException, EvaluationException, InternalErrorException {
 		if (expectation instanceof ClassParseResultExpectation) {
-			InnerClassParser<ClassParseResult, ClassParseResultExpectation> innerClassParser = parserToolbox.createParser(InnerClassParser.class);
+			InnerClassParser<ClassParseResult, ClassParseResultExpectation> innerClassParser = parserToolbox.createParser(InnerClassParser::new);
 			return innerClassParser.parse(tokenStream, classType, (ClassParseResultExpectation) expectation);
 		} else if (expectation instanceof ObjectParseResultExpectation) {
 			List<AbstractParser<Class<?>, ObjectParseResult, ObjectParseResultExpectation>> parsers = Arrays.asList(
-				parserToolbox.createParser(ClassFieldParser.class),
-				parserToolbox.createParser(ClassMethodParser.class),
-				parserToolbox.createParser(InnerClassParser.class),
-				parserToolbox.createParser(ClassObjectParser.class)
+				parserToolbox.createParser(ClassFieldParser::new),
+				parserToolbox.createParser(ClassMethodParser::new),
+				parserToolbox.createParser(InnerClassParser::new),
+				parserToolbox.createParser(ClassObjectParser::new)
 			);
 			// possible ambiguities: field name identical to inner class name => field wins
 			return ParseUtils.parse(tokenStream, classType, (ObjectParseResultExpectation) expectation, parsers);
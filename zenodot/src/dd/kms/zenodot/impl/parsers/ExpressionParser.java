@@ -83,7 +83,7 @@ public class ExpressionParser extends AbstractParser<ObjectInfo, ObjectParseResu
 		List<BinaryOperator> operators = new ArrayList<>();
 
 		log(LogLevel.INFO, "parsing first operand");
-		SimpleExpressionParser simpleExpressionParser = parserToolbox.createParser(SimpleExpressionParser.class);
+		SimpleExpressionParser simpleExpressionParser = parserToolbox.createParser(SimpleExpressionParser::new);
 		CallerContext callerContext = getCallerContext();
 		/*
 		 * Apply the caller context only to the first operand and not to further operands.
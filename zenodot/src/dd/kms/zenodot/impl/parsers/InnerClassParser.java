@@ -35,7 +35,7 @@ public class InnerClassParser<T extends ParseResult, S extends ParseResultExpect
 		ClassParseResult innerClassParseResult = readInnerClass(tokenStream, contextType);
 		Class<?> innerClassType = innerClassParseResult.getType();
 
-		return parserToolbox.createParser(ClassTailParser.class).parse(tokenStream, innerClassType, expectation);
+		return parserToolbox.createParser(ClassTailParser<T, S>::new).parse(tokenStream, innerClassType, expectation);
 	}
 
 	private ClassParseResult readInnerClass(TokenStream tokenStream, Class<?> contextType) throws SyntaxException, CodeCompletionException, InternalErrorException {
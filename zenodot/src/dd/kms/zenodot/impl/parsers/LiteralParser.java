@@ -71,30 +71,31 @@ public class LiteralParser extends AbstractParserWithObjectTail<ObjectInfo>
 	@Override
 	protected ObjectParseResult parseNext(TokenStream tokenStream, ObjectInfo contextInfo, ObjectParseResultExpectation expectation) throws SyntaxException, CodeCompletionException, InternalErrorException, EvaluationException {
 		char c = tokenStream.peekCharacter();
-		switch (c) {
-			case '"':
-				return parseStringLiteral(tokenStream);
-			case '\'':
-				return parseCharacterLiteral(tokenStream);
-			case 'n':	// null
-			case 't':	// this, true
-			case 'f':	// false
-				return parseNamedLiteral(tokenStream, expectation);
-			case '.':
-			case '0':
-			case '1':
-			case '2':
-			case '3':
-			case '4':
-			case '5':
-			case '6':
-			case '7':
-			case '8':
-			case '9':
-				return parseNumericLiteral(tokenStream, expectation);
-			default:
-				throw new SyntaxException("Expected a literal");
+		if (c == '"') {
+			return parseStringLiteral(tokenStream);
+		} else if (c == '\'') {
+			return parseCharacterLiteral(tokenStream);
+		} else if (isNamedLiteralStart(c)) {
+			return parseNamedLiteral(tokenStream, expectation);
+		} else if (isNumericLiteralStart(c)) {
+			return parseNumericLiteral(tokenStream, expectation);
 		}
+		throw new SyntaxException("Expected a literal");
+	}
+
+	/**
+	 * Returns {@code false} if no literal can start with the specified character
+	 */
+	static boolean canStartWith(char c) {
+		return c == '"' || c == '\'' || isNamedLiteralStart(c) || isNumericLiteralStart(c);
+	}
+
+	private static boolean isNamedLiteralStart(char c) {
+		return c == NULL_LITERAL.charAt(0) || c == THIS_LITERAL.charAt(0) || c == TRUE_LITERAL.charAt(0) || c == FALSE_LITERAL.charAt(0);
+	}
+
+	private static boolean isNumericLiteralStart(char c) {
+		return c == '.' || '0' <= c && c <= '9';
 	}
 
 	private ObjectParseResult parseStringLiteral(TokenStream tokenStream) throws SyntaxException, CodeCompletionException, InternalErrorException {
@@ -45,8 +45,8 @@ public class ObjectTailParser extends AbstractTailParser<ObjectInfo, ObjectParse
 			throw new NullPointerException();
 		}
 		List<AbstractParser<ObjectInfo, ObjectParseResult, ObjectParseResultExpectation>> parsers = Arrays.asList(
-			parserToolbox.createParser(ObjectFieldParser.class),
-			parserToolbox.createParser(ObjectMethodParser.class)
+			parserToolbox.createParser(ObjectFieldParser::new),
+			parserToolbox.createParser(ObjectMethodParser::new)
 		);
 		return ParseUtils.parse(tokenStream, contextInfo, expectation, parsers);
 	}
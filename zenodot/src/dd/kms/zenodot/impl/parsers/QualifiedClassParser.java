@@ -13,7 +13,6 @@ import dd.kms.zenodot.framework.result.ParseResult;
 import dd.kms.zenodot.framework.tokenizer.CompletionInfo;
 import dd.kms.zenodot.framework.tokenizer.TokenStream;
 import dd.kms.zenodot.framework.utils.ParserToolbox;
-import dd.kms.zenodot.impl.utils.ClassUtils;
 import dd.kms.zenodot.impl.utils.dataproviders.ClassDataProvider;
 
 /**
@@ -33,14 +32,14 @@ public class QualifiedClassParser<T extends ParseResult, S extends ParseResultEx
 		increaseConfidence(ParserConfidence.POTENTIALLY_RIGHT_PARSER);
 
 		String qualifiedClassName = packageContext + "." + className;
-		Class<?> clazz = ClassUtils.getClassUnchecked(qualifiedClassName);
+		Class<?> clazz = parserToolbox.inject(ClassDataProvider.class).getClass(qualifiedClassName);
 		if (clazz == null) {
 			throw new SyntaxException("Unknown class '" + qualifiedClassName + "'");
 		}
 		log(LogLevel.SUCCESS, "detected class '" + qualifiedClassName + "'");
 		increaseConfidence(ParserConfidence.RIGHT_PARSER);
 
-		return parserToolbox.createParser(ClassTailParser.class).parse(tokenStream, clazz, expectation);
+		return parserToolbox.createParser(ClassTailParser<T, S>::new).parse(tokenStream, clazz, expectation);
 	}
 
 	private CodeCompletions suggestQualifiedClasses(String packageContext, S expectation, CompletionInfo info) {
@@ -51,6 +50,6 @@ public class QualifiedClassParser<T extends ParseResult, S extends ParseResultEx
 		log(LogLevel.SUCCESS, "suggesting classes matching '" + nameToComplete + "'");
 
 		String classPrefixWithPackage = packageContext + "." + nameToComplete;
-		return ClassDataProvider.completeQualifiedClasses(insertionBegin, insertionEnd, classPrefixWithPackage);
+		return parserToolbox.inject(ClassDataProvider.class).completeQualifiedClasses(insertionBegin, insertionEnd, classPrefixWithPackage);
 	}
 }
@@ -1,6 +1,6 @@
 package dd.kms.zenodot.impl.parsers;
 
-import com.google.common.collect.Lists;
+import com.google.common.collect.ImmutableList;
 import dd.kms.zenodot.api.settings.extensions.AdditionalParserSettings;
 import dd.kms.zenodot.api.settings.extensions.ParserType;
 import dd.kms.zenodot.framework.flowcontrol.CodeCompletionException;
@@ -18,6 +18,7 @@ import dd.kms.zenodot.framework.wrappers.ObjectInfo;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * Parses an arbitrary Java expression without binary operators. Use the {@link ExpressionParser}
@@ -25,37 +26,56 @@ import java.util.List;
  */
 public class SimpleExpressionParser extends AbstractParser<ObjectInfo, ObjectParseResult, ObjectParseResultExpectation>
 {
+	/**
+	 * The predefined parsers together with the characters the subexpressions they parse can start with
+	 * (FIRST sets). This table must be consistent with the tokens the parsers read first.
+	 */
+	private static final List<ParserEntry>	PARSER_ENTRIES	= ImmutableList.of(
+		new ParserEntry(LiteralParser::new,					LiteralParser::canStartWith),
+		new ParserEntry(VariableParser::new,				TokenStream::isIdentifierStart),
+		new ParserEntry(ObjectFieldParser::new,				TokenStream::isIdentifierStart),
+		new ParserEntry(ObjectMethodParser::new,			TokenStream::isIdentifierStart),
+		new ParserEntry(ParenthesizedExpressionParser::new,	c -> c == '('),
+		new ParserEntry(CastParser::new,					c -> c == '('),
+		new ParserEntry(UnqualifiedClassParser::new,		TokenStream::isPackageOrClassNameStart),
+		new ParserEntry(RootpackageParser::new,				TokenStream::isPackageOrClassNameStart),
+		new ParserEntry(ConstructorParser::new,				c -> c == 'n'),
+		new ParserEntry(UnaryPrefixOperatorParser::new,		c -> "+-!~".indexOf(c) >= 0),
+		new ParserEntry(LambdaParser::new,					c -> c == '(' || TokenStream.isIdentifierStart(c))
+	);
+
+	private final boolean					preselectParsers;
+
 	public SimpleExpressionParser(ParserToolbox parserToolbox) {
+		this(parserToolbox, true);
+	}
+
+	/**
+	 * Without preselection, all parsers are tried for the subexpression. This serves as reference when
+	 * testing the preselection.
+	 */
+	SimpleExpressionParser(ParserToolbox parserToolbox, boolean preselectParsers) {
 		super(parserToolbox);
+		this.preselectParsers = preselectParsers;
 	}
 
 	@Override
 	protected ObjectParseResult doParse(TokenStream tokenStream, ObjectInfo contextInfo, ObjectParseResultExpectation expectation) throws CodeCompletionException, InternalErrorException, SyntaxException, EvaluationException {
-		// predefined parser classes
-		List<Class<? extends AbstractParser>> parserClasses = Lists.newArrayList(
-			LiteralParser.class,
-			VariableParser.class,
-			ObjectFieldParser.class,
-			ObjectMethodParser.class,
-			ParenthesizedExpressionParser.class,
-			CastParser.class,
-			UnqualifiedClassParser.class,
-			RootpackageParser.class,
-			ConstructorParser.class,
-			UnaryPrefixOperatorParser.class,
-			LambdaParser.class
-		);
-
-		// additional parser classes
+		// predefined parsers
+		List<ParserEntry> parserEntries = new ArrayList<>(PARSER_ENTRIES);
+
+		// additional parsers
 		List<AdditionalParserSettings> additionalParserSettings = ParseUtils.getAdditionalParserSettings(parserToolbox.getSettings());
 		additionalParserSettings.stream()
 			.filter(settings -> settings.getParserType() == ParserType.ROOT_OBJECT_PARSER)
-			.forEach(settings -> parserClasses.add(settings.getParserClass()));
+			.forEach(settings -> parserEntries.add(new ParserEntry(settings.getParserFactory(), settings::canStartWith)));
+
+		List<ParserEntry> viableParserEntries = getViableParserEntries(tokenStream, parserEntries);
 
 		List<AbstractParser<ObjectInfo, ObjectParseResult, ObjectParseResultExpectation>> parsers = new ArrayList<>();
 		CallerContext callerContext = getCallerContext();
-		for (Class<? extends AbstractParser> parserClass : parserClasses) {
-			AbstractParser<ObjectInfo, ObjectParseResult, ObjectParseResultExpectation> parser = parserToolbox.createParser(parserClass);
+		for (ParserEntry parserEntry : viableParserEntries) {
+			AbstractParser<ObjectInfo, ObjectParseResult, ObjectParseResultExpectation> parser = parserToolbox.createParser(parserEntry.getParserFactory());
 			parser.setCallerContext(callerContext);
 			parsers.add(parser);
 		}
@@ -72,4 +92,51 @@ public class SimpleExpressionParser extends AbstractParser<ObjectInfo, ObjectPar
 		 */
 		return ParseUtils.parse(tokenStream, contextInfo, expectation, parsers);
 	}
+
+	/**
+	 * Returns the parsers whose FIRST set contains the next character. Parsers that cannot start with
+	 * that character would fail with a {@link SyntaxException} without increasing their confidence.<br>
+	 * <br>
+	 * All parsers are considered if code completions are requested at or before the next character because
+	 * then every parser may suggest completions. If no parser is viable, then all parsers are considered
+	 * as well to obtain the same error messages as without preselection.
+	 */
+	private List<ParserEntry> getViableParserEntries(TokenStream tokenStream, List<ParserEntry> parserEntries) {
+		if (!preselectParsers || tokenStream.isCaretAtOrBeforeNextCharacter()) {
+			return parserEntries;
+		}
+		char nextCharacter = tokenStream.peekCharacter();
+		List<ParserEntry> viableParserEntries = new ArrayList<>(parserEntries.size());
+		for (ParserEntry parserEntry : parserEntries) {
+			if (parserEntry.canStartWith(nextCharacter)) {
+				viableParserEntries.add(parserEntry);
+			}
+		}
+		return viableParserEntries.isEmpty() ? parserEntries : viableParserEntries;
+	}
+
+	@FunctionalInterface
+	private interface CharacterPredicate
+	{
+		boolean test(char c);
+	}
+
+	private static class ParserEntry
+	{
+		private final Function<ParserToolbox, ? extends AbstractParser>	parserFactory;
+		private final CharacterPredicate								firstCharacterPredicate;
+
+		ParserEntry(Function<ParserToolbox, ? extends AbstractParser> parserFactory, CharacterPredicate firstCharacterPredicate) {
+			this.parserFactory = parserFactory;
+			this.firstCharacterPredicate = firstCharacterPredicate;
+		}
+
+		Function<ParserToolbox, ? extends AbstractParser> getParserFactory() {
+			return parserFactory;
+		}
+
+		boolean canStartWith(char c) {
+			return c != TokenStream.EMPTY_CHARACTER && firstCharacterPredicate.test(c);
+		}
+	}
 }
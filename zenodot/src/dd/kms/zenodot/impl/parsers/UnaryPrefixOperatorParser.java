@@ -58,7 +58,7 @@ public class UnaryPrefixOperatorParser extends AbstractParser<ObjectInfo, Object
 
 		increaseConfidence(ParserConfidence.RIGHT_PARSER);
 
-		ObjectParseResult expressionParseResult = parserToolbox.createParser(SimpleExpressionParser.class).parse(tokenStream, contextInfo, expectation);
+		ObjectParseResult expressionParseResult = parserToolbox.createParser(SimpleExpressionParser::new).parse(tokenStream, contextInfo, expectation);
 
 		ObjectInfo expressionInfo = expressionParseResult.getObjectInfo();
 		ObjectInfo operatorResult;
@@ -54,7 +54,7 @@ public class UnqualifiedClassParser<T extends ParseResult, S extends ParseResult
 
 		increaseConfidence(ParserConfidence.RIGHT_PARSER);
 
-		return parserToolbox.createParser(ClassTailParser.class).parse(tokenStream, importedClass, expectation);
+		return parserToolbox.createParser(ClassTailParser<T, S>::new).parse(tokenStream, importedClass, expectation);
 	}
 
 	private CodeCompletions suggestClasses(CompletionInfo info) {
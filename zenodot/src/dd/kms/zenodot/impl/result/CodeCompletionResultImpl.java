@@ -0,0 +1,33 @@
+package dd.kms.zenodot.impl.result;
+
+import dd.kms.zenodot.api.result.CodeCompletion;
+import dd.kms.zenodot.api.result.CodeCompletionResult;
+import dd.kms.zenodot.api.result.ExecutableArgumentInfo;
+import dd.kms.zenodot.framework.result.CodeCompletions;
+
+import java.util.List;
+import java.util.Optional;
+
+public class CodeCompletionResultImpl implements CodeCompletionResult
+{
+	private final CodeCompletions	completions;
+
+	public CodeCompletionResultImpl(CodeCompletions completions) {
+		this.completions = completions;
+	}
+
+	@Override
+	public List<CodeCompletion> getCompletions() {
+		return completions.getCompletions();
+	}
+
+	@Override
+	public Optional<ExecutableArgumentInfo> getExecutableArgumentInfo() {
+		return completions.getExecutableArgumentInfo();
+	}
+
+	@Override
+	public boolean isPartial() {
+		return completions.isPartial();
+	}
+}
@@ -0,0 +1,116 @@
+package dd.kms.zenodot.impl.settings;
+
+import com.google.common.collect.ImmutableSet;
+import dd.kms.zenodot.api.settings.ClassIndexSettings;
+import dd.kms.zenodot.api.settings.ClassIndexSettingsBuilder;
+import dd.kms.zenodot.api.settings.ClassScanner;
+
+import java.util.Set;
+
+public class ClassIndexSettingsBuilderImpl implements ClassIndexSettingsBuilder
+{
+	private boolean			scanSystemJarsAndModules;
+	private Set<String>		acceptedPackages;
+	private Set<String>		rejectedPackages;
+	private Set<String>		acceptedModules;
+	private Set<String>		rejectedModules;
+	private Set<String>		acceptedJars;
+	private Set<String>		rejectedJars;
+	private ClassScanner	classScanner;
+	private int				scanThreadCount;
+	private boolean			verifyClassesInBackground;
+
+	public ClassIndexSettingsBuilderImpl() {
+		scanSystemJarsAndModules = true;
+		acceptedPackages = ImmutableSet.of();
+		rejectedPackages = ImmutableSet.of();
+		acceptedModules = ImmutableSet.of();
+		rejectedModules = ImmutableSet.of();
+		acceptedJars = ImmutableSet.of();
+		rejectedJars = ImmutableSet.of();
+		classScanner = ClassScanner.CLASS_GRAPH;
+		scanThreadCount = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+		verifyClassesInBackground = false;
+	}
+
+	ClassIndexSettingsBuilderImpl(ClassIndexSettings settings) {
+		scanSystemJarsAndModules = settings.isScanSystemJarsAndModules();
+		acceptedPackages = settings.getAcceptedPackages();
+		rejectedPackages = settings.getRejectedPackages();
+		acceptedModules = settings.getAcceptedModules();
+		rejectedModules = settings.getRejectedModules();
+		acceptedJars = settings.getAcceptedJars();
+		rejectedJars = settings.getRejectedJars();
+		classScanner = settings.getClassScanner();
+		scanThreadCount = settings.getScanThreadCount();
+		verifyClassesInBackground = settings.isVerifyClassesInBackground();
+	}
+
+	@Override
+	public ClassIndexSettingsBuilder scanSystemJarsAndModules(boolean scanSystemJarsAndModules) {
+		this.scanSystemJarsAndModules = scanSystemJarsAndModules;
+		return this;
+	}
+
+	@Override
+	public ClassIndexSettingsBuilder acceptPackages(Iterable<String> packageNames) {
+		acceptedPackages = ImmutableSet.copyOf(packageNames);
+		return this;
+	}
+
+	@Override
+	public ClassIndexSettingsBuilder rejectPackages(Iterable<String> packageNames) {
+		rejectedPackages = ImmutableSet.copyOf(packageNames);
+		return this;
+	}
+
+	@Override
+	public ClassIndexSettingsBuilder acceptModules(Iterable<String> moduleNames) {
+		acceptedModules = ImmutableSet.copyOf(moduleNames);
+		return this;
+	}
+
+	@Override
+	public ClassIndexSettingsBuilder rejectModules(Iterable<String> moduleNames) {
+		rejectedModules = ImmutableSet.copyOf(moduleNames);
+		return this;
+	}
+
+	@Override
+	public ClassIndexSettingsBuilder acceptJars(Iterable<String> jarFileNames) {
+		acceptedJars = ImmutableSet.copyOf(jarFileNames);
+		return this;
+	}
+
+	@Override
+	public ClassIndexSettingsBuilder rejectJars(Iterable<String> jarFileNames) {
+		rejectedJars = ImmutableSet.copyOf(jarFileNames);
+		return this;
+	}
+
+	@Override
+	public ClassIndexSettingsBuilder classScanner(ClassScanner classScanner) {
+		this.classScanner = classScanner;
+		return this;
+	}
+
+	@Override
+	public ClassIndexSettingsBuilder scanThreadCount(int scanThreadCount) {
+		if (scanThreadCount < 1) {
+			throw new IllegalArgumentException("The scan thread count must be positive");
+		}
+		this.scanThreadCount = scanThreadCount;
+		return this;
+	}
+
+	@Override
+	public ClassIndexSettingsBuilder verifyClassesInBackground(boolean verifyClassesInBackground) {
+		this.verifyClassesInBackground = verifyClassesInBackground;
+		return this;
+	}
+
+	@Override
+	public ClassIndexSettings build() {
+		return new ClassIndexSettingsImpl(scanSystemJarsAndModules, acceptedPackages, rejectedPackages, acceptedModules, rejectedModules, acceptedJars, rejectedJars, classScanner, scanThreadCount, verifyClassesInBackground);
+	}
+}
@@ -0,0 +1,90 @@
+package dd.kms.zenodot.impl.settings;
+
+import com.google.common.collect.ImmutableSet;
+import dd.kms.zenodot.api.settings.ClassIndexSettings;
+import dd.kms.zenodot.api.settings.ClassIndexSettingsBuilder;
+import dd.kms.zenodot.api.settings.ClassScanner;
+
+import java.util.Set;
+
+class ClassIndexSettingsImpl implements ClassIndexSettings
+{
+	private final boolean		scanSystemJarsAndModules;
+	private final Set<String>	acceptedPackages;
+	private final Set<String>	rejectedPackages;
+	private final Set<String>	acceptedModules;
+	private final Set<String>	rejectedModules;
+	private final Set<String>	acceptedJars;
+	private final Set<String>	rejectedJars;
+	private final ClassScanner	classScanner;
+	private final int			scanThreadCount;
+	private final boolean		verifyClassesInBackground;
+
+	ClassIndexSettingsImpl(boolean scanSystemJarsAndModules, Set<String> acceptedPackages, Set<String> rejectedPackages, Set<String> acceptedModules, Set<String> rejectedModules, Set<String> acceptedJars, Set<String> rejectedJars, ClassScanner classScanner, int scanThreadCount, boolean verifyClassesInBackground) {
+		this.scanSystemJarsAndModules = scanSystemJarsAndModules;
+		this.acceptedPackages = ImmutableSet.copyOf(acceptedPackages);
+		this.rejectedPackages = ImmutableSet.copyOf(rejectedPackages);
+		this.acceptedModules = ImmutableSet.copyOf(acceptedModules);
+		this.rejectedModules = ImmutableSet.copyOf(rejectedModules);
+		this.acceptedJars = ImmutableSet.copyOf(acceptedJars);
+		this.rejectedJars = ImmutableSet.copyOf(rejectedJars);
+		this.classScanner = classScanner;
+		this.scanThreadCount = scanThreadCount;
+		this.verifyClassesInBackground = verifyClassesInBackground;
+	}
+
+	@Override
+	public boolean isScanSystemJarsAndModules() {
+		return scanSystemJarsAndModules;
+	}
+
+	@Override
+	public Set<String> getAcceptedPackages() {
+		return acceptedPackages;
+	}
+
+	@Override
+	public Set<String> getRejectedPackages() {
+		return rejectedPackages;
+	}
+
+	@Override
+	public Set<String> getAcceptedModules() {
+		return acceptedModules;
+	}
+
+	@Override
+	public Set<String> getRejectedModules() {
+		return rejectedModules;
+	}
+
+	@Override
+	public Set<String> getAcceptedJars() {
+		return acceptedJars;
+	}
+
+	@Override
+	public Set<String> getRejectedJars() {
+		return rejectedJars;
+	}
+
+	@Override
+	public ClassScanner getClassScanner() {
+		return classScanner;
+	}
+
+	@Override
+	public int getScanThreadCount() {
+		return scanThreadCount;
+	}
+
+	@Override
+	public boolean isVerifyClassesInBackground() {
+		return verifyClassesInBackground;
+	}
+
+	@Override
+	public ClassIndexSettingsBuilder builder() {
+		return new ClassIndexSettingsBuilderImpl(this);
+	}
+}
@@ -3,6 +3,7 @@ package dd.kms.zenodot.impl.settings;
 import com.google.common.collect.ImmutableSet;
 import dd.kms.zenodot.api.settings.Imports;
 
+import java.util.Objects;
 import java.util.Set;
 
 class ImportsImpl implements Imports
@@ -24,4 +25,18 @@ class ImportsImpl implements Imports
 	public Set<String> getImportedPackages() {
 		return importPackages;
 	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		ImportsImpl that = (ImportsImpl) o;
+		return Objects.equals(importClasses, that.importClasses)
+			&& Objects.equals(importPackages, that.importPackages);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(importClasses, importPackages);
+	}
 }
@@ -27,6 +27,7 @@ public class ParserSettingsBuilderImpl implements ParserSettingsBuilder
 	private AccessModifier								minimumMethodAccessModifier;
 	private EvaluationMode								evaluationMode;
 	private boolean										considerAllClassesForClassCompletions;
+	private @Nullable ClassLoader						classLoader;
 	private final Map<String, ParserExtension>			parserExtensions;
 	private ParserLogger								logger;
 
@@ -38,6 +39,7 @@ public class ParserSettingsBuilderImpl implements ParserSettingsBuilder
 		minimumMethodAccessModifier = AccessModifier.PUBLIC;
 		evaluationMode = EvaluationMode.MIXED;
 		considerAllClassesForClassCompletions = false;
+		classLoader = null;
 		parserExtensions = new HashMap<>();
 		logger = ParserLoggers.createNullLogger();
 	}
@@ -50,6 +52,7 @@ public class ParserSettingsBuilderImpl implements ParserSettingsBuilder
 		minimumMethodAccessModifier = settings.getMinimumMethodAccessModifier();
 		evaluationMode = settings.getEvaluationMode();
 		considerAllClassesForClassCompletions = settings.isConsiderAllClassesForClassCompletions();
+		classLoader = settings.getClassLoader();
 		parserExtensions = settings.getParserExtensionNames().stream()
 			.collect(Collectors.toMap(
 				Function.identity(),
@@ -73,9 +76,10 @@ public class ParserSettingsBuilderImpl implements ParserSettingsBuilder
 	@Override
 	public ParserSettingsBuilder importClassesByName(Iterable<String> classNames) throws ClassNotFoundException {
 		ImmutableSet.Builder<Class<?>> builder = ImmutableSet.builder();
+		ClassLoader classLoaderScope = ClassUtils.getClassLoaderScope(classLoader);
 		for (String className : classNames) {
-			String normalizedClassName = ClassUtils.normalizeClassName(className);
-			Class<?> clazz = Class.forName(normalizedClassName);
+			String normalizedClassName = ClassUtils.normalizeClassName(className, classLoaderScope);
+			Class<?> clazz = ClassUtils.loadClass(normalizedClassName, true, classLoaderScope);
 			builder.add(clazz);
 		}
 		return importClasses(builder.build());
@@ -111,6 +115,12 @@ public class ParserSettingsBuilderImpl implements ParserSettingsBuilder
 		return this;
 	}
 
+	@Override
+	public ParserSettingsBuilder classLoader(@Nullable ClassLoader classLoader) {
+		this.classLoader = classLoader;
+		return this;
+	}
+
 	@Override
 	public ParserSettingsBuilder setParserExtension(String extensionName, @Nullable ParserExtension parserExtension) {
 		if (parserExtension == null) {
@@ -128,6 +138,6 @@ public class ParserSettingsBuilderImpl implements ParserSettingsBuilder
 	}
 
 	public ParserSettings build() {
-		return new ParserSettingsImpl(completionMode, importedClasses, importedPackages, minimumFieldAccessModifier, minimumMethodAccessModifier, evaluationMode, considerAllClassesForClassCompletions, parserExtensions, logger);
+		return new ParserSettingsImpl(completionMode, importedClasses, importedPackages, minimumFieldAccessModifier, minimumMethodAccessModifier, evaluationMode, considerAllClassesForClassCompletions, classLoader, parserExtensions, logger);
 	}
 }
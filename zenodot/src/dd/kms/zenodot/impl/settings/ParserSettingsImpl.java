@@ -19,17 +19,19 @@ class ParserSettingsImpl implements ParserSettings
 	private final AccessModifier						minimumMethodAccessModifier;
 	private final EvaluationMode						evaluationMode;
 	private final boolean 								considerAllClassesForClassCompletions;
+	private final @Nullable ClassLoader					classLoader;
 	private final Map<String, ParserExtension>			parserExtensions;
 	private final ParserLogger 							logger;
 
 
-	ParserSettingsImpl(CompletionMode completionMode, Set<Class<?>> importedClasses, Set<String> importedPackages, AccessModifier minimumFieldAccessModifier, AccessModifier minimumMethodAccessModifier, EvaluationMode evaluationMode, boolean considerAllClassesForClassCompletions, Map<String, ParserExtension> parserExtensions, ParserLogger logger) {
+	ParserSettingsImpl(CompletionMode completionMode, Set<Class<?>> importedClasses, Set<String> importedPackages, AccessModifier minimumFieldAccessModifier, AccessModifier minimumMethodAccessModifier, EvaluationMode evaluationMode, boolean considerAllClassesForClassCompletions, @Nullable ClassLoader classLoader, Map<String, ParserExtension> parserExtensions, ParserLogger logger) {
 		this.completionMode = completionMode;
 		this.imports = new ImportsImpl(importedClasses, importedPackages);
 		this.minimumFieldAccessModifier = minimumFieldAccessModifier;
 		this.minimumMethodAccessModifier = minimumMethodAccessModifier;
 		this.evaluationMode = evaluationMode;
 		this.considerAllClassesForClassCompletions = considerAllClassesForClassCompletions;
+		this.classLoader = classLoader;
 		this.parserExtensions = ImmutableMap.copyOf(parserExtensions);
 		this.logger = logger;
 	}
@@ -64,6 +66,12 @@ class ParserSettingsImpl implements ParserSettings
 		return considerAllClassesForClassCompletions;
 	}
 
+	@Nullable
+	@Override
+	public ClassLoader getClassLoader() {
+		return classLoader;
+	}
+
 	@Override
 	public Collection<String> getParserExtensionNames() {
 		return parserExtensions.keySet();
@@ -1,18 +1,93 @@
 package dd.kms.zenodot.impl.utils;
 
+import dd.kms.zenodot.impl.classindex.ClassIndex;
+import dd.kms.zenodot.impl.classindex.ClassIndexManager;
+import dd.kms.zenodot.impl.classindex.RegisteredClassLoaders;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Provides utility methods for class names.
  */
 public class ClassUtils
 {
+	/**
+	 * Returns the class with the specified normalized name or {@code null} if it cannot be loaded
+	 */
 	public static Class<?> getClassUnchecked(String className) {
+		return getClassUnchecked(className, null);
+	}
+
+	/**
+	 * Like {@link #getClassUnchecked(String)}, but loads the class via the specified class loader scope
+	 * if it is not {@code null} (see {@link #getClassLoaderScope(ClassLoader)})
+	 */
+	public static Class<?> getClassUnchecked(String className, @Nullable ClassLoader classLoaderScope) {
 		try {
-			return Class.forName(className);
+			return loadClass(className, true, classLoaderScope);
 		} catch (ClassNotFoundException | NoClassDefFoundError e) {
 			return null;
 		}
 	}
 
+	/**
+	 * Loads the class with the specified normalized name. If the class is not found by the class loader
+	 * of Zenodot, then the class loaders of the registered class sources are consulted.
+	 */
+	public static Class<?> loadClass(String className) throws ClassNotFoundException {
+		return loadClass(className, true);
+	}
+
+	/**
+	 * Like {@link #loadClass(String)}, but allows loading the class without initializing it
+	 */
+	public static Class<?> loadClass(String className, boolean initialize) throws ClassNotFoundException {
+		try {
+			return Class.forName(className, initialize, ClassUtils.class.getClassLoader());
+		} catch (ClassNotFoundException e) {
+			for (ClassLoader classLoader : RegisteredClassLoaders.get()) {
+				try {
+					return Class.forName(className, initialize, classLoader);
+				} catch (ClassNotFoundException ignored) {
+					/* try next class loader */
+				}
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Like {@link #loadClass(String, boolean)}, but loads the class only via the specified class loader
+	 * scope if it is not {@code null}
+	 */
+	public static Class<?> loadClass(String className, boolean initialize, @Nullable ClassLoader classLoaderScope) throws ClassNotFoundException {
+		return classLoaderScope == null
+			? loadClass(className, initialize)
+			: Class.forName(className, initialize, classLoaderScope);
+	}
+
+	/**
+	 * Returns the specified class loader if classes have to be loaded and indexed via this class loader
+	 * explicitly. Returns {@code null} if the class loader does not add any classes to the ones that are
+	 * covered by the shared class index, i.e., if it is the bootstrap class loader, the class loader of
+	 * Zenodot or one of its parents, or a registered class loader.
+	 */
+	@Nullable
+	public static ClassLoader getClassLoaderScope(@Nullable ClassLoader classLoader) {
+		if (classLoader == null) {
+			return null;
+		}
+		for (ClassLoader sharedClassLoader = ClassUtils.class.getClassLoader(); sharedClassLoader != null; sharedClassLoader = sharedClassLoader.getParent()) {
+			if (sharedClassLoader == classLoader) {
+				return null;
+			}
+		}
+		return RegisteredClassLoaders.get().contains(classLoader) ? null : classLoader;
+	}
+
 	public static int lastIndexOfPathSeparator(String path) {
 		return Math.max(path.lastIndexOf('.'), path.lastIndexOf('$'));
 	}
@@ -37,11 +112,45 @@ public class ClassUtils
 	 * However, when referencing a class via reflection, inner class names must be separated
 	 * from their parent class names with a dollar sign ({@code $}). We call class names in
 	 * the former style <b>regular class names</b> and class names in the latter style
-	 * <b>normalized class names</b>.
+	 * <b>normalized class names</b>.<br>
+	 * <br>
+	 * If the class name contains no dollar sign, then every split into a top level class name and inner class
+	 * names is a candidate for the normalized class name. The candidates are first looked up in the class index,
+	 * preferring the longest top level class name. Only if none of them is contained in the index, which does not
+	 * necessarily contain all classes, then the candidates are loaded in the same order until one of them exists.
 	 *
 	 * @throws ClassNotFoundException if the class does not exist or cannot be loaded otherwise
 	 */
 	public static String normalizeClassName(String qualifiedClassName) throws ClassNotFoundException {
+		return normalizeClassName(qualifiedClassName, null);
+	}
+
+	/**
+	 * Like {@link #normalizeClassName(String)}, but considers the classes of the specified class loader
+	 * scope if it is not {@code null} (see {@link #getClassLoaderScope(ClassLoader)})
+	 */
+	public static String normalizeClassName(String qualifiedClassName, @Nullable ClassLoader classLoaderScope) throws ClassNotFoundException {
+		List<String> candidates = getNormalizedClassNameCandidates(qualifiedClassName);
+		ClassIndex index = ClassIndexManager.getIndexIfBuilt(classLoaderScope);
+		if (index != null) {
+			for (String candidate : candidates) {
+				if (index.containsClass(candidate)) {
+					return candidate;
+				}
+			}
+		}
+		for (String candidate : candidates) {
+			if (getClassUnchecked(candidate, classLoaderScope) != null) {
+				return candidate;
+			}
+		}
+		throw new ClassNotFoundException("Unknown class '" + qualifiedClassName + "'");
+	}
+
+	/**
+	 * Returns the candidates for the normalized class name, starting with the longest top level class name
+	 */
+	private static List<String> getNormalizedClassNameCandidates(String qualifiedClassName) throws ClassNotFoundException {
 		int dollarPos = qualifiedClassName.indexOf('$');
 		if (dollarPos >= 0) {
 			String innerClassNamePart = qualifiedClassName.substring(dollarPos);
@@ -49,20 +158,15 @@ public class ClassUtils
 				// inner class name part contains '$' and '.'
 				throw new ClassNotFoundException("Invalid class name '" + qualifiedClassName + "'");
 			}
-			if (getClassUnchecked(qualifiedClassName) != null) {
-				return qualifiedClassName;
-			}
-		} else {
-			for (int endPosTopLevelClassName = qualifiedClassName.length(); endPosTopLevelClassName >= 0; endPosTopLevelClassName = qualifiedClassName.lastIndexOf('.', endPosTopLevelClassName - 1)) {
-				String topLevelClassName = qualifiedClassName.substring(0, endPosTopLevelClassName);
-				String remainderClassName = qualifiedClassName.substring(endPosTopLevelClassName).replace('.', '$');
-				String normalizedClassName = topLevelClassName + remainderClassName;
-				if (getClassUnchecked(normalizedClassName) != null) {
-					return normalizedClassName;
-				}
-			}
+			return Collections.singletonList(qualifiedClassName);
 		}
-		throw new ClassNotFoundException("Unknown class '" + qualifiedClassName + "'");
+		List<String> candidates = new ArrayList<>();
+		for (int endPosTopLevelClassName = qualifiedClassName.length(); endPosTopLevelClassName >= 0; endPosTopLevelClassName = qualifiedClassName.lastIndexOf('.', endPosTopLevelClassName - 1)) {
+			String topLevelClassName = qualifiedClassName.substring(0, endPosTopLevelClassName);
+			String remainderClassName = qualifiedClassName.substring(endPosTopLevelClassName).replace('.', '$');
+			candidates.add(topLevelClassName + remainderClassName);
+		}
+		return candidates;
 	}
 
 	/**
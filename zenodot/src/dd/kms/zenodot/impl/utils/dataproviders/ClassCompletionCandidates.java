@@ -0,0 +1,63 @@
+package dd.kms.zenodot.impl.utils.dataproviders;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import dd.kms.zenodot.api.common.ClassInfo;
+import dd.kms.zenodot.api.matching.MatchRating;
+import dd.kms.zenodot.api.matching.StringMatch;
+import dd.kms.zenodot.api.matching.TypeMatch;
+import dd.kms.zenodot.api.result.CodeCompletion;
+import dd.kms.zenodot.framework.matching.MatchRatings;
+import dd.kms.zenodot.impl.classindex.UnloadableClasses;
+import dd.kms.zenodot.impl.result.codecompletions.CodeCompletionFactory;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Immutable set of classes that are suggested when completing unqualified class names, e.g., the imported
+ * classes. The unqualified names are computed once such that rating a candidate does not require any
+ * string operations except for the comparison itself.
+ */
+class ClassCompletionCandidates
+{
+	static final ClassCompletionCandidates	EMPTY	= create(ImmutableList.of());
+
+	static ClassCompletionCandidates create(Collection<ClassInfo> classes) {
+		ClassInfo[] classArray = classes.toArray(new ClassInfo[0]);
+		String[] unqualifiedNames = new String[classArray.length];
+		for (int i = 0; i < classArray.length; i++) {
+			unqualifiedNames[i] = classArray[i].getUnqualifiedName();
+		}
+		return new ClassCompletionCandidates(classArray, unqualifiedNames);
+	}
+
+	private final ClassInfo[]		classes;
+	private final String[]			unqualifiedNames;
+	private final Set<ClassInfo>	classSet;
+
+	private ClassCompletionCandidates(ClassInfo[] classes, String[] unqualifiedNames) {
+		this.classes = classes;
+		this.unqualifiedNames = unqualifiedNames;
+		this.classSet = ImmutableSet.copyOf(classes);
+	}
+
+	Set<ClassInfo> getClasses() {
+		return classSet;
+	}
+
+	/**
+	 * Adds a completion for every candidate that is not known to be unloadable
+	 */
+	void complete(int insertionBegin, int insertionEnd, String classPrefix, ImmutableList.Builder<CodeCompletion> completionsBuilder) {
+		for (int i = 0; i < classes.length; i++) {
+			ClassInfo classInfo = classes[i];
+			if (UnloadableClasses.contains(classInfo.getNormalizedName())) {
+				continue;
+			}
+			StringMatch stringMatch = MatchRatings.rateStringMatch(classPrefix, unqualifiedNames[i]);
+			MatchRating rating = MatchRatings.create(stringMatch, TypeMatch.NONE, false);
+			completionsBuilder.add(CodeCompletionFactory.classCompletion(classInfo, insertionBegin, insertionEnd, false, rating));
+		}
+	}
+}
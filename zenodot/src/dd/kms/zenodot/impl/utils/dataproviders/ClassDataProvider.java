@@ -1,14 +1,13 @@
 package dd.kms.zenodot.impl.utils.dataproviders;
 
 import com.google.common.collect.*;
-import com.google.common.primitives.Primitives;
 import dd.kms.zenodot.api.common.ClassInfo;
-import dd.kms.zenodot.api.common.multistringmatching.MultiStringMatcher;
 import dd.kms.zenodot.api.matching.MatchRating;
 import dd.kms.zenodot.api.matching.StringMatch;
 import dd.kms.zenodot.api.matching.TypeMatch;
 import dd.kms.zenodot.api.result.CodeCompletion;
 import dd.kms.zenodot.api.settings.Imports;
+import dd.kms.zenodot.api.settings.ParserSettings;
 import dd.kms.zenodot.framework.common.ObjectInfoProvider;
 import dd.kms.zenodot.framework.matching.MatchRatings;
 import dd.kms.zenodot.framework.result.CodeCompletions;
@@ -16,175 +15,115 @@ import dd.kms.zenodot.framework.utils.ParseUtils;
 import dd.kms.zenodot.framework.utils.ParserToolbox;
 import dd.kms.zenodot.framework.wrappers.InfoProvider;
 import dd.kms.zenodot.framework.wrappers.ObjectInfo;
+import dd.kms.zenodot.impl.classindex.ClassIndex;
+import dd.kms.zenodot.impl.classindex.ClassIndexManager;
+import dd.kms.zenodot.impl.classindex.PackageTrie;
+import dd.kms.zenodot.impl.classindex.UnloadableClasses;
 import dd.kms.zenodot.impl.result.codecompletions.CodeCompletionFactory;
 import dd.kms.zenodot.impl.utils.ClassUtils;
-import io.github.classgraph.ClassGraph;
-import io.github.classgraph.ClassInfoList;
-import io.github.classgraph.ScanResult;
 
+import javax.annotation.Nullable;
 import java.util.*;
-import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * Utility class for providing information about classes and packages
  */
 public class ClassDataProvider
 {
-	private static final Map<String, Class<?>>			PRIMITIVE_CLASSES_BY_NAME				= Primitives.allPrimitiveTypes().stream()
-		.collect(Collectors.toMap(
-					Class::getName,
-					clazz -> clazz
-				)
-		);
-	private static final SetMultimap<String, ClassInfo> TOP_LEVEL_CLASS_INFOS_BY_PACKAGE_NAMES;
-	private static final Set<String>					PACKAGE_NAMES;
-	private static final MultiStringMatcher<ClassInfo>	CLASSES_BY_UNQUALIFIED_NAMES;
-
-	/**
-	 * The scan of the class path my find classes that cannot be loaded for whatever reason.
-	 * Whenever such a {@link ClassInfo} is encountered (it is not detected immediately
-	 * after instantiating a {@code ClassInfo} because this class is meant for referencing classes
-	 * without having to load them), then it is registered in this field. Afterward, this class
-	 * will not be suggested anymore.
-	 */
-	private static final Set<ClassInfo>					CLASS_INFOS_WITH_ERRORS	= new HashSet<>();
-
-	static {
-		TOP_LEVEL_CLASS_INFOS_BY_PACKAGE_NAMES = HashMultimap.create();
-		CLASSES_BY_UNQUALIFIED_NAMES = new MultiStringMatcher<>();
-		int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
-		try (ScanResult scanResult = new ClassGraph()
-			.enableSystemJarsAndModules()
-			.enableClassInfo()
-			.ignoreClassVisibility()
-			.removeTemporaryFilesAfterScan()
-			.scan(Executors.newFixedThreadPool(parallelism), parallelism)) {
-			ClassInfoList allClasses = scanResult.getAllClasses();
-			for (io.github.classgraph.ClassInfo clazz : allClasses) {
-				String qualifiedClassName = clazz.getName();
-				ClassInfo classInfo = InfoProvider.createClassInfoUnchecked(qualifiedClassName);
-				if (!clazz.isInnerClass()) {
-					String packageName = ClassUtils.getParentPath(classInfo.getNormalizedName());
-					TOP_LEVEL_CLASS_INFOS_BY_PACKAGE_NAMES.put(packageName, classInfo);
-				}
-				String unqualifiedName = ClassUtils.getLeafOfPath(qualifiedClassName);
-				CLASSES_BY_UNQUALIFIED_NAMES.put(unqualifiedName, classInfo);
-			}
-		}
-
-		Set<String> packageNames = new LinkedHashSet<>();
-		for (String mainPackageName : TOP_LEVEL_CLASS_INFOS_BY_PACKAGE_NAMES.keySet()) {
-			for (String packageName = mainPackageName; packageName != null; packageName = ClassUtils.getParentPath(packageName)) {
-				packageNames.add(packageName);
-			}
-		}
-		PACKAGE_NAMES = ImmutableSet.copyOf(packageNames);
-	}
+	private static final int	MAX_NUM_QUALIFIED_CLASS_COMPLETIONS	= 100;
 
 	public static void reportClassWithError(ClassInfo classInfo) {
-		CLASS_INFOS_WITH_ERRORS.add(classInfo);
+		UnloadableClasses.report(classInfo.getNormalizedName());
 	}
 
 	private static Set<ClassInfo> filterClassesWithoutErrors(Set<ClassInfo> classInfos) {
-		return CLASS_INFOS_WITH_ERRORS.isEmpty()
-			? classInfos
-			: Sets.difference(classInfos, CLASS_INFOS_WITH_ERRORS);
+		return UnloadableClasses.filter(classInfos);
 	}
 
-	private final Imports	imports;
-	private final Class<?>	thisClass;
+	private final Imports					imports;
+	private final @Nullable ClassLoader		classLoaderScope;
+	private final ImportedClassResolver		importedClassResolver;
 
 	public ClassDataProvider(ParserToolbox parserToolbox) {
-		this.imports = parserToolbox.getSettings().getImports();
+		ParserSettings settings = parserToolbox.getSettings();
+		this.imports = settings.getImports();
+		this.classLoaderScope = ClassUtils.getClassLoaderScope(settings.getClassLoader());
 		ObjectInfo thisInfo = parserToolbox.getThisInfo();
-		this.thisClass = parserToolbox.inject(ObjectInfoProvider.class).getType(thisInfo);
-	}
-
-	public static boolean packageExists(String packageName) {
-		return PACKAGE_NAMES.contains(packageName);
-	}
-
-	public Class<?> getImportedClass(String className) {
-		return Stream.of(
-				PRIMITIVE_CLASSES_BY_NAME.get(className),
-				getClassImportedViaClassName(className),
-				getClassImportedViaPackage(className)
-			).filter(Objects::nonNull)
-			.findFirst().orElse(null);
+		Class<?> thisClass = parserToolbox.inject(ObjectInfoProvider.class).getType(thisInfo);
+		this.importedClassResolver = ImportedClassResolver.get(imports, thisClass, classLoaderScope);
 	}
 
-	private Class<?> getClassImportedViaClassName(String className) {
-		for (Class<?> importedClass : getImportedClasses()) {
-			String unqualifiedName = importedClass.getSimpleName();
-			if (className.equals(unqualifiedName) || className.startsWith(unqualifiedName + ".")) {
-				// Replace simpleName by fully qualified imported name and replace '.' by '$' when separating inner classes
-				String fullyQualifiedClassName = importedClass.getName()
-						+ className.substring(unqualifiedName.length()).replace('.', '$');
-				return ClassUtils.getClassUnchecked(fullyQualifiedClassName);
+	/**
+	 * Returns whether the specified package exists. If the class index is still being built, then the
+	 * result is based on the packages that are known without the index. If the package is not among them, then
+	 * the method either waits for the index or returns {@code false}, depending on {@code waitForClassIndex}.
+	 */
+	public boolean packageExists(String packageName, boolean waitForClassIndex) {
+		ClassIndex classIndex = ClassIndexManager.getIndexIfReady(classLoaderScope);
+		if (classIndex == null) {
+			if (getPackagesKnownWithoutClassIndex().contains(packageName)) {
+				return true;
 			}
+			if (!waitForClassIndex) {
+				return false;
+			}
+			classIndex = ClassIndexManager.awaitIndex(classLoaderScope);
 		}
-		return null;
+		return classIndex.packageExists(packageName);
 	}
 
-	private Class<?> getClassImportedViaPackage(String className) {
-		return getImportedPackages().stream()
-				.map(packageName -> packageName + "." + className)
-				.map(ClassUtils::getClassUnchecked)
-				.filter(Objects::nonNull)
-				.findFirst().orElse(null);
+	/**
+	 * Returns the class with the specified normalized name or {@code null} if it cannot be loaded
+	 */
+	@Nullable
+	public Class<?> getClass(String normalizedClassName) {
+		return ClassUtils.getClassUnchecked(normalizedClassName, classLoaderScope);
 	}
 
-	private Set<Class<?>> getImportedClasses() {
-		Set<Class<?>> importedClasses = new LinkedHashSet<>();
-		importedClasses.addAll(Primitives.allPrimitiveTypes());
-		if (thisClass != null) {
-			importedClasses.add(thisClass);
-		}
-		importedClasses.addAll(imports.getImportedClasses());
-		return importedClasses;
+	public Class<?> getImportedClass(String className) {
+		return importedClassResolver.resolve(className);
+	}
+
+	private List<String> getImportedPackages() {
+		return importedClassResolver.getImportedPackages();
 	}
 
-	private Set<String> getImportedPackages() {
-		Set<String> importedPackages = new LinkedHashSet<>();
-		if (thisClass != null) {
-			Package pack = thisClass.getPackage();
-			// package is null for, e.g., arrays
+	/**
+	 * Returns the packages that are known while the class index is still being built: the imported packages,
+	 * the packages of imported classes, the packages already defined by the class loaders, and their parent
+	 * packages.
+	 */
+	private Set<String> getPackagesKnownWithoutClassIndex() {
+		Set<String> knownPackages = new LinkedHashSet<>(getImportedPackages());
+		for (Class<?> importedClass : imports.getImportedClasses()) {
+			Package pack = importedClass.getPackage();
 			if (pack != null) {
-				importedPackages.add(pack.getName());
+				knownPackages.add(pack.getName());
 			}
 		}
-		importedPackages.add("java.lang");
-		importedPackages.addAll(imports.getImportedPackages());
-		return importedPackages;
-	}
-
-	private static Set<ClassInfo> getTopLevelClassesInPackages(Collection<String> packageNames) {
-		Set<ClassInfo> classes = new HashSet<>();
-		for (String packageName : Iterables.filter(packageNames, Objects::nonNull)) {
-			Set<ClassInfo> classInfos = TOP_LEVEL_CLASS_INFOS_BY_PACKAGE_NAMES.get(packageName);
-			classes.addAll(classInfos);
+		for (Package pack : Package.getPackages()) {
+			knownPackages.add(pack.getName());
+		}
+		Set<String> packagesWithParents = new LinkedHashSet<>();
+		for (String knownPackage : knownPackages) {
+			for (String packageName = knownPackage; packageName != null; packageName = ClassUtils.getParentPath(packageName)) {
+				packagesWithParents.add(packageName);
+			}
 		}
-		return filterClassesWithoutErrors(classes);
+		return packagesWithParents;
 	}
 
 	/*
 	 * Package Completions
 	 */
-	public static CodeCompletions completePackage(int insertionBegin, int insertionEnd, String packagePrefix) {
+	public CodeCompletions completePackage(int insertionBegin, int insertionEnd, String packagePrefix) {
+		ClassIndex classIndex = ClassIndexManager.getIndexIfReady(classLoaderScope);
+		boolean partial = classIndex == null;
+		PackageTrie packages = partial ? PackageTrie.create(getPackagesKnownWithoutClassIndex()) : classIndex.getPackages();
+
 		String parentPackage = ClassUtils.getParentPath(packagePrefix);
-		int lastSeparatorIndex = ClassUtils.lastIndexOfPathSeparator(packagePrefix);
-		List<String> suggestedPackageNames = new ArrayList<>();
-		for (String packageName : PACKAGE_NAMES) {
-			if (ClassUtils.lastIndexOfPathSeparator(packageName) != lastSeparatorIndex) {
-				continue;
-			}
-			if (parentPackage != null && !packageName.startsWith(parentPackage)) {
-				continue;
-			}
-			suggestedPackageNames.add(packageName);
-		}
+		List<String> suggestedPackageNames = packages.getSubpackages(parentPackage);
 		String subpackagePrefix = ClassUtils.getLeafOfPath(packagePrefix);
 
 		List<CodeCompletion> codeCompletions = ParseUtils.createCodeCompletions(
@@ -192,7 +131,7 @@ public class ClassDataProvider
 			packageName -> CodeCompletionFactory.packageCompletion(packageName, insertionBegin, insertionEnd, ratePackage(packageName, subpackagePrefix))
 		);
 
-		return new CodeCompletions(codeCompletions);
+		return new CodeCompletions(codeCompletions, null, partial);
 	}
 
 	private static StringMatch ratePackageByName(String packageName, String expectedName) {
@@ -208,13 +147,17 @@ public class ClassDataProvider
 	/*
 	 * Class Completions
 	 */
-	public static CodeCompletions completeQualifiedClasses(int insertionBegin, int insertionEnd, String classPrefixWithPackage) {
+	public CodeCompletions completeQualifiedClasses(int insertionBegin, int insertionEnd, String classPrefixWithPackage) {
 		String packageName = ClassUtils.getParentPath(classPrefixWithPackage);
 		if (packageName == null) {
 			// class is not fully qualified, so no match
 			return CodeCompletions.NONE;
 		}
-		Set<ClassInfo> suggestedClasses = filterClassesWithoutErrors(TOP_LEVEL_CLASS_INFOS_BY_PACKAGE_NAMES.get(packageName));
+		ClassIndex classIndex = ClassIndexManager.getIndexIfReady(classLoaderScope);
+		if (classIndex == null) {
+			return new CodeCompletions(ImmutableList.of(), null, true);
+		}
+		Set<ClassInfo> suggestedClasses = filterClassesWithoutErrors(classIndex.getTopLevelClasses(packageName));
 		String classPrefix = ClassUtils.getLeafOfPath(classPrefixWithPackage);
 
 		List<CodeCompletion> codeCompletions = ParseUtils.createCodeCompletions(
@@ -227,37 +170,49 @@ public class ClassDataProvider
 
 	public CodeCompletions completeClassName(int insertionBegin, int insertionEnd, String classPrefix, boolean considerAllClasses) {
 		ImmutableList.Builder<CodeCompletion> completionsBuilder = ImmutableList.builder();
+		// a qualified class name does not match any unqualified class name
+		boolean unqualifiedClassPrefix = ClassUtils.lastIndexOfPathSeparator(classPrefix) < 0;
+
+		ClassCompletionCandidates importedClasses = importedClassResolver.getImportedClassCandidates();
+		if (unqualifiedClassPrefix) {
+			importedClasses.complete(insertionBegin, insertionEnd, classPrefix, completionsBuilder);
+		}
 
-		Set<ClassInfo> importedClasses = getImportedClasses().stream().map(InfoProvider::createClassInfo).collect(Collectors.toSet());
-		Set<ClassInfo> topLevelClassesInPackages = getTopLevelClassesInPackages(getImportedPackages());
-		Set<ClassInfo> additionalTopLevelClassesInPackage = Sets.difference(topLevelClassesInPackages, importedClasses);
+		ClassIndex classIndex = ClassIndexManager.getIndexIfReady(classLoaderScope);
+		if (classIndex == null) {
+			// only imported classes are known while the class index is being built
+			return new CodeCompletions(completionsBuilder.build(), null, true);
+		}
 
-		completionsBuilder.addAll(completeUnqualifiedClass(insertionBegin, insertionEnd, classPrefix, importedClasses));
-		completionsBuilder.addAll(completeUnqualifiedClass(insertionBegin, insertionEnd, classPrefix, additionalTopLevelClassesInPackage));
+		ClassCompletionCandidates classesOfImportedPackages = importedClassResolver.getClassesOfImportedPackages(classIndex);
+		if (unqualifiedClassPrefix) {
+			classesOfImportedPackages.complete(insertionBegin, insertionEnd, classPrefix, completionsBuilder);
+		}
 
 		if (!classPrefix.isEmpty() && considerAllClasses) {
 			// We only search all top level classes if the class prefix is not empty to avoid generating code completions for all top level classes
-			Set<ClassInfo> classesToIgnoreForQualifiedClasses = Sets.union(importedClasses, additionalTopLevelClassesInPackage);
-			completionsBuilder.addAll(completeUnqualifiedClassNameToQualifiedClass(insertionBegin, insertionEnd, classPrefix, classesToIgnoreForQualifiedClasses));
+			Set<ClassInfo> classesToIgnoreForQualifiedClasses = Sets.union(importedClasses.getClasses(), classesOfImportedPackages.getClasses());
+			completionsBuilder.addAll(completeUnqualifiedClassNameToQualifiedClass(insertionBegin, insertionEnd, classPrefix, classesToIgnoreForQualifiedClasses, classIndex));
 		}
 
 		return new CodeCompletions(completionsBuilder.build());
 	}
 
-	private static List<CodeCompletion> completeUnqualifiedClass(int insertionBegin, int insertionEnd, String classPrefix, Set<ClassInfo> classes) {
-		if (ClassUtils.lastIndexOfPathSeparator(classPrefix) >= 0) {
-			// class is fully qualified, so no match
-			return ImmutableList.of();
-		}
-		return ParseUtils.createCodeCompletions(
-			filterClassesWithoutErrors(classes),
-			classInfo -> CodeCompletionFactory.classCompletion(classInfo, insertionBegin, insertionEnd, false, rateClass(classInfo, classPrefix))
-		);
-	}
-
-	private static List<CodeCompletion> completeUnqualifiedClassNameToQualifiedClass(int insertionBegin, int insertionEnd, String classPrefix, Set<ClassInfo> classesToIgnore) {
+	private static List<CodeCompletion> completeUnqualifiedClassNameToQualifiedClass(int insertionBegin, int insertionEnd, String classPrefix, Set<ClassInfo> classesToIgnore, ClassIndex classIndex) {
 		ImmutableList.Builder<CodeCompletion> completionsBuilder = ImmutableList.builder();
-		Set<ClassInfo> classInfos = filterClassesWithoutErrors(CLASSES_BY_UNQUALIFIED_NAMES.search(classPrefix, 100));
+		Set<ClassInfo> classInfos = classIndex.searchClassesByUnqualifiedName(classPrefix, MAX_NUM_QUALIFIED_CLASS_COMPLETIONS);
+		if (classInfos.size() < MAX_NUM_QUALIFIED_CLASS_COMPLETIONS) {
+			// consider case-insensitive and lower case hump matches if there are not enough regular matches
+			int maxNumberOfCaseInsensitiveMatches = MAX_NUM_QUALIFIED_CLASS_COMPLETIONS - classInfos.size();
+			classInfos = Sets.union(classInfos, classIndex.searchClassesByUnqualifiedNameIgnoringCase(classPrefix, maxNumberOfCaseInsensitiveMatches));
+		}
+		int maxTypos = MatchRatings.getMaxNumberOfTypos(classPrefix.length());
+		if (classInfos.size() < MAX_NUM_QUALIFIED_CLASS_COMPLETIONS && maxTypos > 0) {
+			// tolerate typos if there are not enough regular matches
+			int maxNumberOfFuzzyMatches = MAX_NUM_QUALIFIED_CLASS_COMPLETIONS - classInfos.size();
+			classInfos = Sets.union(classInfos, classIndex.searchClassesByUnqualifiedNameWithTypos(classPrefix, maxTypos, maxNumberOfFuzzyMatches));
+		}
+		classInfos = filterClassesWithoutErrors(classInfos);
 		Set<ClassInfo> classInfosToConsider = Sets.difference(classInfos, classesToIgnore);
 		for (ClassInfo classInfo : classInfosToConsider) {
 			String unqualifiedName = classInfo.getUnqualifiedName();
@@ -274,7 +229,7 @@ public class ClassDataProvider
 	public static CodeCompletions completeInnerClass(String expectedName, Class<?> contextClass, int insertionBegin, int insertionEnd) {
 		Set<ClassInfo> classesToConsider = filterClassesWithoutErrors(
 			Arrays.stream(contextClass.getDeclaredClasses())
-			.map(clazz -> InfoProvider.createClassInfoUnchecked(clazz.getName()))
+			.map(InfoProvider::createClassInfo)
 			.collect(Collectors.toSet())
 		);
 		List<CodeCompletion> codeCompletions = ParseUtils.createCodeCompletions(
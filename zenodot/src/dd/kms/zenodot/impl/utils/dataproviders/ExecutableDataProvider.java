@@ -121,7 +121,7 @@ public class ExecutableDataProvider
 					.map(ObjectParseResult::getObjectInfo)
 					.collect(Collectors.toList());
 				ExecutableArgumentInfo executableArgumentInfo = createExecutableArgumentInfo(executables, argumentInfos);
-				CodeCompletions completionsWithExecutableArgumentInfo = new CodeCompletions(completions.getCompletions(), executableArgumentInfo);
+				CodeCompletions completionsWithExecutableArgumentInfo = new CodeCompletions(completions.getCompletions(), executableArgumentInfo, completions.isPartial());
 				throw new CodeCompletionException(completionsWithExecutableArgumentInfo);
 			}
 			arguments.add(argument_i);
@@ -0,0 +1,217 @@
+package dd.kms.zenodot.impl.utils.dataproviders;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Primitives;
+import dd.kms.zenodot.api.common.ClassInfo;
+import dd.kms.zenodot.api.settings.Imports;
+import dd.kms.zenodot.framework.wrappers.InfoProvider;
+import dd.kms.zenodot.impl.classindex.ClassIndex;
+import dd.kms.zenodot.impl.classindex.RegisteredClassLoaders;
+import dd.kms.zenodot.impl.utils.ClassUtils;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves unqualified class names via the imported classes and packages. Both, successful and failed
+ * resolutions, are cached. A resolver only depends on the imports, the class of {@code this} (which is
+ * imported implicitly, as is its package), and the registered class loaders. Hence, resolvers are shared
+ * by all parsers that agree on these and can be used by multiple threads concurrently.<br>
+ * <br>
+ * For the same reason, the resolver also provides the candidates for completing unqualified class names.
+ * They are only computed once (per class index for the classes of the imported packages).<br>
+ * <br>
+ * Resolvers of parsers that are scoped to a dedicated class loader are not shared because they would retain
+ * this class loader. The same holds for resolvers whose class of {@code this} or imported classes stem from
+ * such a class loader. Shared resolvers are keyed by the generation of the registered class loaders and
+ * discarded whenever the registered class loaders change such that deregistered class loaders are released.
+ */
+class ImportedClassResolver
+{
+	private static final int									MAX_NUM_RESOLVERS			= 64;
+	private static final int									MAX_NUM_RESOLVED_CLASSES	= 1024;
+
+	private static final Map<String, Class<?>>					PRIMITIVE_CLASSES_BY_NAME	= Primitives.allPrimitiveTypes().stream()
+		.collect(Collectors.toMap(
+					Class::getName,
+					clazz -> clazz
+				)
+		);
+
+	private static final Cache<ResolverKey, ImportedClassResolver>	RESOLVERS					= CacheBuilder.newBuilder().maximumSize(MAX_NUM_RESOLVERS).build();
+
+	static {
+		RegisteredClassLoaders.addChangeListener(RESOLVERS::invalidateAll);
+	}
+
+	static ImportedClassResolver get(Imports imports, @Nullable Class<?> thisClass, @Nullable ClassLoader classLoaderScope) {
+		if (classLoaderScope != null || !isShareable(imports, thisClass)) {
+			return new ImportedClassResolver(imports, thisClass, classLoaderScope);
+		}
+		long generation = RegisteredClassLoaders.getGeneration();
+		ResolverKey key = new ResolverKey(imports, thisClass, generation);
+		ImportedClassResolver resolver = RESOLVERS.asMap().computeIfAbsent(key, k -> new ImportedClassResolver(imports, thisClass, null));
+		if (RegisteredClassLoaders.getGeneration() != generation) {
+			// the change listener might have run before the resolver has been added
+			RESOLVERS.invalidate(key);
+		}
+		return resolver;
+	}
+
+	private static boolean isShareable(Imports imports, @Nullable Class<?> thisClass) {
+		if (thisClass != null && ClassUtils.getClassLoaderScope(thisClass.getClassLoader()) != null) {
+			return false;
+		}
+		for (Class<?> importedClass : imports.getImportedClasses()) {
+			if (ClassUtils.getClassLoaderScope(importedClass.getClassLoader()) != null) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private final @Nullable ClassLoader					classLoaderScope;
+	private final List<Class<?>>						importedClasses;
+	private final List<String>							importedPackages;
+	private final Cache<String, Optional<Class<?>>>		resolvedClasses	= CacheBuilder.newBuilder().maximumSize(MAX_NUM_RESOLVED_CLASSES).build();
+	private final ClassCompletionCandidates				importedClassCandidates;
+	private volatile @Nullable PackageClassCandidates	packageClassCandidates;
+
+	private ImportedClassResolver(Imports imports, @Nullable Class<?> thisClass, @Nullable ClassLoader classLoaderScope) {
+		this.classLoaderScope = classLoaderScope;
+
+		Set<Class<?>> importedClasses = new LinkedHashSet<>();
+		importedClasses.addAll(Primitives.allPrimitiveTypes());
+		if (thisClass != null) {
+			importedClasses.add(thisClass);
+		}
+		importedClasses.addAll(imports.getImportedClasses());
+		this.importedClasses = ImmutableList.copyOf(importedClasses);
+
+		Set<String> importedPackages = new LinkedHashSet<>();
+		if (thisClass != null) {
+			Package pack = thisClass.getPackage();
+			// package is null for, e.g., arrays
+			if (pack != null) {
+				importedPackages.add(pack.getName());
+			}
+		}
+		importedPackages.add("java.lang");
+		importedPackages.addAll(imports.getImportedPackages());
+		this.importedPackages = ImmutableList.copyOf(importedPackages);
+
+		this.importedClassCandidates = ClassCompletionCandidates.create(
+			this.importedClasses.stream().map(InfoProvider::createClassInfo).collect(Collectors.toList())
+		);
+	}
+
+	List<String> getImportedPackages() {
+		return importedPackages;
+	}
+
+	ClassCompletionCandidates getImportedClassCandidates() {
+		return importedClassCandidates;
+	}
+
+	/**
+	 * Returns the top level classes of the imported packages except for the imported classes
+	 */
+	ClassCompletionCandidates getClassesOfImportedPackages(ClassIndex classIndex) {
+		PackageClassCandidates candidates = packageClassCandidates;
+		if (candidates == null || candidates.classIndex != classIndex) {
+			Set<ClassInfo> classes = new LinkedHashSet<>();
+			for (String packageName : importedPackages) {
+				classes.addAll(classIndex.getTopLevelClasses(packageName));
+			}
+			classes.removeAll(importedClassCandidates.getClasses());
+			candidates = new PackageClassCandidates(classIndex, ClassCompletionCandidates.create(classes));
+			packageClassCandidates = candidates;
+		}
+		return candidates.candidates;
+	}
+
+	@Nullable
+	Class<?> resolve(String className) {
+		return resolvedClasses.asMap().computeIfAbsent(className, name -> Optional.ofNullable(doResolve(name))).orElse(null);
+	}
+
+	@Nullable
+	private Class<?> doResolve(String className) {
+		Class<?> primitiveClass = PRIMITIVE_CLASSES_BY_NAME.get(className);
+		if (primitiveClass != null) {
+			return primitiveClass;
+		}
+		Class<?> classImportedViaClassName = getClassImportedViaClassName(className);
+		if (classImportedViaClassName != null) {
+			return classImportedViaClassName;
+		}
+		return getClassImportedViaPackage(className);
+	}
+
+	@Nullable
+	private Class<?> getClassImportedViaClassName(String className) {
+		for (Class<?> importedClass : importedClasses) {
+			String unqualifiedName = importedClass.getSimpleName();
+			if (className.equals(unqualifiedName) || className.startsWith(unqualifiedName + ".")) {
+				// Replace simpleName by fully qualified imported name and replace '.' by '$' when separating inner classes
+				String fullyQualifiedClassName = importedClass.getName()
+						+ className.substring(unqualifiedName.length()).replace('.', '$');
+				return ClassUtils.getClassUnchecked(fullyQualifiedClassName, classLoaderScope);
+			}
+		}
+		return null;
+	}
+
+	@Nullable
+	private Class<?> getClassImportedViaPackage(String className) {
+		for (String packageName : importedPackages) {
+			Class<?> clazz = ClassUtils.getClassUnchecked(packageName + "." + className, classLoaderScope);
+			if (clazz != null) {
+				return clazz;
+			}
+		}
+		return null;
+	}
+
+	private static class PackageClassCandidates
+	{
+		private final ClassIndex				classIndex;
+		private final ClassCompletionCandidates	candidates;
+
+		PackageClassCandidates(ClassIndex classIndex, ClassCompletionCandidates candidates) {
+			this.classIndex = classIndex;
+			this.candidates = candidates;
+		}
+	}
+
+	private static class ResolverKey
+	{
+		private final Imports				imports;
+		private final @Nullable Class<?>	thisClass;
+		private final long					registeredClassLoadersGeneration;
+
+		ResolverKey(Imports imports, @Nullable Class<?> thisClass, long registeredClassLoadersGeneration) {
+			this.imports = imports;
+			this.thisClass = thisClass;
+			this.registeredClassLoadersGeneration = registeredClassLoadersGeneration;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (o == null || getClass() != o.getClass()) return false;
+			ResolverKey that = (ResolverKey) o;
+			return Objects.equals(imports, that.imports)
+				&& thisClass == that.thisClass
+				&& registeredClassLoadersGeneration == that.registeredClassLoadersGeneration;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(imports, thisClass, registeredClassLoadersGeneration);
+		}
+	}
+}